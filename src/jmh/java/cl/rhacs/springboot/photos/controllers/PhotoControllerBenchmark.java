@@ -0,0 +1,160 @@
+package cl.rhacs.springboot.photos.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import cl.rhacs.springboot.photos.PhotosApplication;
+import cl.rhacs.springboot.photos.models.Cursor;
+import cl.rhacs.springboot.photos.services.PhotoCountService;
+import cl.rhacs.springboot.photos.support.AsyncRequests;
+
+/**
+ * End-to-end cost of the {@link PhotoController} endpoints, from the
+ * {@code DispatcherServlet} to the serialized body, against the embedded H2
+ * database of the {@code test} profile. The rows of {@code data-mysql.sql} are
+ * copied until the table holds {@code rows} photos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PhotoControllerBenchmark {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Param({ "1000", "10000" })
+    private int rows;
+
+    @Param({ "10", "50" })
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private String middlePage;
+
+    private String middleCursor;
+
+    private String photoETag;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(PhotosApplication.class).run("--spring.profiles.active=test",
+                "--server.port=0", "--spring.main.banner-mode=off", "--logging.level.root=warn");
+
+        scale(context.getBean(JdbcTemplate.class));
+        context.getBean(PhotoCountService.class).refresh();
+
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        middlePage = String.valueOf(rows / pageSize / 2);
+        middleCursor = new Cursor("photoId", "asc", String.valueOf(rows / 2), (long) rows / 2).encode();
+        photoETag = perform(get("/photos/1")).getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(get("/photos").param("page", middlePage).param("size", String.valueOf(pageSize)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult pageWithExactTotals() throws Exception {
+        return perform(get("/photos").param("page", middlePage).param("size", String.valueOf(pageSize)));
+    }
+
+    @Benchmark
+    public MvcResult pageWithoutTotals() throws Exception {
+        return perform(get("/photos").param("page", middlePage).param("size", String.valueOf(pageSize))
+                .param("totals", "none"));
+    }
+
+    @Benchmark
+    public MvcResult pageWithDescriptions() throws Exception {
+        return perform(get("/photos").param("page", middlePage).param("size", String.valueOf(pageSize))
+                .param("fields", "description"));
+    }
+
+    @Benchmark
+    public MvcResult pageAfterCursor() throws Exception {
+        return perform(get("/photos").param("after", middleCursor).param("size", String.valueOf(pageSize)));
+    }
+
+    @Benchmark
+    public MvcResult photoById() throws Exception {
+        return perform(get("/photos/1"));
+    }
+
+    @Benchmark
+    public MvcResult photoNotModified() throws Exception {
+        return perform(get("/photos/1").header(HttpHeaders.IF_NONE_MATCH, photoETag));
+    }
+
+    /**
+     * Performs a request with {@link AsyncRequests}, and fails when it does not
+     * succeed
+     *
+     * @param request the request
+     * @return the result
+     * @throws Exception when the request fails
+     */
+    private MvcResult perform(RequestBuilder request) throws Exception {
+        MvcResult result = AsyncRequests.perform(mockMvc, request).andReturn();
+        int status = result.getResponse().getStatus();
+
+        if (status != 200 && status != 304) {
+            throw new IllegalStateException("Unexpected status " + status + ": "
+                    + result.getResponse().getContentAsString());
+        }
+
+        return result;
+    }
+
+    /**
+     * Copies the seeded photos, with new ids and urls, until the table holds the
+     * requested rows
+     *
+     * @param jdbcTemplate the JDBC template
+     */
+    private void scale(JdbcTemplate jdbcTemplate) {
+        long seeded = jdbcTemplate.queryForObject("select max(photo_id) from photos", Long.class);
+        List<Object[]> copies = new ArrayList<>();
+
+        for (long offset = seeded; offset < rows; offset += seeded) {
+            copies.add(new Object[] { offset, offset, offset, rows - offset });
+        }
+
+        jdbcTemplate.batchUpdate("insert into photos (photo_id, title, description, url, views, created_at, "
+                + "updated_at, snapper_id) select photo_id + ?, title, description, concat(url, '&copy=', ?), "
+                + "mod((photo_id + ?) * 7919, 100000), created_at, updated_at, snapper_id from photos "
+                + "where photo_id <= ? and photo_id <= " + seeded, copies);
+        jdbcTemplate.update("update id_generators set next_val = ? where sequence_name = 'photos'", rows + 1);
+    }
+
+}
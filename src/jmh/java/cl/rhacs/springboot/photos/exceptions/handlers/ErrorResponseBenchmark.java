@@ -0,0 +1,160 @@
+package cl.rhacs.springboot.photos.exceptions.handlers;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import cl.rhacs.springboot.photos.controllers.PhotoController;
+import cl.rhacs.springboot.photos.exceptions.ContentNotFoundException;
+import cl.rhacs.springboot.photos.exceptions.PageOutOfBoundsException;
+import cl.rhacs.springboot.photos.exceptions.PhotoNotFoundException;
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.errors.ErrorResponse;
+
+/**
+ * Cost of building the {@code ErrorResponse}s and {@code DetailedError}s of the
+ * {@link GlobalExceptionHandler}, including the exception that triggers them,
+ * and of serializing them. The {@code legacy} benchmarks build the static
+ * errors the way the handler did before {@link StaticErrorBodies}: an exception
+ * with its stack trace and an {@code ErrorResponse} serialized by Jackson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ErrorResponseBenchmark {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Param({ "1", "5" })
+    private int fieldErrors;
+
+    private GlobalExceptionHandler handler;
+
+    private ObjectMapper objectMapper;
+
+    private Validator validator;
+
+    private MethodParameter parameter;
+
+    private WebRequest request;
+
+    private Photo invalidPhoto;
+
+    /**
+     * A new id on every call, as the not found messages carry the id
+     */
+    private long photoId;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        StaticErrorBodies staticErrorBodies = new StaticErrorBodies();
+        ReflectionTestUtils.setField(staticErrorBodies, "objectMapper", objectMapper);
+        staticErrorBodies.initialize();
+        handler = new GlobalExceptionHandler();
+        ReflectionTestUtils.setField(handler, "staticErrorBodies", staticErrorBodies);
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        parameter = new MethodParameter(PhotoController.class.getMethod("addPhoto", Photo.class), 0);
+        request = new ServletWebRequest(new MockHttpServletRequest("POST", "/photos"));
+        invalidPhoto = new Photo("x", null, "not an url");
+    }
+
+    @Benchmark
+    public ResponseEntity<?> contentNotFound() {
+        return handler.handleContentNotFoundException(new ContentNotFoundException("The repository is empty"));
+    }
+
+    @Benchmark
+    public byte[] contentNotFoundLegacy() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(
+                new ErrorResponse(HttpStatus.NO_CONTENT, new RuntimeException("The repository is empty")));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> pageOutOfBounds() {
+        return handler.handleIndexOutOfBoundsException(new PageOutOfBoundsException(41));
+    }
+
+    @Benchmark
+    public byte[] pageOutOfBoundsLegacy() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new ErrorResponse(HttpStatus.BAD_REQUEST,
+                new IndexOutOfBoundsException(String.format("Page value out of bounds, max page = %d", 41))));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> photoNotFound() {
+        return handler.handleNotFoundException(new PhotoNotFoundException("Photo not found for this id :: " + ++photoId));
+    }
+
+    @Benchmark
+    public byte[] photoNotFoundLegacy() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new ErrorResponse(HttpStatus.NOT_FOUND,
+                new RuntimeException("Photo not found for this id :: " + ++photoId)));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> illegalArgument() {
+        return handler.handleIllegalArgumentException(new IllegalArgumentException(
+                "'sideways' is an unknown sorting order. Possible values: 'asc' for ascending order and 'desc' for descending order."));
+    }
+
+    @Benchmark
+    public byte[] illegalArgumentSerialized() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(illegalArgument().getBody());
+    }
+
+    @Benchmark
+    public ResponseEntity<?> methodArgumentNotValid() {
+        BeanPropertyBindingResult result = new BeanPropertyBindingResult(invalidPhoto, "photo");
+
+        for (int i = 0; i < fieldErrors; i++) {
+            result.rejectValue("title", "Size", "size must be between 2 and 50");
+        }
+
+        return handler.handleMethodArgumentNotValid(new MethodArgumentNotValidException(parameter, result),
+                new HttpHeaders(), HttpStatus.BAD_REQUEST, request);
+    }
+
+    @Benchmark
+    public byte[] methodArgumentNotValidSerialized() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(methodArgumentNotValid().getBody());
+    }
+
+    @Benchmark
+    public ResponseEntity<?> constraintViolation() {
+        return handler.handleConstraintViolationException(
+                new ConstraintViolationException(validator.validate(invalidPhoto)));
+    }
+
+}
@@ -0,0 +1,128 @@
+package cl.rhacs.springboot.photos.models;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Cost of serializing the response bodies of the API with an
+ * {@link ObjectMapper} configured like the one of Spring Boot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final String DESCRIPTION = "Duis mattis egestas metus. Aenean fermentum. Donec ut mauris eget "
+            + "massa tempor convallis. Nulla neque libero, convallis eget, eleifend luctus, ultricies eu, nibh. "
+            + "Quisque id justo sit amet sapien dignissim vestibulum. Vestibulum ante ipsum primis in faucibus orci "
+            + "luctus et ultrices posuere cubilia Curae; Nulla dapibus dolor vel est. Donec odio justo, sollicitudin "
+            + "ut, suscipit a, feugiat et, eros.";
+
+    private static final long TOTAL_ITEMS = 10000L;
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Param({ "10", "50", "100" })
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private Photo photo;
+
+    private Snapper snapper;
+
+    private PageableResponse photosPage;
+
+    private PageableResponse summariesPage;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+        List<Photo> photos = new ArrayList<>(pageSize);
+        List<PhotoSummary> summaries = new ArrayList<>(pageSize);
+
+        for (long id = 1; id <= pageSize; id++) {
+            Photo element = photo(id);
+            photos.add(element);
+            summaries.add(new PhotoSummary(element.getPhotoId(), element.getTitle(), element.getUrl(),
+                    element.getViews(), element.getSnapperId(), element.getCreatedAt(), element.getUpdatedAt()));
+        }
+
+        int totalPages = (int) ((TOTAL_ITEMS + pageSize - 1) / pageSize);
+
+        photo = photos.get(0);
+        snapper = new Snapper("snapper", "snapper@example.com", "a secret password");
+        snapper.setBiography("Takes pictures of robots since 2015");
+        ReflectionTestUtils.setField(snapper, "snapperId", 1L);
+        ReflectionTestUtils.setField(snapper, "createdAt", new Date());
+        ReflectionTestUtils.setField(snapper, "updatedAt", new Date());
+
+        photosPage = new PageableResponse(0, totalPages, pageSize, TOTAL_ITEMS, photos);
+        summariesPage = new PageableResponse(0, totalPages, pageSize, TOTAL_ITEMS, summaries);
+    }
+
+    @Benchmark
+    public byte[] photo() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(photo);
+    }
+
+    @Benchmark
+    public byte[] snapper() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(snapper);
+    }
+
+    @Benchmark
+    public byte[] pageOfPhotos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(photosPage);
+    }
+
+    @Benchmark
+    public byte[] pageOfSummaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summariesPage);
+    }
+
+    /**
+     * Creates a persisted-looking {@link Photo}
+     *
+     * @param id the photo id
+     * @return the photo
+     */
+    private static Photo photo(long id) {
+        Photo photo = new Photo("Decentralized user-facing process improvement " + id, DESCRIPTION,
+                "https://robohash.org/" + id + ".png?size=640x320&set=set1");
+        photo.setViews(id * 37);
+        photo.setSnapperId(1L);
+        ReflectionTestUtils.setField(photo, "photoId", id);
+        ReflectionTestUtils.setField(photo, "createdAt", new Date());
+        ReflectionTestUtils.setField(photo, "updatedAt", new Date());
+
+        return photo;
+    }
+
+}
@@ -0,0 +1,305 @@
+package cl.rhacs.springboot.photos.load;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Fills the database with synthetic snappers and photos before the services
+ * build their in-memory structures, so the search index, the leaderboard, the
+ * uniqueness filters and the count are built from the generated rows.
+ * <p>
+ * The rows follow the shapes of a real photo site rather than uniform noise:
+ * <ul>
+ * <li>photos are owned following a log-uniform distribution (Zipf with
+ * {@code s = 1}), so a few snappers own most of them</li>
+ * <li>the ids grow with the creation dates, and uploads grow exponentially
+ * over the last {@code days}</li>
+ * <li>the views follow a Pareto distribution, with a long tail of popular
+ * photos</li>
+ * <li>the descriptions are missing for one photo out of ten and their length is
+ * log-normal, around 200 characters</li>
+ * <li>one photo out of five was updated after its creation</li>
+ * </ul>
+ * The same seed always generates the same rows.
+ */
+public class DatasetGenerator implements ApplicationListener<ApplicationReadyEvent>, Ordered {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final String INSERT_SNAPPER = "insert into snappers (username, email, password, biography, "
+            + "created_at, updated_at) values (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PHOTO = "insert into photos (photo_id, title, description, url, views, "
+            + "created_at, updated_at, snapper_id) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String[] WORDS = ("lorem ipsum dolor sit amet consectetur adipiscing elit sed do eiusmod "
+            + "tempor incididunt ut labore et dolore magna aliqua enim ad minim veniam quis nostrud exercitation "
+            + "ullamco laboris nisi aliquip ex ea commodo consequat duis aute irure in reprehenderit voluptate velit "
+            + "esse cillum fugiat nulla pariatur excepteur sint occaecat cupidatat non proident sunt culpa qui officia "
+            + "deserunt mollit anim id est laborum sunset mountain harbour portrait street winter river forest city "
+            + "night market bridge garden desert coast festival skyline meadow canyon lighthouse").split(" ");
+
+    private static final int TEXT_LENGTH = 1 << 16;
+
+    private static final int MAX_DESCRIPTION = 4000;
+
+    private static final int MAX_BIOGRAPHY = 255;
+
+    private static final int PROGRESS_INTERVAL = 100000;
+
+    private static final double UPLOAD_GROWTH = 3;
+
+    private static final double VIEWS_SHAPE = 1.16;
+
+    private static final double VIEWS_SCALE = 20;
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final int snappers;
+
+    private final int photos;
+
+    private final int days;
+
+    private final long seed;
+
+    private final int chunkSize;
+
+    private final String text;
+
+    private long firstPhotoId;
+
+    private long lastPhotoId;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new {@link DatasetGenerator}
+     *
+     * @param snappers  the number of snappers to generate
+     * @param photos    the number of photos to generate
+     * @param days      the days the creation dates are spread over
+     * @param seed      the seed of the random values
+     * @param chunkSize the rows inserted by every batch
+     */
+    public DatasetGenerator(int snappers, int photos, int days, long seed, int chunkSize) {
+        this.snappers = snappers;
+        this.photos = photos;
+        this.days = days;
+        this.seed = seed;
+        this.chunkSize = chunkSize;
+        this.text = text(new SplittableRandom(seed));
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the id of the first generated photo
+     */
+    public long getFirstPhotoId() {
+        return firstPhotoId;
+    }
+
+    /**
+     * @return the id of the last generated photo
+     */
+    public long getLastPhotoId() {
+        return lastPhotoId;
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Generates the rows
+     *
+     * @param jdbcTemplate the JDBC template
+     */
+    public void generate(JdbcTemplate jdbcTemplate) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long now = System.currentTimeMillis();
+        long span = TimeUnit.DAYS.toMillis(days);
+
+        long start = System.nanoTime();
+        List<Object[]> rows = new ArrayList<>(chunkSize);
+
+        for (int i = 0; i < snappers; i++) {
+            Timestamp createdAt = new Timestamp(createdAt(now, span, i, snappers, random));
+            rows.add(new Object[] { "snapper" + i, "snapper" + i + "@load.test", "aVeryStrongPassword",
+                    (random.nextInt(10) < 3) ? text(random, MAX_BIOGRAPHY) : null, createdAt, createdAt });
+
+            if (rows.size() == chunkSize || i == snappers - 1) {
+                jdbcTemplate.batchUpdate(INSERT_SNAPPER, rows);
+                rows.clear();
+                progress("snappers", i + 1, snappers, start);
+            }
+        }
+
+        long[] snapperIds = jdbcTemplate
+                .queryForList("select snapper_id from snappers order by snapper_id", Long.class).stream()
+                .mapToLong(Long::longValue).toArray();
+
+        firstPhotoId = jdbcTemplate.queryForObject(
+                "select next_val from id_generators where sequence_name = 'photos'", Long.class);
+        start = System.nanoTime();
+
+        for (int i = 0; i < photos; i++) {
+            long photoId = firstPhotoId + i;
+            long createdAt = createdAt(now, span, i, photos, random);
+            long updatedAt = createdAt;
+
+            if (random.nextInt(5) == 0) {
+                double edited = -Math.log(1 - random.nextDouble()) * TimeUnit.DAYS.toMillis(30);
+                updatedAt = Math.min(now, createdAt + (long) edited);
+            }
+
+            String description = (random.nextInt(10) == 0) ? null : text(random, MAX_DESCRIPTION);
+            rows.add(new Object[] { photoId, title(random), description, "https://photos.load.test/" + photoId + ".jpg",
+                    views(random), new Timestamp(createdAt), new Timestamp(updatedAt),
+                    snapperIds[owner(snapperIds.length, random)] });
+
+            if (rows.size() == chunkSize || i == photos - 1) {
+                jdbcTemplate.batchUpdate(INSERT_PHOTO, rows);
+                rows.clear();
+                progress("photos", i + 1, photos, start);
+            }
+        }
+
+        lastPhotoId = firstPhotoId + photos - 1;
+        jdbcTemplate.update("update id_generators set next_val = ? where sequence_name = 'photos'", lastPhotoId + 1);
+    }
+
+    /**
+     * Generates a creation date. The dates grow with the position of the row and
+     * get denser towards the present
+     *
+     * @param now    the current time
+     * @param span   the milliseconds the dates are spread over
+     * @param index  the position of the row
+     * @param total  the number of rows
+     * @param random the random source
+     * @return the creation date, in milliseconds
+     */
+    private static long createdAt(long now, long span, int index, int total, SplittableRandom random) {
+        double position = (index + random.nextDouble()) / total;
+        double elapsed = Math.log1p(position * Math.expm1(UPLOAD_GROWTH)) / UPLOAD_GROWTH;
+
+        return now - span + (long) (elapsed * span);
+    }
+
+    /**
+     * Picks the owner of a photo, the first snappers being the most prolific
+     *
+     * @param snappers the number of snappers
+     * @param random   the random source
+     * @return the position of the owner
+     */
+    private static int owner(int snappers, SplittableRandom random) {
+        return (int) Math.min(snappers - 1, (long) Math.pow(snappers, random.nextDouble()) - 1);
+    }
+
+    /**
+     * Generates the views of a photo
+     *
+     * @param random the random source
+     * @return the views
+     */
+    private static long views(SplittableRandom random) {
+        double pareto = VIEWS_SCALE / Math.pow(1 - random.nextDouble(), 1 / VIEWS_SHAPE);
+        return Math.min((long) (pareto - VIEWS_SCALE), 1_000_000_000L);
+    }
+
+    private String title(SplittableRandom random) {
+        StringBuilder title = new StringBuilder(50);
+        int words = 2 + random.nextInt(4);
+
+        for (int i = 0; i < words; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+
+            if (title.length() + word.length() + 1 > 50) {
+                break;
+            }
+
+            title.append((i == 0) ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : " " + word);
+        }
+
+        return title.toString();
+    }
+
+    /**
+     * Cuts a description or a biography from the text, with a log-normal length
+     *
+     * @param random    the random source
+     * @param maxLength the maximum length
+     * @return the text
+     */
+    private String text(SplittableRandom random, int maxLength) {
+        double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble()))
+                * Math.cos(2 * Math.PI * random.nextDouble());
+        int length = (int) Math.max(16, Math.min(maxLength, Math.exp(Math.log(200) + 0.9 * gaussian)));
+        int offset = random.nextInt(TEXT_LENGTH - length);
+
+        return text.substring(offset, offset + length).trim();
+    }
+
+    /**
+     * Builds the text the descriptions are cut from
+     *
+     * @param random the random source
+     * @return the text
+     */
+    private static String text(SplittableRandom random) {
+        StringBuilder text = new StringBuilder(TEXT_LENGTH + 16);
+
+        while (text.length() < TEXT_LENGTH) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+
+        return text.substring(0, TEXT_LENGTH);
+    }
+
+    /**
+     * Reports the progress every {@code PROGRESS_INTERVAL} rows and at the end
+     */
+    private void progress(String table, int rows, int total, long start) {
+        if (rows != total && rows % PROGRESS_INTERVAL >= chunkSize) {
+            return;
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        LOGGER.info("Generated {} of {} {} ({} rows/s)", rows, total, table, Math.round(rows / seconds));
+    }
+
+    // Inheritances (ApplicationListener)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        generate(event.getApplicationContext().getBean(JdbcTemplate.class));
+    }
+
+    // Inheritances (Ordered)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+}
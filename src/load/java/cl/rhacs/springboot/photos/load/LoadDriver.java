@@ -0,0 +1,199 @@
+package cl.rhacs.springboot.photos.load;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Drives a {@link Workload} against a running application over HTTP and
+ * records the latency of every {@link Operation} on HDR histograms.
+ * <p>
+ * Every worker sends one request at a time. Without a target rate the workers
+ * send the next request as soon as the previous one answers, which measures
+ * the throughput the application sustains. With a target rate the requests are
+ * scheduled at fixed intervals and their latency is measured from the moment
+ * they were due, so a stalled server is charged for the requests it delayed
+ * instead of hiding them (coordinated omission).
+ * <p>
+ * Nothing is recorded during the warm-up.
+ */
+public class LoadDriver {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Highest latency the histograms track, in microseconds
+     */
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final Target target;
+
+    private final Workload workload;
+
+    private final int threads;
+
+    private final double rate;
+
+    private final long seed;
+
+    private final HttpClient client;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new {@link LoadDriver}
+     *
+     * @param target   the application and its dataset
+     * @param workload the mix of operations
+     * @param threads  the number of concurrent workers
+     * @param rate     the requests per second of all the workers together, or
+     *                 zero to send them as fast as they are answered
+     * @param seed     the seed of the random values of the workers
+     */
+    public LoadDriver(Target target, Workload workload, int threads, double rate, long seed) {
+        this.target = target;
+        this.workload = workload;
+        this.threads = threads;
+        this.rate = rate;
+        this.seed = seed;
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Runs the workload
+     *
+     * @param warmUp   how long to run before recording
+     * @param duration how long to record
+     * @return the report of the recorded requests
+     * @throws InterruptedException when interrupted while waiting for the workers
+     * @throws ExecutionException   when a worker fails
+     */
+    public LoadReport run(Duration warmUp, Duration duration) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long recordFrom = System.nanoTime() + warmUp.toNanos();
+        long recordUntil = recordFrom + duration.toNanos();
+        List<Future<Worker>> futures = new ArrayList<>(threads);
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                Worker worker = new Worker(new SplittableRandom(seed + i), recordFrom, recordUntil);
+                futures.add(executor.submit(worker::call));
+            }
+
+            LoadReport report = new LoadReport(workload, threads, duration);
+
+            for (Future<Worker> future : futures) {
+                Worker worker = future.get();
+                worker.latencies.forEach((operation, histogram) -> report.add(operation, histogram,
+                        worker.errors.get(operation)[0]));
+            }
+
+            return report;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Worker
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Sends the requests of one connection and keeps its own histograms, so the
+     * workers never contend while recording
+     */
+    private class Worker {
+
+        private final SplittableRandom random;
+
+        private final long recordFrom;
+
+        private final long recordUntil;
+
+        private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+
+        private final Map<Operation, long[]> errors = new EnumMap<>(Operation.class);
+
+        private Worker(SplittableRandom random, long recordFrom, long recordUntil) {
+            this.random = random;
+            this.recordFrom = recordFrom;
+            this.recordUntil = recordUntil;
+
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new Histogram(HIGHEST_LATENCY, SIGNIFICANT_DIGITS));
+                errors.put(operation, new long[1]);
+            }
+        }
+
+        private Worker call() throws InterruptedException {
+            long interval = (rate > 0) ? (long) (TimeUnit.SECONDS.toNanos(threads) / rate) : 0;
+            // spreads the first requests of the workers over one interval
+            long due = System.nanoTime() + ((interval > 0) ? random.nextLong(interval) : 0);
+
+            while (due < recordUntil) {
+                if (interval > 0) {
+                    LockSupport.parkNanos(due - System.nanoTime());
+                } else {
+                    due = System.nanoTime();
+                }
+
+                Operation operation = workload.next(random);
+                HttpRequest request = operation.request(target, random);
+                boolean failed;
+
+                try {
+                    int status = client.send(request, BodyHandlers.discarding()).statusCode();
+                    failed = status >= 400;
+                } catch (IOException e) {
+                    failed = true;
+                }
+
+                long end = System.nanoTime();
+
+                if (due >= recordFrom) {
+                    latencies.get(operation).recordValue(Math.min(HIGHEST_LATENCY,
+                            TimeUnit.NANOSECONDS.toMicros(end - due)));
+
+                    if (failed) {
+                        errors.get(operation)[0]++;
+                    }
+                }
+
+                due = (interval > 0) ? due + interval : end;
+
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+
+            return this;
+        }
+
+    }
+
+}
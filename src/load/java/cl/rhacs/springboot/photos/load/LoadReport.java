@@ -0,0 +1,103 @@
+package cl.rhacs.springboot.photos.load;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Throughput and latency percentiles of a run of the {@link LoadDriver}, per
+ * {@link Operation} and overall
+ */
+public class LoadReport {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final Workload workload;
+
+    private final int threads;
+
+    private final Duration duration;
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+
+    private final Histogram total = new Histogram(HIGHEST_LATENCY, 3);
+
+    private long totalErrors;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates an empty {@link LoadReport}
+     *
+     * @param workload the mix of operations
+     * @param threads  the number of workers
+     * @param duration how long the requests were recorded
+     */
+    public LoadReport(Workload workload, int threads, Duration duration) {
+        this.workload = workload;
+        this.threads = threads;
+        this.duration = duration;
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Adds the requests recorded by a worker
+     *
+     * @param operation the operation
+     * @param histogram the latencies, in microseconds
+     * @param failed    the requests that failed
+     */
+    public void add(Operation operation, Histogram histogram, long failed) {
+        if (histogram.getTotalCount() == 0) {
+            return;
+        }
+
+        latencies.computeIfAbsent(operation, o -> new Histogram(HIGHEST_LATENCY, 3)).add(histogram);
+        errors.merge(operation, failed, Long::sum);
+        total.add(histogram);
+        totalErrors += failed;
+    }
+
+    /**
+     * Prints the report as a table, with the latencies in milliseconds
+     *
+     * @param out the output
+     */
+    public void print(PrintStream out) {
+        out.printf("%nWorkload %s, %d workers, %d s%n%n", workload, threads, duration.toSeconds());
+        out.printf("%-16s %10s %8s %10s %9s %9s %9s %9s %9s%n", "operation", "requests", "errors", "req/s", "p50",
+                "p90", "p99", "p99.9", "max");
+
+        latencies.forEach((operation, histogram) -> row(out, operation.name(), histogram, errors.get(operation)));
+        row(out, "TOTAL", total, totalErrors);
+    }
+
+    private void row(PrintStream out, String name, Histogram histogram, long failed) {
+        out.printf("%-16s %10d %8d %10.1f", name, histogram.getTotalCount(), failed,
+                histogram.getTotalCount() / (duration.toMillis() / 1000.0));
+
+        for (double percentile : PERCENTILES) {
+            out.printf(" %9.2f", histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+
+        out.printf(" %9.2f%n", histogram.getMaxValue() / 1000.0);
+    }
+
+}
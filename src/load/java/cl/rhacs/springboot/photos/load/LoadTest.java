@@ -0,0 +1,140 @@
+package cl.rhacs.springboot.photos.load;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import cl.rhacs.springboot.photos.PhotosApplication;
+
+/**
+ * Starts the application on a random port against the embedded H2 database of
+ * the {@code test} profile, fills it with the {@link DatasetGenerator} and
+ * runs the {@link LoadDriver} against it:
+ *
+ * <pre>
+ * mvn -P load-test verify -DskipTests
+ * mvn -P load-test verify -DskipTests -Dload.options="--photos=2000000 --workload=deep_paging --threads=32"
+ * </pre>
+ *
+ * The options, with their defaults:
+ * <ul>
+ * <li>{@code --snappers=10000} and {@code --photos=200000}: the size of the
+ * dataset</li>
+ * <li>{@code --days=1095}: the days the creation dates are spread over</li>
+ * <li>{@code --workload=read_heavy}: read_heavy, write_heavy or
+ * deep_paging</li>
+ * <li>{@code --threads=16}: the concurrent workers</li>
+ * <li>{@code --rate=0}: the requests per second, zero for as many as
+ * answered</li>
+ * <li>{@code --warm-up=PT30S} and {@code --duration=PT60S}</li>
+ * <li>{@code --seed=42}</li>
+ * <li>{@code --result}: a file to copy the report to</li>
+ * </ul>
+ * Other {@code --} arguments are handed to Spring Boot.
+ */
+public class LoadTest {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final int CHUNK_SIZE = 5000;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    private LoadTest() {
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Runs the load test
+     *
+     * @param args the options
+     * @throws InterruptedException when interrupted while waiting for the workers
+     * @throws ExecutionException   when a worker fails
+     * @throws IOException          when the report can not be written
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException, IOException {
+        Map<String, String> options = new HashMap<>();
+        Map<String, String> springOptions = new HashMap<>();
+
+        springOptions.put("spring.profiles.active", "test");
+        springOptions.put("server.port", "0");
+        springOptions.put("spring.main.banner-mode", "off");
+        springOptions.put("logging.level.root", "warn");
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException(String.format("'%s' is not a --name=value option", arg));
+            }
+
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+
+            (name.contains(".") ? springOptions : options).put(name, value);
+        }
+
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        DatasetGenerator generator = new DatasetGenerator(Integer.parseInt(options.getOrDefault("snappers", "10000")),
+                Integer.parseInt(options.getOrDefault("photos", "200000")),
+                Integer.parseInt(options.getOrDefault("days", "1095")), seed, CHUNK_SIZE);
+
+        // one connection per worker, on top of the ones of the JDBC executor
+        springOptions.putIfAbsent("server.tomcat.threads.max", String.valueOf(Math.max(200, threads * 2)));
+
+        // devtools would restart the application calling main with the Spring Boot
+        // arguments alone
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        String[] springArgs = springOptions.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PhotosApplication.class)
+                .listeners(generator).run(springArgs)) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            long snappers = context.getBean(JdbcTemplate.class).queryForObject("select count(*) from snappers",
+                    Long.class);
+            Target target = new Target(URI.create("http://localhost:" + port), 1, generator.getLastPhotoId(),
+                    snappers);
+            Workload workload = Workload.valueOf(options.getOrDefault("workload", "read_heavy")
+                    .toUpperCase(Locale.ROOT));
+
+            System.out.printf("Running %s with %d workers%n", workload, threads);
+
+            LoadReport report = new LoadDriver(target, workload, threads,
+                    Double.parseDouble(options.getOrDefault("rate", "0")), seed)
+                            .run(Duration.parse(options.getOrDefault("warm-up", "PT30S")),
+                                    Duration.parse(options.getOrDefault("duration", "PT60S")));
+
+            report.print(System.out);
+
+            if (options.containsKey("result")) {
+                Path result = Path.of(options.get("result"));
+                Files.createDirectories(result.toAbsolutePath().getParent());
+
+                try (PrintStream out = new PrintStream(new FileOutputStream(result.toFile()), true,
+                        StandardCharsets.UTF_8)) {
+                    report.print(out);
+                }
+            }
+        }
+    }
+
+}
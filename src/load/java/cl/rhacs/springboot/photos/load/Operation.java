@@ -0,0 +1,151 @@
+package cl.rhacs.springboot.photos.load;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.util.SplittableRandom;
+
+import cl.rhacs.springboot.photos.models.Cursor;
+
+/**
+ * A request of the API, built against a {@link Target}
+ */
+public enum Operation {
+
+    /**
+     * The detail of a hot photo
+     */
+    PHOTO_BY_ID {
+        @Override
+        public HttpRequest request(Target target, SplittableRandom random) {
+            return get(target, "/photos/" + target.hotPhotoId(random));
+        }
+    },
+
+    /**
+     * One of the first five pages, by id or newest first
+     */
+    FIRST_PAGES {
+        @Override
+        public HttpRequest request(Target target, SplittableRandom random) {
+            String sort = random.nextBoolean() ? "" : "&sortBy=createdAt&sortOrder=desc";
+            return get(target, "/photos?size=10&page=" + random.nextInt(5) + sort);
+        }
+    },
+
+    /**
+     * A page anywhere in the listing, by its number
+     */
+    DEEP_PAGE {
+        @Override
+        public HttpRequest request(Target target, SplittableRandom random) {
+            return get(target, "/photos?size=20&page=" + random.nextLong(Math.max(1, target.getPhotos() / 20)));
+        }
+    },
+
+    /**
+     * A page anywhere in the listing, after a cursor
+     */
+    CURSOR_PAGE {
+        @Override
+        public HttpRequest request(Target target, SplittableRandom random) {
+            long photoId = target.anyPhotoId(random);
+            String after = new Cursor("photoId", "asc", String.valueOf(photoId), photoId).encode();
+
+            return get(target, "/photos?size=20&after=" + after);
+        }
+    },
+
+    /**
+     * A search by one of the generated words
+     */
+    SEARCH {
+        @Override
+        public HttpRequest request(Target target, SplittableRandom random) {
+            return get(target, "/photos/search?q=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)]);
+        }
+    },
+
+    /**
+     * The most viewed photos
+     */
+    TOP {
+        @Override
+        public HttpRequest request(Target target, SplittableRandom random) {
+            return get(target, "/photos/top?n=10");
+        }
+    },
+
+    /**
+     * The profile of a snapper
+     */
+    SNAPPER_BY_ID {
+        @Override
+        public HttpRequest request(Target target, SplittableRandom random) {
+            return get(target, "/snappers/" + target.snapperId(random));
+        }
+    },
+
+    /**
+     * The first page of the photos of a snapper
+     */
+    SNAPPER_PHOTOS {
+        @Override
+        public HttpRequest request(Target target, SplittableRandom random) {
+            return get(target, "/snappers/" + target.snapperId(random) + "/photos");
+        }
+    },
+
+    /**
+     * The upload of a new photo
+     */
+    ADD_PHOTO {
+        @Override
+        public HttpRequest request(Target target, SplittableRandom random) {
+            return json(target, "/photos").POST(BodyPublishers.ofString(String.format(
+                    "{\"title\": \"Load test upload\", \"description\": \"Uploaded by the load driver\", "
+                            + "\"url\": \"%s\", \"snapperId\": %d}",
+                    target.newUrl(), target.snapperId(random)))).build();
+        }
+    },
+
+    /**
+     * The update of the title of any photo
+     */
+    UPDATE_PHOTO {
+        @Override
+        public HttpRequest request(Target target, SplittableRandom random) {
+            long photoId = target.anyPhotoId(random);
+
+            return json(target, "/photos/" + photoId).PUT(BodyPublishers.ofString(String.format(
+                    "{\"title\": \"Load test update %d\", \"url\": \"https://photos.load.test/%d.jpg\"}",
+                    random.nextInt(1000), photoId))).build();
+        }
+    };
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final String[] SEARCH_TERMS = { "sunset", "mountain", "harbour", "portrait", "street",
+            "lighthouse", "lorem", "canyon" };
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Builds the request
+     *
+     * @param target the application and its dataset
+     * @param random the random source of the worker
+     * @return the request
+     */
+    public abstract HttpRequest request(Target target, SplittableRandom random);
+
+    private static HttpRequest get(Target target, String path) {
+        return HttpRequest.newBuilder(target.uri(path)).GET().build();
+    }
+
+    private static HttpRequest.Builder json(Target target, String path) {
+        return HttpRequest.newBuilder(target.uri(path)).header("Content-Type", "application/json");
+    }
+
+}
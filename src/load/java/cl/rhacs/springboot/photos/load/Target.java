@@ -0,0 +1,106 @@
+package cl.rhacs.springboot.photos.load;
+
+import java.net.URI;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The application under load and the shape of its dataset, from which the
+ * {@link Operation}s pick the ids they request
+ */
+public class Target {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final URI baseUri;
+
+    private final long firstPhotoId;
+
+    private final long lastPhotoId;
+
+    private final long snappers;
+
+    private final AtomicLong uploads = new AtomicLong();
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new {@link Target}
+     *
+     * @param baseUri      the root of the application
+     * @param firstPhotoId the lowest photo id
+     * @param lastPhotoId  the highest photo id
+     * @param snappers     the number of snappers, whose ids start at one
+     */
+    public Target(URI baseUri, long firstPhotoId, long lastPhotoId, long snappers) {
+        this.baseUri = baseUri;
+        this.firstPhotoId = firstPhotoId;
+        this.lastPhotoId = lastPhotoId;
+        this.snappers = snappers;
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the number of photos the dataset started with
+     */
+    public long getPhotos() {
+        return lastPhotoId - firstPhotoId + 1;
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Resolves a path against the root of the application
+     *
+     * @param path the path and query
+     * @return the URI
+     */
+    public URI uri(String path) {
+        return baseUri.resolve(path);
+    }
+
+    /**
+     * Picks any photo id, uniformly
+     *
+     * @param random the random source
+     * @return the photo id
+     */
+    public long anyPhotoId(SplittableRandom random) {
+        return firstPhotoId + random.nextLong(getPhotos());
+    }
+
+    /**
+     * Picks a photo id with a log-uniform skew towards the newest photos, so a
+     * few photos get most of the traffic
+     *
+     * @param random the random source
+     * @return the photo id
+     */
+    public long hotPhotoId(SplittableRandom random) {
+        return lastPhotoId - Math.min(getPhotos() - 1, (long) Math.pow(getPhotos(), random.nextDouble()) - 1);
+    }
+
+    /**
+     * Picks a snapper id with a log-uniform skew towards the most prolific
+     * snappers
+     *
+     * @param random the random source
+     * @return the snapper id
+     */
+    public long snapperId(SplittableRandom random) {
+        return Math.min(snappers, (long) Math.pow(snappers, random.nextDouble()));
+    }
+
+    /**
+     * @return a url that was never uploaded
+     */
+    public String newUrl() {
+        return "https://photos.load.test/upload-" + System.nanoTime() + "-" + uploads.incrementAndGet() + ".jpg";
+    }
+
+}
@@ -0,0 +1,72 @@
+package cl.rhacs.springboot.photos.load;
+
+import java.util.SplittableRandom;
+
+/**
+ * A weighted mix of {@link Operation}s
+ */
+public enum Workload {
+
+    /**
+     * Mostly hot photos and first pages, with a trickle of writes
+     */
+    READ_HEAVY(new Operation[] { Operation.PHOTO_BY_ID, Operation.FIRST_PAGES, Operation.CURSOR_PAGE,
+            Operation.SEARCH, Operation.TOP, Operation.SNAPPER_BY_ID, Operation.SNAPPER_PHOTOS, Operation.ADD_PHOTO,
+            Operation.UPDATE_PHOTO }, new int[] { 50, 20, 5, 5, 5, 5, 5, 3, 2 }),
+
+    /**
+     * Uploads and updates, with the reads that follow them
+     */
+    WRITE_HEAVY(new Operation[] { Operation.ADD_PHOTO, Operation.UPDATE_PHOTO, Operation.PHOTO_BY_ID,
+            Operation.FIRST_PAGES, Operation.SNAPPER_PHOTOS }, new int[] { 40, 20, 25, 10, 5 }),
+
+    /**
+     * Pages anywhere in the listing, by number and by cursor
+     */
+    DEEP_PAGING(new Operation[] { Operation.DEEP_PAGE, Operation.CURSOR_PAGE, Operation.FIRST_PAGES },
+            new int[] { 45, 45, 10 });
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final Operation[] operations;
+
+    private final int[] cumulativeWeights;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    private Workload(Operation[] operations, int[] weights) {
+        this.operations = operations;
+        this.cumulativeWeights = new int[weights.length];
+
+        int total = 0;
+
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Picks the next operation according to the weights of the mix
+     *
+     * @param random the random source of the worker
+     * @return the operation
+     */
+    public Operation next(SplittableRandom random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+
+        return operations[operations.length - 1];
+    }
+
+}
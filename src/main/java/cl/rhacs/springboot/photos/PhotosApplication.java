@@ -2,8 +2,10 @@ package cl.rhacs.springboot.photos;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class PhotosApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,202 @@
+package cl.rhacs.springboot.photos.bulk;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.Snapper;
+
+/**
+ * A table the bulk loader writes to, with the columns a record may carry.
+ * <p>
+ * The names of the record fields are matched ignoring case and underscores,
+ * so {@code snapper_id} and {@code snapperId} are the same column. Unknown
+ * fields are ignored.
+ */
+public enum BulkTable {
+
+    /**
+     * The {@link Snapper}s. The ids are generated by the database unless the
+     * first record carries one
+     */
+    SNAPPERS(Snapper.class, new Column("snapper_id", Type.LONG, false), new Column("username", Type.STRING, true),
+            new Column("email", Type.STRING, true), new Column("password", Type.STRING, true),
+            new Column("biography", Type.STRING, false), new Column("created_at", Type.TIMESTAMP, false),
+            new Column("updated_at", Type.TIMESTAMP, false)),
+
+    /**
+     * The {@link Photo}s. The ids missing from the records are reserved from the
+     * {@code id_generators} table
+     */
+    PHOTOS(Photo.class, new Column("photo_id", Type.LONG, false), new Column("title", Type.STRING, true),
+            new Column("description", Type.STRING, false), new Column("url", Type.STRING, true),
+            new Column("views", Type.LONG, false), new Column("created_at", Type.TIMESTAMP, false),
+            new Column("updated_at", Type.TIMESTAMP, false), new Column("snapper_id", Type.LONG, true));
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final Class<?> entity;
+
+    private final Column[] columns;
+
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    private BulkTable(Class<?> entity, Column... columns) {
+        this.entity = entity;
+        this.columns = columns;
+
+        for (int i = 0; i < columns.length; i++) {
+            positions.put(normalize(columns[i].name), i);
+        }
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the name of the table
+     */
+    public String getName() {
+        return entity.getAnnotation(Table.class).name();
+    }
+
+    /**
+     * @return the names of the columns, the id first
+     */
+    public String[] getColumns() {
+        return Arrays.stream(columns).map(column -> column.name).toArray(String[]::new);
+    }
+
+    /**
+     * @return the secondary indexes declared by the entity, which the loader may
+     *         drop and rebuild around a load
+     */
+    public Index[] getIndexes() {
+        return entity.getAnnotation(Table.class).indexes();
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Finds the position of a column on the rows
+     *
+     * @param name the column name
+     * @return the position
+     */
+    public int indexOf(String name) {
+        return positions.get(normalize(name));
+    }
+
+    /**
+     * Converts a record into a row, with the values in the order of
+     * {@link #getColumns()}. The missing timestamps default to {@code now} and
+     * the missing views to zero
+     *
+     * @param record the record read from the file
+     * @param now    the current time
+     * @return the row
+     * @throws IllegalArgumentException when a required value is missing or a
+     *                                  value has the wrong type
+     */
+    public Object[] toRow(Map<String, ?> record, Timestamp now) throws IllegalArgumentException {
+        Object[] row = new Object[columns.length];
+
+        for (Map.Entry<String, ?> field : record.entrySet()) {
+            Integer position = positions.get(normalize(field.getKey()));
+
+            if (position != null && field.getValue() != null) {
+                row[position] = columns[position].convert(field.getValue());
+            }
+        }
+
+        for (int i = 0; i < columns.length; i++) {
+            if (row[i] == null && columns[i].required) {
+                throw new IllegalArgumentException(String.format("'%s' is required", columns[i].name));
+            }
+        }
+
+        int createdAt = indexOf("created_at");
+        int updatedAt = indexOf("updated_at");
+
+        row[createdAt] = (row[createdAt] == null) ? now : row[createdAt];
+        row[updatedAt] = (row[updatedAt] == null) ? row[createdAt] : row[updatedAt];
+
+        if (positions.containsKey("views") && row[indexOf("views")] == null) {
+            row[indexOf("views")] = 0L;
+        }
+
+        return row;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    // Column
+    // -----------------------------------------------------------------------------------------
+
+    private enum Type {
+        STRING, LONG, TIMESTAMP
+    }
+
+    private static class Column {
+
+        private final String name;
+
+        private final Type type;
+
+        private final boolean required;
+
+        private Column(String name, Type type, boolean required) {
+            this.name = name;
+            this.type = type;
+            this.required = required;
+        }
+
+        /**
+         * Converts a value read from a CSV or a JSON file
+         */
+        private Object convert(Object value) throws IllegalArgumentException {
+            String text = value.toString();
+
+            if (type == Type.STRING) {
+                return text.isBlank() && required ? null : text;
+            }
+
+            if (text.isBlank()) {
+                return null;
+            }
+
+            try {
+                if (type == Type.LONG) {
+                    return (value instanceof Number) ? ((Number) value).longValue() : Long.valueOf(text.trim());
+                }
+
+                if (value instanceof Number) {
+                    return new Timestamp(((Number) value).longValue());
+                }
+
+                return text.contains("T") ? Timestamp.from(Instant.parse(text.trim()))
+                        : Timestamp.valueOf(text.trim());
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new IllegalArgumentException(String.format("'%s' is not a valid %s for '%s'", text,
+                        type.name().toLowerCase(Locale.ROOT), name));
+            }
+        }
+
+    }
+
+}
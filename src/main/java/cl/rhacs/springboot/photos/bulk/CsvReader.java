@@ -0,0 +1,215 @@
+package cl.rhacs.springboot.photos.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads RFC 4180 comma separated values one record at a time. The first record
+ * is the header, and every following record is returned as a map from the
+ * header names to its values.
+ * <p>
+ * Quoted fields may hold commas, line breaks and doubled quotes. An empty
+ * unquoted field is {@code null}, while {@code ""} is the empty string.
+ */
+public class CsvReader implements Iterator<Map<String, String>>, Closeable {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final int END = -1;
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final Reader reader;
+
+    private final List<String> header;
+
+    private List<String> next;
+
+    private int lookahead = END - 1;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new {@link CsvReader} and reads the header
+     *
+     * @param reader the source, buffering is up to the caller
+     * @throws IllegalArgumentException when the source has no header
+     */
+    public CsvReader(Reader reader) throws IllegalArgumentException {
+        this.reader = reader;
+        this.header = readRecord();
+
+        if (header == null) {
+            throw new IllegalArgumentException("The file has no header");
+        }
+
+        this.next = readRecord();
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the header
+     */
+    public List<String> getHeader() {
+        return header;
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Reads the next record, skipping blank lines
+     *
+     * @return the fields, or {@code null} at the end of the source
+     * @throws IllegalArgumentException when a quoted field is never closed
+     */
+    private List<String> readRecord() throws IllegalArgumentException {
+        List<String> fields = new ArrayList<>(header == null ? 8 : header.size());
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int c;
+
+        while (true) {
+            c = read();
+
+            if (c == END) {
+                if (fields.isEmpty() && field.length() == 0 && !quoted) {
+                    return null;
+                }
+
+                fields.add(value(field, quoted));
+                return fields;
+            }
+
+            if (c == '"' && field.length() == 0 && !quoted) {
+                quoted = true;
+                readQuoted(field);
+            } else if (c == ',') {
+                fields.add(value(field, quoted));
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+
+                if (fields.isEmpty() && field.length() == 0 && !quoted) {
+                    continue;
+                }
+
+                fields.add(value(field, quoted));
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * Reads a quoted field up to its closing quote
+     *
+     * @param field the field
+     * @throws IllegalArgumentException when the source ends before the closing
+     *                                  quote
+     */
+    private void readQuoted(StringBuilder field) throws IllegalArgumentException {
+        while (true) {
+            int c = read();
+
+            if (c == END) {
+                throw new IllegalArgumentException("A quoted value is never closed");
+            }
+
+            if (c == '"') {
+                if (peek() != '"') {
+                    return;
+                }
+
+                read();
+            }
+
+            field.append((char) c);
+        }
+    }
+
+    private static String value(StringBuilder field, boolean quoted) {
+        return (field.length() == 0 && !quoted) ? null : field.toString();
+    }
+
+    private int read() {
+        if (lookahead >= END) {
+            int c = lookahead;
+            lookahead = END - 1;
+            return c;
+        }
+
+        try {
+            return reader.read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int peek() {
+        if (lookahead < END) {
+            lookahead = read();
+        }
+
+        return lookahead;
+    }
+
+    // Inheritances (Iterator)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Map<String, String> next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+
+        if (next.size() != header.size()) {
+            int fields = next.size();
+            next = readRecord();
+
+            throw new IllegalArgumentException(
+                    String.format("Expected %d values but found %d", header.size(), fields));
+        }
+
+        Map<String, String> record = new HashMap<>(header.size() * 2);
+
+        for (int i = 0; i < header.size(); i++) {
+            record.put(header.get(i), next.get(i));
+        }
+
+        next = readRecord();
+
+        return record;
+    }
+
+    // Inheritances (Closeable)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+}
@@ -0,0 +1,186 @@
+package cl.rhacs.springboot.photos.cache;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Backs the Hibernate second-level and query caches with bounded Caffeine
+ * regions.
+ * <p>
+ * Every region is configured under {@code photos.hibernate-cache.regions}
+ * with a maximum size and a time to live, and Hibernate fails to start when an
+ * entity or a query uses a region that is not configured. The update timestamps
+ * region, which tells the query cache which tables changed, is never bounded:
+ * losing one of its entries would let stale query results through.
+ * <p>
+ * Each application context gets its own cache manager, so contexts that share
+ * the JVM never share cached rows. Hibernate already counts the hits and misses
+ * of every region; their ratio is exposed as {@code photos.hibernate.cache.hit.ratio}.
+ */
+@Configuration
+public class HibernateCacheConfiguration implements MeterBinder {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    private Map<String, Region> regions;
+
+    // Beans
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates the cache manager and the configured regions
+     *
+     * @return the cache manager
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("photos-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        regions.forEach((name, region) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+            configuration.setExpireAfterWrite(OptionalLong.of(region.getExpireAfterWrite().toNanos()));
+            cacheManager.createCache(name, configuration);
+        });
+
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>());
+
+        return cacheManager;
+    }
+
+    /**
+     * Hands the cache manager to Hibernate
+     *
+     * @param hibernateCacheManager the cache manager
+     * @return the customizer of the Hibernate properties
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Binds the settings of the regions
+     *
+     * @throws IllegalStateException when no region is configured
+     */
+    @PostConstruct
+    public void bindRegions() throws IllegalStateException {
+        regions = Binder.get(environment)
+                .bind("photos.hibernate-cache.regions", Bindable.mapOf(String.class, Region.class))
+                .orElseThrow(() -> new IllegalStateException("No photos.hibernate-cache.regions configured"));
+    }
+
+    /**
+     * Computes the share of the lookups of a region that were hits
+     *
+     * @param region the region name
+     * @return the hit ratio, {@code NaN} before the first lookup
+     */
+    private double hitRatio(String region) {
+        CacheRegionStatistics statistics = entityManagerFactory.getObject().unwrap(SessionFactory.class)
+                .getStatistics().getCacheRegionStatistics(region);
+
+        if (statistics == null) {
+            return Double.NaN;
+        }
+
+        long lookups = statistics.getHitCount() + statistics.getMissCount();
+
+        return (lookups == 0) ? Double.NaN : (double) statistics.getHitCount() / lookups;
+    }
+
+    // Inheritances (MeterBinder)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        regions.keySet()
+                .forEach(region -> Gauge.builder("photos.hibernate.cache.hit.ratio", this, c -> c.hitRatio(region))
+                        .description("Share of the second-level cache lookups that were hits").tag("region", region)
+                        .register(registry));
+    }
+
+    // Region
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Settings of a cache region
+     */
+    public static class Region {
+
+        private long maximumSize = 10000;
+
+        private Duration expireAfterWrite = Duration.ofHours(1);
+
+        /**
+         * @return the maximumSize
+         */
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        /**
+         * @return the expireAfterWrite
+         */
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        /**
+         * @param maximumSize the maximumSize to set
+         */
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        /**
+         * @param expireAfterWrite the expireAfterWrite to set
+         */
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+    }
+
+}
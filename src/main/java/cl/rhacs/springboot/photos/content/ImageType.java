@@ -0,0 +1,93 @@
+package cl.rhacs.springboot.photos.content;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+/**
+ * An image format the content store accepts, recognized by the signature at
+ * the beginning of the file rather than by the type the client declared
+ */
+public enum ImageType {
+
+    JPEG("image/jpeg", 0xff, 0xd8, 0xff),
+
+    PNG("image/png", 0x89, 'P', 'N', 'G', 0x0d, 0x0a, 0x1a, 0x0a),
+
+    GIF("image/gif", 'G', 'I', 'F', '8'),
+
+    /**
+     * A RIFF container whose bytes 4 to 7 hold the size of the file
+     */
+    WEBP("image/webp", 'R', 'I', 'F', 'F', -1, -1, -1, -1, 'W', 'E', 'B', 'P');
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * The number of bytes needed to recognize every format
+     */
+    public static final int SIGNATURE_LENGTH = 12;
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final String contentType;
+
+    /**
+     * The expected bytes, {@code -1} matching any byte
+     */
+    private final int[] signature;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    private ImageType(String contentType, int... signature) {
+        this.contentType = contentType;
+        this.signature = signature;
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the content type
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Recognizes the format of a file
+     *
+     * @param header the first {@value #SIGNATURE_LENGTH} bytes of the file, or
+     *               less when the file is shorter, flipped for reading
+     * @return the format, empty when it is not a known image
+     */
+    public static Optional<ImageType> of(ByteBuffer header) {
+        for (ImageType type : values()) {
+            if (type.matches(header)) {
+                return Optional.of(type);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private boolean matches(ByteBuffer header) {
+        if (header.remaining() < signature.length) {
+            return false;
+        }
+
+        for (int i = 0; i < signature.length; i++) {
+            if (signature[i] != -1 && signature[i] != (header.get(header.position() + i) & 0xff)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+}
@@ -0,0 +1,66 @@
+package cl.rhacs.springboot.photos.controllers;
+
+import java.io.InputStream;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import cl.rhacs.springboot.photos.bulk.BulkTable;
+import cl.rhacs.springboot.photos.models.BulkLoadResponse;
+import cl.rhacs.springboot.photos.services.BulkLoadService;
+
+/**
+ * Operations on the data of the application. Only registered when
+ * {@code photos.admin.enabled} is set, as nothing guards them yet.
+ */
+@RestController
+@RequestMapping(path = "/admin")
+@ConditionalOnProperty(name = "photos.admin.enabled", havingValue = "true")
+public class AdminController {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private BulkLoadService bulkLoadService;
+
+    // Post Mappings
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Loads a CSV or newline-delimited JSON file of snappers or photos. The body
+     * is read while it is inserted, so the file may be larger than the memory
+     *
+     * @param table          {@code snappers} or {@code photos}
+     * @param contentType    the type of the body, {@code text/csv} or
+     *                       {@code application/x-ndjson}
+     * @param rebuildIndexes whether to drop the secondary indexes during the load
+     *                       and rebuild them afterwards
+     * @param body           the request body
+     * @return the summary of the load
+     * @throws IllegalArgumentException when the table is unknown or the file has
+     *                                  no header
+     */
+    @PostMapping(path = "/bulk-load/{table:^(?:snappers|photos)$}", consumes = { "text/csv",
+            "application/x-ndjson" })
+    @ResponseStatus(code = HttpStatus.OK)
+    public ResponseEntity<BulkLoadResponse> bulkLoad(@PathVariable String table,
+            @RequestParam(name = "rebuildIndexes", defaultValue = "false") boolean rebuildIndexes,
+            @RequestHeader("Content-Type") String contentType, InputStream body) throws IllegalArgumentException {
+        String format = contentType.startsWith("text/csv") ? BulkLoadService.CSV : BulkLoadService.NDJSON;
+
+        return ResponseEntity.ok(bulkLoadService.load(BulkTable.valueOf(table.toUpperCase(Locale.ROOT)), format,
+                body, rebuildIndexes));
+    }
+
+}
@@ -0,0 +1,260 @@
+package cl.rhacs.springboot.photos.controllers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import cl.rhacs.springboot.photos.exceptions.PhotoNotFoundException;
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+import cl.rhacs.springboot.photos.services.JdbcExecutor;
+import cl.rhacs.springboot.photos.services.PhotoContentService;
+import cl.rhacs.springboot.photos.services.PhotoContentService.Content;
+
+/**
+ * Uploads and serves the images of the {@link Photo}s, kept on the local disk
+ * by the {@link PhotoContentService}.
+ * <p>
+ * The images are served from the disk alone, without touching the database.
+ * On Tomcat the bytes are handed to its sendfile support, so the kernel copies
+ * them from the page cache to the socket; elsewhere they are written with
+ * {@link java.nio.channels.FileChannel#transferTo}.
+ */
+@RestController
+@RequestMapping(path = "/photos")
+public class PhotoContentController {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Set by Tomcat on the requests of a connector that can send files
+     */
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    /**
+     * The end of the range to send, exclusive
+     */
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private PhotoContentService photoContentService;
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private JdbcExecutor jdbcExecutor;
+
+    @Value("${photos.content.max-age:PT1H}")
+    private Duration maxAge;
+
+    private String cacheControl;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Builds the {@code Cache-Control} header once the properties are injected
+     */
+    @PostConstruct
+    public void initialize() {
+        cacheControl = CacheControl.maxAge(maxAge).cachePublic().getHeaderValue();
+    }
+
+    // Get Mappings
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Serves the image of a {@link Photo}.
+     * <p>
+     * A single byte range is answered with a {@code 206 Partial Content}, unless
+     * an {@code If-Range} validator no longer matches, in which case the whole
+     * image is sent. Several ranges are answered with the whole image too. A
+     * conditional request that matches the {@code ETag} or the
+     * {@code Last-Modified} date gets a {@code 304 Not Modified}.
+     *
+     * @param id       the photo id
+     * @param request  the servlet request
+     * @param response the servlet response
+     * @throws PhotoNotFoundException when the photo has no image
+     * @throws IOException            when the image cannot be read or written
+     */
+    @GetMapping(path = "/{id:^\\d+$}/content")
+    public void findPhotoContent(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws PhotoNotFoundException, IOException {
+        try (Content content = photoContentService.open(id)
+                .orElseThrow(() -> new PhotoNotFoundException("Content not found for this photo id :: " + id))) {
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            response.setHeader("X-Content-Type-Options", "nosniff");
+
+            if (new ServletWebRequest(request, response).checkNotModified(content.getETag(),
+                    content.getLastModified())) {
+                return;
+            }
+
+            long size = content.getSize();
+            long start = 0;
+            long length = size;
+            HttpRange range = range(request, content);
+
+            if (range != null) {
+                start = range.getRangeStart(size);
+                length = range.getRangeEnd(size) - start + 1;
+
+                if (start >= size || length <= 0) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return;
+                }
+
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        String.format("bytes %d-%d/%d", start, start + length - 1, size));
+            }
+
+            response.setContentType(content.getContentType());
+            response.setContentLengthLong(length);
+
+            if (HttpMethod.HEAD.matches(request.getMethod())) {
+                return;
+            }
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, content.getPath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, start + length);
+                return;
+            }
+
+            content.transferTo(start, length, response.getOutputStream());
+        }
+    }
+
+    // Put Mappings
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Uploads the image of a {@link Photo}, replacing the previous one. The body
+     * is written to the disk before the photo is looked up, and dropped when it
+     * does not exist
+     *
+     * @param id   the photo id
+     * @param body the image
+     * @return an empty response
+     * @throws PhotoNotFoundException   when the photo does not exist
+     * @throws IllegalArgumentException when the body is empty, too large or not a
+     *                                  known image
+     * @throws IOException              when the image cannot be written
+     */
+    @PutMapping(path = "/{id:^\\d+$}/content", consumes = "image/*")
+    @ResponseStatus(code = HttpStatus.NO_CONTENT)
+    public CompletableFuture<ResponseEntity<Void>> updatePhotoContent(@PathVariable Long id, InputStream body)
+            throws PhotoNotFoundException, IllegalArgumentException, IOException {
+        Path upload = photoContentService.upload(body);
+
+        try {
+            return jdbcExecutor.read(() -> {
+                try {
+                    if (!photoRepository.existsById(id)) {
+                        throw new PhotoNotFoundException("Photo not found for this id :: " + id);
+                    }
+
+                    photoContentService.store(id, upload);
+
+                    return ResponseEntity.noContent().<Void>build();
+                } finally {
+                    photoContentService.discard(upload);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            photoContentService.discard(upload);
+            throw e;
+        }
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Reads the range to send
+     *
+     * @param request the servlet request
+     * @param content the image
+     * @return the range, {@code null} to send the whole image
+     */
+    private HttpRange range(HttpServletRequest request, Content content) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+
+        if (header == null || !ifRangeMatches(request, content)) {
+            return null;
+        }
+
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return (ranges.size() == 1) ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            // A malformed range is ignored, as if it was not sent
+            return null;
+        }
+    }
+
+    /**
+     * Checks the {@code If-Range} validator, which holds either a strong entity
+     * tag or the exact {@code Last-Modified} date
+     *
+     * @param request the servlet request
+     * @param content the image
+     * @return whether the range may be served
+     */
+    private boolean ifRangeMatches(HttpServletRequest request, Content content) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+
+        if (ifRange == null) {
+            return true;
+        }
+
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(content.getETag());
+        }
+
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == content.getLastModified() / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+}
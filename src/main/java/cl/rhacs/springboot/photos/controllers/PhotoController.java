@@ -1,70 +1,202 @@
 package cl.rhacs.springboot.photos.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
+import javax.validation.Validator;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import cl.rhacs.springboot.photos.exceptions.ContentNotFoundException;
+import cl.rhacs.springboot.photos.exceptions.DuplicateValueException;
+import cl.rhacs.springboot.photos.exceptions.PageOutOfBoundsException;
 import cl.rhacs.springboot.photos.exceptions.PhotoNotFoundException;
+import cl.rhacs.springboot.photos.exceptions.PreconditionFailedException;
+import cl.rhacs.springboot.photos.models.BatchResponse;
+import cl.rhacs.springboot.photos.models.Cursor;
+import cl.rhacs.springboot.photos.models.CursorPageableResponse;
+import cl.rhacs.springboot.photos.models.DeleteResponse;
 import cl.rhacs.springboot.photos.models.PageableResponse;
 import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.PhotoSummary;
+import cl.rhacs.springboot.photos.models.PhotoVersion;
+import cl.rhacs.springboot.photos.models.SearchHit;
 import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+import cl.rhacs.springboot.photos.repositories.PhotoRepositoryCustom;
+import cl.rhacs.springboot.photos.search.SearchResults;
+import cl.rhacs.springboot.photos.services.ExportService;
+import cl.rhacs.springboot.photos.services.JdbcExecutor;
+import cl.rhacs.springboot.photos.services.LeaderboardService;
+import cl.rhacs.springboot.photos.services.PhotoBatchService;
+import cl.rhacs.springboot.photos.services.PhotoCacheService;
+import cl.rhacs.springboot.photos.services.PhotoCountService;
+import cl.rhacs.springboot.photos.services.PhotoDeleteService;
+import cl.rhacs.springboot.photos.services.PhotoPageCacheService;
+import cl.rhacs.springboot.photos.services.PhotoPageCacheService.RenderedPage;
+import cl.rhacs.springboot.photos.services.PhotoSearchService;
+import cl.rhacs.springboot.photos.services.UniquenessService;
+import cl.rhacs.springboot.photos.services.ViewCounterService;
 
 @RestController
 @RequestMapping(path = "/photos")
 public class PhotoController {
 
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final List<String> SORTABLE_FIELDS = List.of("photoId", "title", "description", "url", "views",
+            "snapperId", "createdAt", "updatedAt");
+
+    private static final List<String> OPTIONAL_FIELDS = List.of("description");
+
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
     // Attributes
     // -----------------------------------------------------------------------------------------
 
     @Autowired
     private PhotoRepository photoRepository;
 
+    @Autowired
+    private ViewCounterService viewCounterService;
+
+    @Autowired
+    private PhotoCountService photoCountService;
+
+    @Autowired
+    private PhotoCacheService photoCacheService;
+
+    @Autowired
+    private PhotoPageCacheService photoPageCacheService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private PhotoBatchService photoBatchService;
+
+    @Autowired
+    private PhotoSearchService photoSearchService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private UniquenessService uniquenessService;
+
+    @Autowired
+    private JdbcExecutor jdbcExecutor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PhotoDeleteService photoDeleteService;
+
+    @Value("${photos.delete.max-ids:1000}")
+    private int maxDeleteIds;
+
     // Get Mappings
     // -----------------------------------------------------------------------------------------
 
     /**
      * Shows a list of {@link Photo}s stored in the database, but paginated :O
      *
-     * @param page the solicited page
-     * @param size the number of items per page
+     * @param page      the solicited page
+     * @param size      the number of items per page
+     * @param sortBy    the sorting field
+     * @param sortOrder the sorting order
+     * @param totals    how to compute the totals: 'exact' counts the photos on
+     *                  every request, 'approximate' uses a periodically refreshed
+     *                  count and 'none' only reports if there is a next page
+     * @param fields    the optional fields to include: 'description'. By default
+     *                  the photos are listed as {@link PhotoSummary}s, without
+     *                  reading the description column
+     * @param request   the web request
      *
-     * @return All the instances of the type photo, but paginated
+     * @return All the instances of the type photo, but paginated. The response
+     *         carries an {@code ETag} derived from the ids and update dates of the
+     *         page and its totals; a conditional request that matches is answered
+     *         with a {@code 304 Not Modified} after reading only those columns.
+     *         The queries run on the {@link JdbcExecutor}. The first pages with
+     *         the default totals and fields are answered from the
+     *         {@link PhotoPageCacheService} on the request thread, gzipped when
+     *         the client accepts it
      *
      * @throws ContentNotFoundException  when the repository is empty
      * @throws IndexOutOfBoundsException when the user enters a page value larger
      *                                   than the max value
-     * @throws IllegalArgumentException  when an unkown sorting order is selected
+     * @throws IllegalArgumentException  when an unkown sorting field, sorting
+     *                                   order, totals mode or optional field is
+     *                                   selected
      */
     @GetMapping
     @ResponseStatus(code = HttpStatus.OK)
-    public ResponseEntity<PageableResponse> getAllPhotos(@RequestParam(defaultValue = "0") int page,
+    public CompletableFuture<ResponseEntity<?>> getAllPhotos(@RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size, @RequestParam(defaultValue = "photoId") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortOrder)
+            @RequestParam(defaultValue = "asc") String sortOrder, @RequestParam(defaultValue = "exact") String totals,
+            @RequestParam(defaultValue = "") String fields, WebRequest request)
             throws ContentNotFoundException, IndexOutOfBoundsException, IllegalArgumentException {
-        List<Photo> photos = new ArrayList<>();
+        boolean description = includesDescription(fields);
+
+        if (!SORTABLE_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException(String.format(
+                    "'%s' is an unknown sorting field. Possible values: %s.", sortBy, SORTABLE_FIELDS));
+        }
+
         Sort sort = Sort.by(sortBy);
 
         if (!sortOrder.equals("asc") && !sortOrder.equals("desc")) {
@@ -75,41 +207,294 @@ public class PhotoController {
             sort = sort.descending();
         }
 
+        if (!totals.equals("exact") && !totals.equals("approximate") && !totals.equals("none")) {
+            throw new IllegalArgumentException(String.format(
+                    "'%s' is an unknown totals mode. Possible values: 'exact', 'approximate' and 'none'.", totals));
+        }
+
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Photo> pagePhotos = photoRepository.findAll(pageable);
-        photos = pagePhotos.getContent();
+        boolean cacheable = totals.equals("exact") && !description && photoPageCacheService.isCacheable(pageable);
 
-        if (page > pagePhotos.getTotalPages() - 1) {
-            throw new IndexOutOfBoundsException(
-                    String.format("Page value out of bounds, max page = %d", pagePhotos.getTotalPages() - 1));
+        if (cacheable) {
+            Optional<RenderedPage> cached = photoPageCacheService.getIfPresent(pageable);
+
+            if (cached.isPresent()) {
+                return CompletableFuture.completedFuture(showPage(cached.get(), request));
+            }
         }
 
+        long version = photoPageCacheService.getVersion();
+
+        return jdbcExecutor.read(() -> {
+            if (isConditional(request) && request.checkNotModified(versionsETag(pageable, totals, description))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
+            if (!totals.equals("exact")) {
+                return getSliceOfPhotos(pageable, totals.equals("approximate"), description);
+            }
+
+            Page<? extends PhotoVersion> pagePhotos = description ? photoRepository.findAll(pageable)
+                    : photoRepository.findAllSummaries(pageable);
+            List<? extends PhotoVersion> photos = pagePhotos.getContent();
+
+            if (page > pagePhotos.getTotalPages() - 1) {
+                throw new PageOutOfBoundsException(pagePhotos.getTotalPages() - 1);
+            }
+
+            if (photos.isEmpty()) {
+                throw new ContentNotFoundException("The repository is empty");
+            }
+
+            PageableResponse response = new PageableResponse(pagePhotos.getNumber(), pagePhotos.getTotalPages(),
+                    pagePhotos.getNumberOfElements(), pagePhotos.getTotalElements(), photos);
+            String eTag = pageETag(photos, String.valueOf(pagePhotos.getTotalElements()), description);
+
+            if (cacheable) {
+                return showPage(photoPageCacheService.put(pageable, version, response, eTag), request);
+            }
+
+            return ResponseEntity.ok().eTag(eTag).body(response);
+        });
+    }
+
+    /**
+     * Shows a list of {@link Photo}s using keyset pagination: instead of a page
+     * number the client sends the {@code next} token of the previous response (or
+     * an empty value for the first page), so the database seeks directly to the
+     * position and does not need to count the rows
+     *
+     * @param after     the token of the previous response, empty for the first
+     *                  page
+     * @param size      the number of items per page
+     * @param sortBy    the sorting field: 'photoId', 'createdAt' or 'views'
+     * @param sortOrder the sorting order: 'asc' or 'desc'
+     * @param fields    the optional fields to include: 'description'
+     *
+     * @return the photos that come after the token
+     *
+     * @throws IllegalArgumentException when the token, the size, the sorting or
+     *                                  the optional fields are not valid
+     */
+    @GetMapping(params = "after")
+    @ResponseStatus(code = HttpStatus.OK)
+    public CompletableFuture<ResponseEntity<CursorPageableResponse>> getPhotosAfter(@RequestParam String after,
+            @RequestParam(defaultValue = "10") int size, @RequestParam(defaultValue = "photoId") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortOrder, @RequestParam(defaultValue = "") String fields)
+            throws IllegalArgumentException {
+        Class<? extends PhotoVersion> type = includesDescription(fields) ? Photo.class : PhotoSummary.class;
+
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+
+        if (!sortOrder.equals("asc") && !sortOrder.equals("desc")) {
+            throw new IllegalArgumentException(String.format(
+                    "'%s' is an unknown sorting order. Possible values: 'asc' for ascending order and 'desc' for descending order.",
+                    sortOrder));
+        }
+
+        boolean ascending = sortOrder.equals("asc");
+        Object key = null;
+        Long photoId = null;
+
+        keysetField(sortBy);
+
+        if (!after.isEmpty()) {
+            Cursor cursor = Cursor.decode(after);
+            cursor.verify(sortBy, sortOrder);
+
+            try {
+                switch (sortBy) {
+                    case "createdAt":
+                        key = Timestamp.from(Instant.parse(cursor.getKey()));
+                        break;
+                    case "views":
+                        key = Long.valueOf(cursor.getKey());
+                        break;
+                    default:
+                        key = cursor.getId();
+                        break;
+                }
+
+                photoId = cursor.getId();
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException(String.format("'%s' is not a valid cursor", after));
+            }
+        }
+
+        Object afterKey = key;
+        Long afterId = photoId;
+
+        return jdbcExecutor.read(() -> {
+            List<? extends PhotoVersion> photos = photoRepository.findAfter(type, sortBy, ascending, afterKey,
+                    afterId, size + 1);
+            String next = null;
+
+            if (photos.size() > size) {
+                photos = photos.subList(0, size);
+                PhotoVersion last = photos.get(size - 1);
+                next = new Cursor(sortBy, sortOrder, keysetValue(sortBy, last), last.getPhotoId()).encode();
+            }
+
+            return ResponseEntity.ok(new CursorPageableResponse(photos.size(), next, photos));
+        });
+    }
+
+    /**
+     * Searches the {@link Photo}s by the words of their title and description.
+     * The matches are ranked with BM25, a word of the query also matches the
+     * longer words it is a prefix of, and the photos are listed as
+     * {@link PhotoSummary}s
+     *
+     * @param q    the words to look for
+     * @param page the solicited page
+     * @param size the number of items per page
+     *
+     * @return the photos that match the query, from the best to the worst match
+     *
+     * @throws ContentNotFoundException  when no photo matches the query
+     * @throws IndexOutOfBoundsException when the page is past the last one
+     * @throws IllegalArgumentException  when the query has no searchable words,
+     *                                   the page or size are not valid, or the
+     *                                   page is past {@code photos.search.max-depth}
+     *                                   matches
+     */
+    @GetMapping(path = "/search")
+    @ResponseStatus(code = HttpStatus.OK)
+    public CompletableFuture<ResponseEntity<PageableResponse>> searchPhotos(@RequestParam String q,
+            @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size)
+            throws ContentNotFoundException, IndexOutOfBoundsException, IllegalArgumentException {
+        SearchResults results = photoSearchService.search(q, page, size);
+        int totalPages = (int) (((long) results.getTotalHits() + size - 1) / size);
+
+        if (results.getTotalHits() == 0) {
+            throw new ContentNotFoundException("No photos match the query");
+        }
+
+        if (page > totalPages - 1) {
+            throw new PageOutOfBoundsException(totalPages - 1);
+        }
+
+        long[] photoIds = results.getPhotoIds();
+
+        return jdbcExecutor.read(() -> {
+            Map<Long, PhotoSummary> summaries = new HashMap<>();
+            photoRepository.findSummariesByPhotoIdIn(Arrays.stream(photoIds).boxed().collect(Collectors.toList()))
+                    .forEach(summary -> summaries.put(summary.getPhotoId(), summary));
+
+            List<SearchHit> hits = new ArrayList<>(photoIds.length);
+
+            for (int i = 0; i < photoIds.length; i++) {
+                PhotoSummary summary = summaries.get(photoIds[i]);
+
+                if (summary != null) {
+                    hits.add(new SearchHit(results.getScores()[i], summary));
+                }
+            }
+
+            return ResponseEntity
+                    .ok(new PageableResponse(page, totalPages, hits.size(), results.getTotalHits(), hits));
+        });
+    }
+
+    /**
+     * Shows the most viewed {@link Photo}s, overall or of a snapper. The ranking
+     * is kept in memory and updated on every view, so it includes the views that
+     * have not been flushed to the database yet.
+     *
+     * @param n         the number of photos
+     * @param snapperId the snapper whose photos are ranked, all the photos when
+     *                  missing
+     *
+     * @return the photos, from the most to the least viewed
+     *
+     * @throws ContentNotFoundException when there are no photos to rank
+     * @throws IllegalArgumentException when {@code n} is not between one and
+     *                                  {@code photos.top.size}
+     */
+    @GetMapping(path = "/top")
+    @ResponseStatus(code = HttpStatus.OK)
+    public ResponseEntity<List<PhotoSummary>> getTopPhotos(@RequestParam(defaultValue = "10") int n,
+            @RequestParam(required = false) Long snapperId)
+            throws ContentNotFoundException, IllegalArgumentException {
+        List<PhotoSummary> photos = leaderboardService.top(n, snapperId);
+
         if (photos.isEmpty()) {
-            throw new ContentNotFoundException("The repository is empty");
+            throw new ContentNotFoundException("There are no photos to rank");
         }
 
-        PageableResponse response = new PageableResponse(pagePhotos.getNumber(), pagePhotos.getTotalPages(),
-                pagePhotos.getNumberOfElements(), pagePhotos.getTotalElements(), photos);
+        return ResponseEntity.ok(photos);
+    }
 
-        return ResponseEntity.ok(response);
+    /**
+     * Streams every {@link Photo} of the repository as newline-delimited JSON. The
+     * response is gzipped when the client accepts it.
+     *
+     * @param acceptEncoding the encodings accepted by the client
+     * @return the streamed photos
+     */
+    @GetMapping(path = "/export", produces = "application/x-ndjson")
+    @ResponseStatus(code = HttpStatus.OK)
+    public ResponseEntity<StreamingResponseBody> exportPhotos(
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, defaultValue = "") String acceptEncoding) {
+        boolean gzip = acceptEncoding.contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().header(HttpHeaders.VARY,
+                HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(output -> exportService.exportPhotos(gzip ? new GZIPOutputStream(output) : output));
     }
 
     /**
-     * Shows the detail of the specified {@link Photo}
+     * Shows the detail of the specified {@link Photo}. The photo is read through
+     * the {@link PhotoCacheService} and the view is registered on the
+     * {@link ViewCounterService}, so a hot photo is served without touching the
+     * database; the returned views include the ones that have not been flushed
+     * yet.
+     * <p>
+     * The response carries an {@code ETag} and a {@code Last-Modified} header
+     * derived from the last update of the photo. A conditional request that
+     * matches gets a {@code 304 Not Modified}, checked against the cached
+     * snapshot or, on a miss, against the update date alone. The views are
+     * eventually consistent and are not part of the validators.
+     * <p>
+     * A cached photo is answered on the request thread; a miss is read on the
+     * {@link JdbcExecutor}, in a single read-only transaction.
      *
-     * @param id the photo id
+     * @param id      the photo id
+     * @param request the web request
      * @return the details of the photo
      * @throws PhotoNotFoundException when the photo does not exists
      */
     @GetMapping(path = "/{id:^\\d+$}")
     @ResponseStatus(code = HttpStatus.OK)
-    public ResponseEntity<Photo> findPhotoById(@PathVariable Long id) throws PhotoNotFoundException {
-        Photo photo = photoRepository.findById(id)
-                .orElseThrow(() -> new PhotoNotFoundException("Photo not found for this id :: " + id));
-        photo.setViews(photo.getViews() + 1);
-        photoRepository.save(photo);
+    public CompletableFuture<ResponseEntity<Photo>> findPhotoById(@PathVariable Long id, WebRequest request)
+            throws PhotoNotFoundException {
+        Optional<Photo> cached = photoCacheService.getIfPresent(id);
+
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(showPhoto(cached.get(), request));
+        }
+
+        return jdbcExecutor.read(() -> {
+            if (isConditional(request)) {
+                Date updatedAt = photoRepository.findUpdatedAtByPhotoId(id)
+                        .orElseThrow(() -> new PhotoNotFoundException("Photo not found for this id :: " + id));
+
+                if (request.checkNotModified(photoETag(id, updatedAt), updatedAt.getTime())) {
+                    viewCounterService.increment(id);
+                    leaderboardService.increment(id, null);
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+                }
+            }
 
-        return ResponseEntity.ok(photo);
+            return showPhoto(photoCacheService.findById(id)
+                    .orElseThrow(() -> new PhotoNotFoundException("Photo not found for this id :: " + id)), request);
+        });
     }
 
     // Post Mappings
@@ -120,19 +505,81 @@ public class PhotoController {
      *
      * @param photo the photo to add
      * @return the saved photo
+     * @throws DuplicateValueException when the url is already in use
      */
     @PostMapping
     @ResponseStatus(code = HttpStatus.CREATED)
-    public ResponseEntity<Photo> addPhoto(@RequestBody @Valid Photo photo) {
-        Photo savedPhoto = photoRepository.save(photo);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedPhoto);
+    public CompletableFuture<ResponseEntity<Photo>> addPhoto(@RequestBody @Valid Photo photo)
+            throws DuplicateValueException {
+        return jdbcExecutor.supply(() -> {
+            uniquenessService.requireUnique(photo);
+            Photo savedPhoto;
+
+            try {
+                savedPhoto = photoRepository.save(photo);
+            } catch (DataIntegrityViolationException e) {
+                // a concurrent request may have taken the url after the check
+                uniquenessService.verifyUnique(photo);
+                throw e;
+            }
+
+            uniquenessService.add(savedPhoto);
+            photoCountService.adjust(1);
+            photoCacheService.put(savedPhoto);
+            photoPageCacheService.invalidate();
+            photoSearchService.index(savedPhoto);
+            leaderboardService.record(savedPhoto);
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedPhoto);
+        });
+    }
+
+    /**
+     * Adds many {@link Photo}s to the repository at once, using JDBC batching. Each
+     * photo is validated on its own, so the invalid ones are reported without
+     * stopping the rest of the batch.
+     *
+     * @param photos the photos to add
+     * @return the result of every photo
+     */
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(code = HttpStatus.OK)
+    public CompletableFuture<ResponseEntity<BatchResponse>> addPhotos(@RequestBody List<Photo> photos) {
+        return jdbcExecutor.supply(() -> ResponseEntity.ok(photoBatchService.insertAll(photos.iterator())));
+    }
+
+    /**
+     * Adds many {@link Photo}s to the repository at once, reading them as
+     * newline-delimited JSON while they are inserted. The body is read on the
+     * {@link JdbcExecutor} too, so the servlet thread is not held for the import
+     *
+     * @param body the request body
+     * @return the result of every photo
+     * @throws UncheckedIOException     when the body can not be read
+     * @throws IllegalArgumentException when a line is not a valid photo
+     */
+    @PostMapping(path = "/batch", consumes = "application/x-ndjson")
+    @ResponseStatus(code = HttpStatus.OK)
+    public CompletableFuture<ResponseEntity<BatchResponse>> addPhotosStream(InputStream body)
+            throws UncheckedIOException, IllegalArgumentException {
+        return jdbcExecutor.supply(() -> {
+            try (MappingIterator<Photo> photos = objectMapper.readerFor(Photo.class).readValues(body)) {
+                return ResponseEntity.ok(photoBatchService.insertAll(photos));
+            } catch (RuntimeJsonMappingException e) {
+                throw new IllegalArgumentException(e.getMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 
     // Put Mappings
     // -----------------------------------------------------------------------------------------
 
     /**
-     * Update the information (title, description) of an existing {@link Photo}
+     * Update the information (title, description) of an existing {@link Photo}.
+     * Only those columns are written, with a single {@code update}, and the photo
+     * is read back afterwards, so the views flushed meanwhile are kept
      *
      * @param id           the photo id
      * @param photoDetails the new details
@@ -141,36 +588,466 @@ public class PhotoController {
      */
     @PutMapping(path = "/{id:^\\d+$}")
     @ResponseStatus(code = HttpStatus.OK)
-    public ResponseEntity<Photo> updatePhoto(@PathVariable Long id, @RequestBody @Valid Photo photoDetails)
-            throws PhotoNotFoundException {
-        Photo photo = photoRepository.findById(id)
-                .orElseThrow(() -> new PhotoNotFoundException("Photo not found for this id :: " + id));
-        photo.setTitle(photoDetails.getTitle());
-        photo.setDescription(photoDetails.getDescription());
-        Photo updatedPhoto = photoRepository.save(photo);
+    public CompletableFuture<ResponseEntity<Photo>> updatePhoto(@PathVariable Long id,
+            @RequestBody @Valid Photo photoDetails) throws PhotoNotFoundException {
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("title", photoDetails.getTitle());
+        changes.put("description", photoDetails.getDescription());
+
+        return jdbcExecutor.supply(() -> {
+            if (photoRepository.updateFields(id, changes, new Date(), List.of()) == 0) {
+                throw new PhotoNotFoundException("Photo not found for this id :: " + id);
+            }
+
+            Photo updatedPhoto = photoRepository.findById(id)
+                    .orElseThrow(() -> new PhotoNotFoundException("Photo not found for this id :: " + id));
+            photoCacheService.put(updatedPhoto);
+            photoPageCacheService.invalidate();
+            photoSearchService.index(updatedPhoto);
+            leaderboardService.record(updatedPhoto);
 
-        return ResponseEntity.ok(updatedPhoto);
+            return ResponseEntity.ok(updatedPhoto);
+        });
+    }
+
+    // Patch Mappings
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Changes some details (title, description) of an existing {@link Photo}
+     * following JSON merge-patch: the fields present are set, {@code null} removes
+     * the description and the fields left out are kept. Only the changed columns
+     * are written, with a single {@code update} and without reading the photo
+     * first.
+     *
+     * @param id      the photo id
+     * @param patch   the changes
+     * @param ifMatch the entity tags the photo must have, or {@code *}
+     * @return no content, with the new entity tag of the photo
+     * @throws PhotoNotFoundException       when the photo is not found on the
+     *                                      repository
+     * @throws PreconditionFailedException  when the photo does not have any of
+     *                                      the entity tags
+     * @throws IllegalArgumentException     when a field can not be changed
+     * @throws ConstraintViolationException when the title is not valid
+     */
+    @PatchMapping(path = "/{id:^\\d+$}", consumes = { MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+    @ResponseStatus(code = HttpStatus.NO_CONTENT)
+    public CompletableFuture<ResponseEntity<Void>> patchPhoto(@PathVariable Long id,
+            @RequestBody Map<String, Object> patch,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws PhotoNotFoundException, PreconditionFailedException, IllegalArgumentException,
+            ConstraintViolationException {
+        validatePatch(patch);
+
+        boolean anyVersion = ifMatch == null || ifMatch.trim().equals("*");
+        List<Date> versions = anyVersion ? List.of() : versions(id, ifMatch);
+
+        return jdbcExecutor.supply(() -> {
+            Date updatedAt = new Date();
+
+            if (patch.isEmpty() || (!anyVersion && versions.isEmpty())) {
+                // nothing to write, or nothing it could be written over
+                Date current = photoRepository.findUpdatedAtByPhotoId(id)
+                        .orElseThrow(() -> new PhotoNotFoundException("Photo not found for this id :: " + id));
+
+                if (!anyVersion && !versions.contains(current)) {
+                    throw new PreconditionFailedException("The photo was changed since it was read");
+                }
+
+                return ResponseEntity.noContent().eTag(photoETag(id, current)).lastModified(current.getTime())
+                        .build();
+            }
+
+            if (photoRepository.updateFields(id, patch, updatedAt, versions) == 0) {
+                if (!photoRepository.existsById(id)) {
+                    throw new PhotoNotFoundException("Photo not found for this id :: " + id);
+                }
+
+                throw new PreconditionFailedException("The photo was changed since it was read");
+            }
+
+            patched(id, patch, updatedAt);
+
+            return ResponseEntity.noContent().eTag(photoETag(id, updatedAt)).lastModified(updatedAt.getTime())
+                    .build();
+        });
     }
 
     // Delete Mappings
     // -----------------------------------------------------------------------------------------
 
+    /**
+     * Deletes a {@link Photo} with a single statement, without loading it
+     *
+     * @param id the photo id
+     * @return the number of deleted photos
+     * @throws PhotoNotFoundException when the photo is not found on the repository
+     */
     @DeleteMapping(path = "/{id:^\\d+$}")
     @ResponseStatus(code = HttpStatus.OK)
-    public ResponseEntity<Map<String, Object>> deletePhoto(@PathVariable Long id) throws PhotoNotFoundException {
-        Photo photo = photoRepository.findById(id)
-                .orElseThrow(() -> new PhotoNotFoundException("Photo not found for this id :: " + id));
-        photoRepository.delete(photo);
+    public CompletableFuture<ResponseEntity<DeleteResponse>> deletePhoto(@PathVariable Long id)
+            throws PhotoNotFoundException {
+        return jdbcExecutor.supply(() -> {
+            if (!photoDeleteService.delete(id)) {
+                throw new PhotoNotFoundException("Photo not found for this id :: " + id);
+            }
+
+            DeleteResponse response = new DeleteResponse(1);
+            response.addChunk(1);
+
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    /**
+     * Deletes many {@link Photo}s at once, in chunks that run on their own
+     * transactions. The ids that do not exist are counted and skipped.
+     *
+     * @param ids the photo ids, at most {@code photos.delete.max-ids}
+     * @return the number of requested and deleted photos
+     * @throws IllegalArgumentException when there are no ids or too many
+     */
+    @DeleteMapping
+    @ResponseStatus(code = HttpStatus.OK)
+    public CompletableFuture<ResponseEntity<DeleteResponse>> deletePhotos(@RequestParam List<Long> ids)
+            throws IllegalArgumentException {
+        if (ids.isEmpty() || ids.size() > maxDeleteIds) {
+            throw new IllegalArgumentException(
+                    String.format("Between 1 and %d ids can be deleted at once", maxDeleteIds));
+        }
+
+        return jdbcExecutor.supply(() -> ResponseEntity.ok(photoDeleteService.deleteAll(ids)));
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Checks the fields and values of a merge-patch of a {@link Photo}
+     *
+     * @param patch the changes
+     * @throws IllegalArgumentException     when a field can not be changed or is
+     *                                      not a text
+     * @throws ConstraintViolationException when a value breaks the constraints of
+     *                                      the photo
+     */
+    private void validatePatch(Map<String, Object> patch)
+            throws IllegalArgumentException, ConstraintViolationException {
+        for (Map.Entry<String, Object> change : patch.entrySet()) {
+            if (!PhotoRepositoryCustom.UPDATABLE_FIELDS.contains(change.getKey())) {
+                throw new IllegalArgumentException(String.format("'%s' can not be changed. Possible values: %s.",
+                        change.getKey(), PhotoRepositoryCustom.UPDATABLE_FIELDS));
+            }
+
+            if (change.getValue() != null && !(change.getValue() instanceof String)) {
+                throw new IllegalArgumentException(String.format("'%s' must be a text", change.getKey()));
+            }
+
+            if (change.getKey().equals("title") && change.getValue() == null) {
+                throw new IllegalArgumentException("'title' can not be removed");
+            }
+
+            Set<ConstraintViolation<Photo>> violations = validator.validateValue(Photo.class, change.getKey(),
+                    change.getValue());
+
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+        }
+    }
+
+    /**
+     * Parses the update dates out of the entity tags of an {@code If-Match}
+     * header, ignoring the tags of other photos and the weak ones, which never
+     * match
+     *
+     * @param photoId the photo id
+     * @param ifMatch the header
+     * @return the update dates
+     */
+    private List<Date> versions(Long photoId, String ifMatch) {
+        List<Date> versions = new ArrayList<>();
+        String prefix = "\"" + photoId + "-";
+
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+
+            if (!trimmed.startsWith(prefix) || !trimmed.endsWith("\"")) {
+                continue;
+            }
+
+            String[] parts = trimmed.substring(prefix.length(), trimmed.length() - 1).split("-");
+
+            try {
+                if (parts.length == 2) {
+                    versions.add(Timestamp.from(
+                            Instant.ofEpochSecond(Long.parseLong(parts[0], 16), Long.parseLong(parts[1], 16))));
+                }
+            } catch (NumberFormatException | DateTimeException e) {
+                // not one of our tags
+            }
+        }
+
+        return versions;
+    }
+
+    /**
+     * Brings the caches, the search index and the leaderboards up to date after
+     * some fields of a {@link Photo} were updated without loading it. The cached
+     * snapshot is evicted rather than patched, since a concurrent patch may have
+     * committed in between and the copy would keep a stale entity tag; the next
+     * read loads the photo again. The search index reads the photo again unless
+     * the patch holds both indexed fields.
+     *
+     * @param photoId   the photo id
+     * @param patch     the changes
+     * @param updatedAt the new update date
+     */
+    private void patched(Long photoId, Map<String, Object> patch, Date updatedAt) {
+        photoCacheService.invalidate(photoId);
+        photoPageCacheService.invalidate();
+
+        String title = (String) patch.get("title");
+
+        if (patch.size() == PhotoRepositoryCustom.UPDATABLE_FIELDS.size()) {
+            photoSearchService.index(photoId, title, (String) patch.get("description"));
+        } else {
+            photoSearchService.reindex(photoId);
+        }
+
+        if (title != null) {
+            leaderboardService.retitle(photoId, title, updatedAt);
+        }
+    }
+
+    /**
+     * Answers the detail of a {@link Photo}, or a {@code 304 Not Modified} when
+     * the validators of the request match, and registers the view
+     *
+     * @param photo   the cached snapshot of the photo
+     * @param request the web request
+     * @return the details of the photo
+     */
+    private ResponseEntity<Photo> showPhoto(Photo photo, WebRequest request) {
+        Long id = photo.getPhotoId();
+
+        if (isConditional(request)
+                && request.checkNotModified(photoETag(id, photo.getUpdatedAt()), photo.getUpdatedAt().getTime())) {
+            viewCounterService.increment(id);
+            leaderboardService.increment(id, photo.getSnapperId());
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        photo.setViews(photo.getViews() + viewCounterService.increment(id));
+        leaderboardService.record(photo);
+
+        return ResponseEntity.ok().eTag(photoETag(id, photo.getUpdatedAt()))
+                .lastModified(photo.getUpdatedAt().getTime()).body(photo);
+    }
+
+    /**
+     * Writes a rendered page of {@link Photo}s, gzipped when the client accepts
+     * it, or answers a {@code 304 Not Modified} when the validators of the request
+     * match
+     *
+     * @param page    the rendered page
+     * @param request the web request
+     * @return the page of photos
+     */
+    private ResponseEntity<byte[]> showPage(RenderedPage page, WebRequest request) {
+        if (isConditional(request) && request.checkNotModified(page.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                .eTag(page.getETag()).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (page.getGzipped() != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(page.getGzipped());
+        }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("timestamp", new Date());
-        response.put("photo", photo);
+        return response.body(page.getJson());
+    }
 
-        Map<String, Boolean> deleted = new HashMap<>();
-        deleted.put("deleted", Boolean.TRUE);
-        response.put("status", deleted);
+    /**
+     * Retrieves a page of {@link Photo}s without counting the repository
+     *
+     * @param pageable    the page, size and sorting
+     * @param approximate whether to include the approximate totals
+     * @param description whether to include the descriptions
+     * @return the page of photos
+     * @throws ContentNotFoundException  when the repository is empty
+     * @throws IndexOutOfBoundsException when the page is past the last one
+     */
+    private ResponseEntity<PageableResponse> getSliceOfPhotos(Pageable pageable, boolean approximate,
+            boolean description) throws ContentNotFoundException, IndexOutOfBoundsException {
+        Slice<? extends PhotoVersion> slice = description ? photoRepository.findSliceBy(pageable)
+                : photoRepository.findSummarySlice(pageable);
+
+        if (slice.getContent().isEmpty()) {
+            if (pageable.getPageNumber() > 0) {
+                throw new PageOutOfBoundsException("Page value out of bounds");
+            }
+
+            throw new ContentNotFoundException("The repository is empty");
+        }
+
+        PageableResponse response = new PageableResponse(slice.getNumber(), slice.getNumberOfElements(),
+                slice.hasNext(), slice.getContent());
+
+        if (approximate) {
+            long totalItems = photoCountService.getApproximateCount();
+            response.setTotalItems(totalItems);
+            response.setTotalPages((int) ((totalItems + pageable.getPageSize() - 1) / pageable.getPageSize()));
+            response.setApproximate(Boolean.TRUE);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(pageETag(slice.getContent(), sliceTotals(slice.hasNext(), approximate), description))
+                .body(response);
+    }
 
-        return ResponseEntity.ok(response);
+    /**
+     * Parses the comma separated optional fields of a listing
+     *
+     * @param fields the optional fields
+     * @return whether the description was requested
+     * @throws IllegalArgumentException when an unknown field is requested
+     */
+    private boolean includesDescription(String fields) throws IllegalArgumentException {
+        boolean description = false;
+
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+
+            if (!OPTIONAL_FIELDS.contains(trimmed)) {
+                throw new IllegalArgumentException(String.format(
+                        "'%s' is an unknown optional field. Possible values: %s.", trimmed, OPTIONAL_FIELDS));
+            }
+
+            description = true;
+        }
+
+        return description;
+    }
+
+    /**
+     * Checks if the request carries a validator
+     *
+     * @param request the web request
+     * @return whether the request is conditional
+     */
+    private boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * Builds the strong entity tag of a {@link Photo}
+     *
+     * @param photoId   the photo id
+     * @param updatedAt the last update date
+     * @return the entity tag
+     */
+    private String photoETag(Long photoId, Date updatedAt) {
+        Instant instant = updatedAt.toInstant();
+        return String.format("\"%d-%x-%x\"", photoId, instant.getEpochSecond(), instant.getNano());
+    }
+
+    /**
+     * Builds the entity tag of a page of photos reading only their ids and update
+     * dates
+     *
+     * @param pageable    the page, size and sorting
+     * @param totals      the totals mode
+     * @param description whether the descriptions are included
+     * @return the entity tag
+     */
+    private String versionsETag(Pageable pageable, String totals, boolean description) {
+        if (totals.equals("exact")) {
+            Page<PhotoVersion> versions = photoRepository.findVersionsBy(pageable);
+            return pageETag(versions.getContent(), String.valueOf(versions.getTotalElements()), description);
+        }
+
+        Slice<PhotoVersion> versions = photoRepository.findVersionSliceBy(pageable);
+        return pageETag(versions.getContent(), sliceTotals(versions.hasNext(), totals.equals("approximate")),
+                description);
+    }
+
+    /**
+     * Describes the totals of a slice for its entity tag
+     *
+     * @param hasNext     whether there is a next page
+     * @param approximate whether the approximate totals are included
+     * @return the totals description
+     */
+    private String sliceTotals(boolean hasNext, boolean approximate) {
+        return hasNext + (approximate ? "~" + photoCountService.getApproximateCount() : "");
+    }
+
+    /**
+     * Builds the entity tag of a page from the ids and update dates of its photos,
+     * its totals and the fields of its representation
+     *
+     * @param versions    the photos of the page
+     * @param totals      the totals of the page
+     * @param description whether the descriptions are included
+     * @return the entity tag
+     */
+    private String pageETag(List<? extends PhotoVersion> versions, String totals, boolean description) {
+        StringBuilder builder = new StringBuilder(versions.size() * 32);
+
+        for (PhotoVersion version : versions) {
+            Instant instant = version.getUpdatedAt().toInstant();
+            builder.append(version.getPhotoId()).append(':').append(instant.getEpochSecond()).append('.')
+                    .append(instant.getNano()).append(';');
+        }
+
+        builder.append(totals).append(description ? ";description" : "");
+
+        return "\"" + DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Validates that the field can be used for keyset pagination
+     *
+     * @param sortBy the sorting field
+     * @return the sorting field
+     * @throws IllegalArgumentException when the field is not supported
+     */
+    private String keysetField(String sortBy) throws IllegalArgumentException {
+        if (!sortBy.equals("photoId") && !sortBy.equals("createdAt") && !sortBy.equals("views")) {
+            throw new IllegalArgumentException(String.format(
+                    "'%s' can not be used with cursors. Possible values: 'photoId', 'createdAt' and 'views'.",
+                    sortBy));
+        }
+
+        return sortBy;
+    }
+
+    /**
+     * Retrieves the sort key of a {@link Photo} as it is stored on a
+     * {@link Cursor}
+     *
+     * @param sortBy the sorting field
+     * @param photo  the photo or its summary
+     * @return the sort key
+     */
+    private String keysetValue(String sortBy, PhotoVersion photo) {
+        switch (sortBy) {
+            case "createdAt":
+                return photo.getCreatedAt().toInstant().toString();
+            case "views":
+                return String.valueOf(photo.getViews());
+            default:
+                return String.valueOf(photo.getPhotoId());
+        }
     }
 
 }
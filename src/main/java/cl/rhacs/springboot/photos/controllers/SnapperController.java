@@ -1,46 +1,226 @@
 package cl.rhacs.springboot.photos.controllers;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import cl.rhacs.springboot.photos.exceptions.ContentNotFoundException;
+import cl.rhacs.springboot.photos.exceptions.DuplicateValueException;
+import cl.rhacs.springboot.photos.exceptions.PageOutOfBoundsException;
 import cl.rhacs.springboot.photos.exceptions.SnapperNotFoundException;
+import cl.rhacs.springboot.photos.models.Cursor;
+import cl.rhacs.springboot.photos.models.CursorPageableResponse;
+import cl.rhacs.springboot.photos.models.DeleteResponse;
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.PageableResponse;
+import cl.rhacs.springboot.photos.models.PhotoCount;
+import cl.rhacs.springboot.photos.models.PhotoSummary;
 import cl.rhacs.springboot.photos.models.Snapper;
+import cl.rhacs.springboot.photos.models.SnapperSummary;
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
 import cl.rhacs.springboot.photos.repositories.SnapperRepository;
-import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import cl.rhacs.springboot.photos.services.ExportService;
+import cl.rhacs.springboot.photos.services.JdbcExecutor;
+import cl.rhacs.springboot.photos.services.PhotoDeleteService;
+import cl.rhacs.springboot.photos.services.UniquenessService;
 
 @RestController
 @RequestMapping(path = "/snappers")
 public class SnapperController {
 
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final List<String> SORTABLE_FIELDS = List.of("snapperId", "username", "email", "createdAt",
+            "updatedAt");
+
+    private static final List<String> INCLUDABLE_FIELDS = List.of("photoCount");
+
     // Attributes
     // -----------------------------------------------------------------------------------------
 
     @Autowired
     private SnapperRepository snapperRepository;
 
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private JdbcExecutor jdbcExecutor;
+
+    @Autowired
+    private UniquenessService uniquenessService;
+
+    @Autowired
+    private PhotoDeleteService photoDeleteService;
+
     // Get Mappings
     // -----------------------------------------------------------------------------------------
 
     /**
-     * Shows the list of {@link Snapper}s inside the repository
+     * Shows a paginated list of the {@link Snapper}s inside the repository, as
+     * {@link SnapperSummary}s
+     *
+     * @param page      the solicited page
+     * @param size      the number of items per page
+     * @param sortBy    the sorting field
+     * @param sortOrder the sorting order
+     * @param include   the optional fields to include: 'photoCount'
+     *
+     * @return a {@code ResponseEntity} that contains a page of {@code Snapper}s
      *
-     * @return a {@code ResponseEntity} that contains a list of {@code Snapper}s
+     * @throws ContentNotFoundException  when the repository is empty
+     * @throws IndexOutOfBoundsException when the user enters a page value larger
+     *                                   than the max value
+     * @throws IllegalArgumentException  when an unknown sorting or field is
+     *                                   selected
      */
     @GetMapping
     @ResponseStatus(code = HttpStatus.OK)
-    public ResponseEntity<List<Snapper>> getAllSnappers() {
-        return ResponseEntity.ok(snapperRepository.findAll());
+    public CompletableFuture<ResponseEntity<PageableResponse>> getAllSnappers(
+            @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "snapperId") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortOrder, @RequestParam(defaultValue = "") String include)
+            throws ContentNotFoundException, IndexOutOfBoundsException, IllegalArgumentException {
+        boolean photoCount = includes(include);
+
+        if (!SORTABLE_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException(String.format(
+                    "'%s' is an unknown sorting field. Possible values: %s.", sortBy, SORTABLE_FIELDS));
+        }
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction(sortOrder), sortBy));
+
+        return jdbcExecutor.read(() -> {
+            Page<SnapperSummary> snappers = snapperRepository.findAllSummaries(pageable);
+
+            if (page > snappers.getTotalPages() - 1) {
+                throw new PageOutOfBoundsException(snappers.getTotalPages() - 1);
+            }
+
+            if (snappers.isEmpty()) {
+                throw new ContentNotFoundException("The repository is empty");
+            }
+
+            if (photoCount) {
+                countPhotos(snappers.getContent());
+            }
+
+            return ResponseEntity.ok(new PageableResponse(snappers.getNumber(), snappers.getTotalPages(),
+                    snappers.getNumberOfElements(), snappers.getTotalElements(), snappers.getContent()));
+        });
+    }
+
+    /**
+     * Shows a list of {@link SnapperSummary}s using keyset pagination: the client
+     * sends the {@code next} token of the previous response (or an empty value for
+     * the first page) instead of a page number
+     *
+     * @param after     the token of the previous response, empty for the first
+     *                  page
+     * @param size      the number of items per page
+     * @param sortOrder the sorting order of the ids: 'asc' or 'desc'
+     * @param include   the optional fields to include: 'photoCount'
+     *
+     * @return the snappers that come after the token
+     *
+     * @throws IllegalArgumentException when the token, the size, the sorting or
+     *                                  the fields are not valid
+     */
+    @GetMapping(params = "after")
+    @ResponseStatus(code = HttpStatus.OK)
+    public CompletableFuture<ResponseEntity<CursorPageableResponse>> getSnappersAfter(@RequestParam String after,
+            @RequestParam(defaultValue = "10") int size, @RequestParam(defaultValue = "asc") String sortOrder,
+            @RequestParam(defaultValue = "") String include) throws IllegalArgumentException {
+        boolean photoCount = includes(include);
+
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+
+        Sort.Direction direction = direction(sortOrder);
+        Pageable limit = PageRequest.of(0, size + 1);
+        Cursor cursor = after.isEmpty() ? null : Cursor.decode(after);
+
+        if (cursor != null) {
+            cursor.verify("snapperId", sortOrder);
+        }
+
+        return jdbcExecutor.read(() -> {
+            List<SnapperSummary> snappers;
+
+            if (cursor == null) {
+                snappers = snapperRepository
+                        .findSummaries(PageRequest.of(0, size + 1, Sort.by(direction, "snapperId")));
+            } else {
+                snappers = direction.isAscending() ? snapperRepository.findSummariesAfterAsc(cursor.getId(), limit)
+                        : snapperRepository.findSummariesAfterDesc(cursor.getId(), limit);
+            }
+
+            String next = null;
+
+            if (snappers.size() > size) {
+                snappers = snappers.subList(0, size);
+                Long lastId = snappers.get(size - 1).getSnapperId();
+                next = new Cursor("snapperId", sortOrder, String.valueOf(lastId), lastId).encode();
+            }
+
+            if (photoCount) {
+                countPhotos(snappers);
+            }
+
+            return ResponseEntity.ok(new CursorPageableResponse(snappers.size(), next, snappers));
+        });
+    }
+
+    /**
+     * Streams a {@link SnapperSummary} of every {@link Snapper} as
+     * newline-delimited JSON. The response is gzipped when the client accepts it.
+     *
+     * @param acceptEncoding the encodings accepted by the client
+     * @return the streamed snappers
+     */
+    @GetMapping(path = "/export", produces = "application/x-ndjson")
+    @ResponseStatus(code = HttpStatus.OK)
+    public ResponseEntity<StreamingResponseBody> exportSnappers(
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, defaultValue = "") String acceptEncoding) {
+        boolean gzip = acceptEncoding.contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().header(HttpHeaders.VARY,
+                HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(output -> exportService.exportSnappers(gzip ? new GZIPOutputStream(output) : output));
     }
 
     /**
@@ -54,10 +234,79 @@ public class SnapperController {
      */
     @GetMapping(path = "/{id:^\\d+$}")
     @ResponseStatus(code = HttpStatus.OK)
-    public ResponseEntity<Snapper> getSnapperById(@PathVariable Long id) throws SnapperNotFoundException {
-        Snapper snapper = snapperRepository.findById(id)
-                .orElseThrow(() -> new SnapperNotFoundException("Snapper not found for this id :: " + id));
-        return ResponseEntity.ok(snapper);
+    public CompletableFuture<ResponseEntity<Snapper>> getSnapperById(@PathVariable Long id)
+            throws SnapperNotFoundException {
+        return jdbcExecutor.read(() -> {
+            Snapper snapper = snapperRepository.findById(id)
+                    .orElseThrow(() -> new SnapperNotFoundException("Snapper not found for this id :: " + id));
+            return ResponseEntity.ok(snapper);
+        });
+    }
+
+    /**
+     * Shows the {@link PhotoSummary}s of a {@link Snapper} using keyset
+     * pagination on the photo id: the client sends the {@code next} token of the
+     * previous response (or nothing for the first page). Every page costs a single
+     * query, plus one to tell an unknown snapper from one without photos when the
+     * page is empty.
+     *
+     * @param id        the {@code Snapper} id
+     * @param after     the token of the previous response, empty for the first
+     *                  page
+     * @param size      the number of items per page
+     * @param sortOrder the sorting order of the photo ids: 'asc' or 'desc'
+     *
+     * @return the photos of the snapper that come after the token
+     *
+     * @throws SnapperNotFoundException when the {@code Snapper} id does not match a
+     *                                  record on the repository
+     * @throws IllegalArgumentException when the token, the size or the sorting
+     *                                  are not valid
+     */
+    @GetMapping(path = "/{id:^\\d+$}/photos")
+    @ResponseStatus(code = HttpStatus.OK)
+    public CompletableFuture<ResponseEntity<CursorPageableResponse>> getSnapperPhotos(@PathVariable Long id,
+            @RequestParam(defaultValue = "") String after, @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "asc") String sortOrder)
+            throws SnapperNotFoundException, IllegalArgumentException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+
+        Sort.Direction direction = direction(sortOrder);
+        Pageable limit = PageRequest.of(0, size + 1);
+        Cursor cursor = after.isEmpty() ? null : Cursor.decode(after);
+
+        if (cursor != null) {
+            cursor.verify("photoId", sortOrder);
+        }
+
+        return jdbcExecutor.read(() -> {
+            List<PhotoSummary> photos;
+
+            if (cursor == null) {
+                photos = photoRepository.findSummariesBySnapperId(id,
+                        PageRequest.of(0, size + 1, Sort.by(direction, "photoId")));
+            } else {
+                photos = direction.isAscending()
+                        ? photoRepository.findSummariesBySnapperIdAfterAsc(id, cursor.getId(), limit)
+                        : photoRepository.findSummariesBySnapperIdAfterDesc(id, cursor.getId(), limit);
+            }
+
+            if (photos.isEmpty() && !snapperRepository.existsById(id)) {
+                throw new SnapperNotFoundException("Snapper not found for this id :: " + id);
+            }
+
+            String next = null;
+
+            if (photos.size() > size) {
+                photos = photos.subList(0, size);
+                Long lastId = photos.get(size - 1).getPhotoId();
+                next = new Cursor("photoId", sortOrder, String.valueOf(lastId), lastId).encode();
+            }
+
+            return ResponseEntity.ok(new CursorPageableResponse(photos.size(), next, photos));
+        });
     }
 
     // Post Mappings
@@ -68,18 +317,115 @@ public class SnapperController {
      *
      * @param snapper the {@code Snapper} details
      * @return a {@code ResponseEntity} instance with the created {@code Snapper}
+     * @throws DuplicateValueException when the username or the email address are
+     *                                 already in use
      */
     @PostMapping
     @ResponseStatus(code = HttpStatus.CREATED)
-    public ResponseEntity<Snapper> addSnapper(@RequestBody @Valid Snapper snapper) {
-        Snapper savedSnapper = snapperRepository.save(snapper);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedSnapper);
+    public CompletableFuture<ResponseEntity<Snapper>> addSnapper(@RequestBody @Valid Snapper snapper)
+            throws DuplicateValueException {
+        return jdbcExecutor.supply(() -> {
+            uniquenessService.requireUnique(snapper);
+            Snapper savedSnapper;
+
+            try {
+                savedSnapper = snapperRepository.save(snapper);
+            } catch (DataIntegrityViolationException e) {
+                // a concurrent request may have taken the values after the check
+                uniquenessService.verifyUnique(snapper);
+                throw e;
+            }
+
+            uniquenessService.add(savedSnapper);
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedSnapper);
+        });
     }
 
     // TODO: Put Mappings
     // -----------------------------------------------------------------------------------------
 
-    // TODO: Delete Mappings
+    // Delete Mappings
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Deletes every {@link Photo} of a {@link Snapper}, in chunks that run on
+     * their own transactions
+     *
+     * @param id the {@code Snapper} id
+     * @return the number of deleted photos
+     * @throws SnapperNotFoundException when the {@code Snapper} id does not match a
+     *                                  record on the repository
+     */
+    @DeleteMapping(path = "/{id:^\\d+$}/photos")
+    @ResponseStatus(code = HttpStatus.OK)
+    public CompletableFuture<ResponseEntity<DeleteResponse>> deleteSnapperPhotos(@PathVariable Long id)
+            throws SnapperNotFoundException {
+        return jdbcExecutor.supply(() -> {
+            if (!snapperRepository.existsById(id)) {
+                throw new SnapperNotFoundException("Snapper not found for this id :: " + id);
+            }
+
+            return ResponseEntity.ok(photoDeleteService.deleteBySnapperId(id));
+        });
+    }
+
+    // Methods
     // -----------------------------------------------------------------------------------------
 
+    /**
+     * Parses the sorting order
+     *
+     * @param sortOrder the sorting order: 'asc' or 'desc'
+     * @return the sorting direction
+     * @throws IllegalArgumentException when an unknown sorting order is selected
+     */
+    private Sort.Direction direction(String sortOrder) throws IllegalArgumentException {
+        if (!sortOrder.equals("asc") && !sortOrder.equals("desc")) {
+            throw new IllegalArgumentException(String.format("'%s' is an unknown sorting order. Possible values: "
+                    + "'asc' for ascending order and 'desc' for descending order.", sortOrder));
+        }
+
+        return sortOrder.equals("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+    }
+
+    /**
+     * Parses the optional fields of the listings
+     *
+     * @param include the comma separated fields, empty for none
+     * @return whether the number of photos is included
+     * @throws IllegalArgumentException when an unknown field is selected
+     */
+    private boolean includes(String include) throws IllegalArgumentException {
+        if (include.isEmpty()) {
+            return false;
+        }
+
+        for (String field : include.split(",")) {
+            if (!INCLUDABLE_FIELDS.contains(field.trim())) {
+                throw new IllegalArgumentException(String.format(
+                        "'%s' is an unknown field to include. Possible values: %s.", field, INCLUDABLE_FIELDS));
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Fills the number of photos of a page of snappers, counting them on a single
+     * grouped query instead of one per snapper
+     *
+     * @param snappers the page of snappers
+     */
+    private void countPhotos(List<SnapperSummary> snappers) {
+        if (snappers.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = snappers.stream().map(SnapperSummary::getSnapperId).collect(Collectors.toList());
+        Map<Long, Long> counts = photoRepository.countBySnapperIdIn(ids).stream()
+                .collect(Collectors.toMap(PhotoCount::getSnapperId, PhotoCount::getPhotoCount));
+
+        snappers.forEach(snapper -> snapper.setPhotoCount(counts.getOrDefault(snapper.getSnapperId(), 0L)));
+    }
+
 }
@@ -0,0 +1,56 @@
+package cl.rhacs.springboot.photos.datasource;
+
+import java.time.Duration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Sends the read-your-writes window of the {@link RoutingContext} to the client
+ * on the {@link ReadYourWritesFilter#COOKIE} cookie when the request wrote. The
+ * cookie is added right before the body is written, after the handlers that
+ * run on the {@code JdbcExecutor} complete.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "photos.datasource.routing.enabled", havingValue = "true")
+public class ReadYourWritesAdvice implements ResponseBodyAdvice<Object> {
+
+    // Inheritances (ResponseBodyAdvice)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest) {
+            Object context = ((ServletServerHttpRequest) request).getServletRequest()
+                    .getAttribute(ReadYourWritesFilter.ATTRIBUTE);
+
+            if (context instanceof RoutingContext && ((RoutingContext) context).isChanged()) {
+                long primaryUntil = ((RoutingContext) context).getPrimaryUntil();
+                long remaining = Math.max(1000L, primaryUntil - System.currentTimeMillis());
+
+                response.getHeaders().add(HttpHeaders.SET_COOKIE,
+                        ResponseCookie.from(ReadYourWritesFilter.COOKIE, String.valueOf(primaryUntil)).path("/")
+                                .httpOnly(true).maxAge(Duration.ofMillis(remaining)).build().toString());
+            }
+        }
+
+        return body;
+    }
+
+}
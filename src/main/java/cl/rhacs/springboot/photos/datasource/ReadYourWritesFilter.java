@@ -0,0 +1,77 @@
+package cl.rhacs.springboot.photos.datasource;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Binds a {@link RoutingContext} to every request, restoring the
+ * read-your-writes window the client received on the {@link #COOKIE} cookie.
+ * The {@link ReadYourWritesAdvice} sends the window back when the request
+ * extends it.
+ */
+@Component
+@ConditionalOnProperty(name = "photos.datasource.routing.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    public static final String COOKIE = "photos-primary-until";
+
+    public static final String ATTRIBUTE = RoutingContext.class.getName();
+
+    // Inheritances (OncePerRequestFilter)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RoutingContext context = new RoutingContext(primaryUntil(request));
+        request.setAttribute(ATTRIBUTE, context);
+        RoutingContext.set(context);
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RoutingContext.set(null);
+        }
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Reads the read-your-writes window of the client
+     *
+     * @param request the request
+     * @return the epoch millis until which the reads go to the primary, zero when
+     *         the client has not written
+     */
+    private long primaryUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (cookie.getName().equals(COOKIE)) {
+                    try {
+                        return Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException e) {
+                        return 0L;
+                    }
+                }
+            }
+        }
+
+        return 0L;
+    }
+
+}
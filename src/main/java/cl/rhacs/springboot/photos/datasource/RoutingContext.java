@@ -0,0 +1,98 @@
+package cl.rhacs.springboot.photos.datasource;
+
+import java.time.Duration;
+
+/**
+ * The routing state of a request: until when its reads must go to the primary
+ * because the client wrote recently.
+ * <p>
+ * The context is bound to the thread serving the request and carried to the
+ * threads that do its database work, so the {@link RoutingDataSource} can read
+ * it when a connection is requested.
+ */
+public final class RoutingContext {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final ThreadLocal<RoutingContext> CURRENT = new ThreadLocal<>();
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final long received;
+
+    private volatile long primaryUntil;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new {@link RoutingContext}
+     *
+     * @param primaryUntil the epoch millis until which the reads go to the
+     *                     primary, as received from the client
+     */
+    public RoutingContext(long primaryUntil) {
+        this.received = primaryUntil;
+        this.primaryUntil = primaryUntil;
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the context bound to the current thread, {@code null} outside of a
+     *         request
+     */
+    public static RoutingContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds a context to the current thread
+     *
+     * @param context the context, {@code null} to unbind it
+     */
+    public static void set(RoutingContext context) {
+        if (context == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(context);
+        }
+    }
+
+    /**
+     * Sends the reads to the primary for a while after a write
+     *
+     * @param window how long the reads go to the primary
+     */
+    public void pin(Duration window) {
+        primaryUntil = Math.max(primaryUntil, System.currentTimeMillis() + window.toMillis());
+    }
+
+    /**
+     * @return whether the reads must go to the primary
+     */
+    public boolean isPinned() {
+        return System.currentTimeMillis() < primaryUntil;
+    }
+
+    /**
+     * @return whether the request extended the window received from the client
+     */
+    public boolean isChanged() {
+        return primaryUntil != received;
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the primaryUntil
+     */
+    public long getPrimaryUntil() {
+        return primaryUntil;
+    }
+
+}
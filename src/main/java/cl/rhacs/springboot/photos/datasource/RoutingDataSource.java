@@ -0,0 +1,206 @@
+package cl.rhacs.springboot.photos.datasource;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Sends the connections of read-only transactions to the replicas and
+ * everything else to the primary.
+ * <p>
+ * A read-write transaction pins the reads of its {@link RoutingContext} to the
+ * primary for the read-your-writes window, so a client reads its own writes
+ * while the replicas catch up. The replica is chosen round-robin or by the
+ * fewest active and pending connections.
+ * <p>
+ * The read-only flag of a transaction is set after it begins, so this is a
+ * {@link LazyConnectionDataSourceProxy}: the pool is chosen when the first
+ * statement asks for the connection, not when the transaction begins.
+ * <p>
+ * The pools are not beans, so their metrics are bound here, tagged with the
+ * pool name.
+ */
+public class RoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable, MeterBinder {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    public static final String PRIMARY = "primary";
+
+    public static final List<String> SELECTIONS = List.of("round-robin", "least-loaded");
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final HikariDataSource primary;
+
+    private final List<HikariDataSource> replicas;
+
+    private final boolean leastLoaded;
+
+    private final Duration readYourWrites;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new {@link RoutingDataSource}
+     *
+     * @param primary        the primary pool
+     * @param replicas       the replica pools, their pool names are the lookup
+     *                       keys
+     * @param selection      how to choose a replica: 'round-robin' or
+     *                       'least-loaded'
+     * @param readYourWrites how long the reads of a client go to the primary after
+     *                       it writes
+     * @throws IllegalArgumentException when there are no replicas or the selection
+     *                                  is unknown
+     */
+    public RoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, String selection,
+            Duration readYourWrites) throws IllegalArgumentException {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+
+        if (!SELECTIONS.contains(selection)) {
+            throw new IllegalArgumentException(String.format(
+                    "'%s' is an unknown replica selection. Possible values: %s.", selection, SELECTIONS));
+        }
+
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.leastLoaded = selection.equals("least-loaded");
+        this.readYourWrites = readYourWrites;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.getPoolName(), replica));
+
+        Router router = new Router();
+        router.setTargetDataSources(targets);
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+
+        setTargetDataSource(router);
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the primary
+     */
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * @return the replicas
+     */
+    public List<HikariDataSource> getReplicas() {
+        return replicas;
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Chooses the replica with the fewest active and pending connections, the
+     * first one on a tie
+     *
+     * @return the replica
+     */
+    private HikariDataSource leastLoadedReplica() {
+        HikariDataSource chosen = null;
+        int lowest = Integer.MAX_VALUE;
+
+        for (HikariDataSource replica : replicas) {
+            HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+            int load = (pool == null) ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+
+            if (load < lowest) {
+                chosen = replica;
+                lowest = load;
+            }
+        }
+
+        return chosen;
+    }
+
+    /**
+     * Chooses the pool of a new connection
+     *
+     * @return the lookup key of the pool
+     */
+    private Object determineCurrentLookupKey() {
+        RoutingContext context = RoutingContext.current();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (context != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                context.pin(readYourWrites);
+            }
+
+            return PRIMARY;
+        }
+
+        if (context != null && context.isPinned()) {
+            return PRIMARY;
+        }
+
+        HikariDataSource replica = leastLoaded ? leastLoadedReplica()
+                : replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+
+        return replica.getPoolName();
+    }
+
+    // Router
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Hands out the connections of the pool chosen by the
+     * {@link RoutingDataSource}
+     */
+    private class Router extends AbstractRoutingDataSource {
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return RoutingDataSource.this.determineCurrentLookupKey();
+        }
+
+    }
+
+    // Inheritances (MeterBinder)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        primary.setMetricRegistry(registry);
+        replicas.forEach(replica -> replica.setMetricRegistry(registry));
+    }
+
+    // Inheritances (Closeable)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+
+}
@@ -0,0 +1,79 @@
+package cl.rhacs.springboot.photos.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Replaces the data source with a {@link RoutingDataSource} when
+ * {@code photos.datasource.routing.enabled} is {@code true}.
+ * <p>
+ * The primary pool is configured by the usual {@code spring.datasource}
+ * properties, and every replica by a {@code photos.datasource.routing.replicas}
+ * entry with the properties of a Hikari pool ({@code jdbc-url},
+ * {@code username}, {@code password}, {@code maximum-pool-size}...). Replicas
+ * without a driver use the one of the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "photos.datasource.routing.enabled", havingValue = "true")
+public class RoutingDataSourceConfiguration {
+
+    // Beans
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates the primary and replica pools and the data source that routes
+     * between them, used by the whole application
+     *
+     * @param properties     the properties of the primary
+     * @param environment    the environment holding the replica properties
+     * @param selection      how to choose a replica
+     * @param readYourWrites how long the reads of a client go to the primary after
+     *                       it writes
+     * @return the routing data source
+     * @throws IllegalStateException when no replica is configured
+     */
+    @Bean
+    public RoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+            @Value("${photos.datasource.routing.selection:round-robin}") String selection,
+            @Value("${photos.datasource.routing.read-your-writes:PT5S}") Duration readYourWrites)
+            throws IllegalStateException {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName(RoutingDataSource.PRIMARY);
+
+        List<HikariConfig> configs = binder
+                .bind("photos.datasource.routing.replicas", Bindable.listOf(HikariConfig.class))
+                .orElseThrow(() -> new IllegalStateException("No photos.datasource.routing.replicas configured"));
+        List<HikariDataSource> replicas = new ArrayList<>(configs.size());
+
+        for (int i = 0; i < configs.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            configs.get(i).copyStateTo(replica);
+            replica.setPoolName("replica-" + i);
+
+            if (replica.getDriverClassName() == null) {
+                replica.setDriverClassName(primary.getDriverClassName());
+            }
+
+            replicas.add(replica);
+        }
+
+        return new RoutingDataSource(primary, replicas, selection, readYourWrites);
+    }
+
+}
@@ -1,6 +1,6 @@
 package cl.rhacs.springboot.photos.exceptions;
 
-public class ContentNotFoundException extends RuntimeException {
+public class ContentNotFoundException extends StacklessException {
 
     private static final long serialVersionUID = 8333813258438303148L;
 
@@ -0,0 +1,58 @@
+package cl.rhacs.springboot.photos.exceptions;
+
+public class DuplicateValueException extends StacklessException {
+
+    private static final long serialVersionUID = 1L;
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final String objectName;
+
+    private final String field;
+
+    private final transient Object value;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Constructs a new runtime exception for a value that is already taken by
+     * another record
+     *
+     * @param objectName the type of the record
+     * @param field      the unique field
+     * @param value      the duplicated value
+     */
+    public DuplicateValueException(String objectName, String field, Object value) {
+        super(String.format("The %s '%s' is already in use", field, value));
+        this.objectName = objectName;
+        this.field = field;
+        this.value = value;
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the objectName
+     */
+    public String getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * @return the field
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * @return the value
+     */
+    public Object getValue() {
+        return value;
+    }
+
+}
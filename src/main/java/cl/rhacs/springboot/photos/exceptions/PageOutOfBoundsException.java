@@ -0,0 +1,51 @@
+package cl.rhacs.springboot.photos.exceptions;
+
+/**
+ * Thrown when the requested page is past the last page of a listing
+ */
+public class PageOutOfBoundsException extends IndexOutOfBoundsException {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final long serialVersionUID = 1L;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new {@link PageOutOfBoundsException} with the specified detail
+     * message
+     *
+     * @param message the detail message
+     */
+    public PageOutOfBoundsException(String message) {
+        super(message);
+    }
+
+    /**
+     * Creates a new {@link PageOutOfBoundsException} given the last page of the
+     * listing
+     *
+     * @param maxPage the last page
+     */
+    public PageOutOfBoundsException(int maxPage) {
+        super(String.format("Page value out of bounds, max page = %d", maxPage));
+    }
+
+    // Inheritances (Throwable)
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Skips capturing the stack trace, like a {@link StacklessException}. The
+     * handlers catch it as an {@link IndexOutOfBoundsException}, so it cannot
+     * extend that base
+     *
+     * @return this exception
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+}
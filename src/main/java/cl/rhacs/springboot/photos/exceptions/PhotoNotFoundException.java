@@ -1,6 +1,6 @@
 package cl.rhacs.springboot.photos.exceptions;
 
-public class PhotoNotFoundException extends RuntimeException {
+public class PhotoNotFoundException extends StacklessException {
 
     // Constants
     // -----------------------------------------------------------------------------------------
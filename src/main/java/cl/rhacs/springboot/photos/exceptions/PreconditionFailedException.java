@@ -0,0 +1,52 @@
+package cl.rhacs.springboot.photos.exceptions;
+
+public class PreconditionFailedException extends StacklessException {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final long serialVersionUID = 1L;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new {@link PreconditionFailedException} with {@code null} as its detail
+     * message
+     */
+    public PreconditionFailedException() {
+        super();
+    }
+
+    /**
+     * Creates a new {@link PreconditionFailedException} with the specified detail
+     * message
+     *
+     * @param message the detail message
+     */
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    /**
+     * Creates a new {@link PreconditionFailedException} with the specified cause and the
+     * detail message of {@code (cause == null ? null : cause.toString())}
+     *
+     * @param cause the cause
+     */
+    public PreconditionFailedException(Throwable cause) {
+        super(cause);
+    }
+
+    /**
+     * Creates a new {@link PreconditionFailedException} with the specified cause and the
+     * specified detail message
+     *
+     * @param message the detail message
+     * @param cause   the cause
+     */
+    public PreconditionFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -1,6 +1,6 @@
 package cl.rhacs.springboot.photos.exceptions;
 
-public class SnapperNotFoundException extends RuntimeException {
+public class SnapperNotFoundException extends StacklessException {
 
     private static final long serialVersionUID = 1L;
 
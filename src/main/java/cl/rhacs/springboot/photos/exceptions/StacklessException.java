@@ -0,0 +1,70 @@
+package cl.rhacs.springboot.photos.exceptions;
+
+/**
+ * Base of the exceptions that report an expected outcome, such as a missing
+ * record or a taken value, rather than a failure. They are answered by the
+ * {@code GlobalExceptionHandler} and their stack trace would never be read, so
+ * it is not captured, which makes throwing them about as cheap as returning.
+ */
+public abstract class StacklessException extends RuntimeException {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final long serialVersionUID = 1L;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new {@link StacklessException} with {@code null} as its detail
+     * message
+     */
+    protected StacklessException() {
+        super();
+    }
+
+    /**
+     * Creates a new {@link StacklessException} with the specified detail message
+     *
+     * @param message the detail message
+     */
+    protected StacklessException(String message) {
+        super(message);
+    }
+
+    /**
+     * Creates a new {@link StacklessException} with the specified cause and the
+     * detail message of {@code (cause == null ? null : cause.toString())}
+     *
+     * @param cause the cause
+     */
+    protected StacklessException(Throwable cause) {
+        super(cause);
+    }
+
+    /**
+     * Creates a new {@link StacklessException} with the specified cause and the
+     * specified detail message
+     *
+     * @param message the detail message
+     * @param cause   the cause
+     */
+    protected StacklessException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    // Inheritances (Throwable)
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Skips capturing the stack trace
+     *
+     * @return this exception
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+}
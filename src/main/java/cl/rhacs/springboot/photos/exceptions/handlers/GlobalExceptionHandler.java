@@ -1,9 +1,11 @@
 package cl.rhacs.springboot.photos.exceptions.handlers;
 
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.validation.ConstraintViolationException;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -20,21 +22,76 @@ import org.springframework.web.servlet.NoHandlerFoundException;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import cl.rhacs.springboot.photos.exceptions.ContentNotFoundException;
+import cl.rhacs.springboot.photos.exceptions.DuplicateValueException;
+import cl.rhacs.springboot.photos.exceptions.PhotoNotFoundException;
+import cl.rhacs.springboot.photos.exceptions.PreconditionFailedException;
+import cl.rhacs.springboot.photos.exceptions.SnapperNotFoundException;
 import cl.rhacs.springboot.photos.models.errors.ErrorResponse;
 
 @RestControllerAdvice(basePackages = { "cl.rhacs.springboot.photos" })
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private StaticErrorBodies staticErrorBodies;
+
+    // Handlers
+    // -----------------------------------------------------------------------------------------
+
     /**
      * Handles the {@link ContentNotFoundException} when the repository is empty
      *
      * @param exception ContentNotFoundException
-     * @return ResponseEntity
+     * @return ResponseEntity with the pre-serialized error
      */
     @ExceptionHandler(value = { ContentNotFoundException.class })
     @ResponseStatus(code = HttpStatus.NO_CONTENT)
-    protected ResponseEntity<ErrorResponse> handleContentNotFoundException(ContentNotFoundException exception) {
-        return new ResponseEntity<>(new ErrorResponse(HttpStatus.NO_CONTENT, exception), HttpStatus.NO_CONTENT);
+    protected ResponseEntity<byte[]> handleContentNotFoundException(ContentNotFoundException exception) {
+        return staticErrorBodies.response(HttpStatus.NO_CONTENT, exception.getMessage());
+    }
+
+    /**
+     * Handles the {@link PhotoNotFoundException} and the
+     * {@link SnapperNotFoundException} when the requested id does not exist
+     *
+     * @param exception the exception
+     * @return ResponseEntity with the pre-serialized error
+     */
+    @ExceptionHandler(value = { PhotoNotFoundException.class, SnapperNotFoundException.class })
+    @ResponseStatus(code = HttpStatus.NOT_FOUND)
+    protected ResponseEntity<byte[]> handleNotFoundException(RuntimeException exception) {
+        return staticErrorBodies.response(HttpStatus.NOT_FOUND, exception.getMessage());
+    }
+
+    /**
+     * Handles the {@link DuplicateValueException} when a new record takes a
+     * unique value that is already in use
+     *
+     * @param exception the {@code DuplicateValueException}
+     * @return ResponseEntity with the duplicated field
+     */
+    @ExceptionHandler(value = { DuplicateValueException.class })
+    @ResponseStatus(code = HttpStatus.CONFLICT)
+    protected ResponseEntity<ErrorResponse> handleDuplicateValueException(DuplicateValueException exception) {
+        ErrorResponse response = new ErrorResponse(HttpStatus.CONFLICT, exception);
+        response.addError(exception.getField(), "must be unique", exception.getObjectName(), exception.getValue());
+
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles the {@link PreconditionFailedException} when the {@code If-Match}
+     * header of a conditional update does not match the current version
+     *
+     * @param exception the {@code PreconditionFailedException}
+     * @return ResponseEntity with the pre-serialized error
+     */
+    @ExceptionHandler(value = { PreconditionFailedException.class })
+    @ResponseStatus(code = HttpStatus.PRECONDITION_FAILED)
+    protected ResponseEntity<byte[]> handlePreconditionFailedException(PreconditionFailedException exception) {
+        return staticErrorBodies.response(HttpStatus.PRECONDITION_FAILED, exception.getMessage());
     }
 
     /**
@@ -43,12 +100,12 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
      * of range.
      *
      * @param exception IndexOutOfBoundsException
-     * @return ResponseEntity
+     * @return ResponseEntity with the pre-serialized error
      */
     @ExceptionHandler(value = { IndexOutOfBoundsException.class })
     @ResponseStatus(code = HttpStatus.BAD_REQUEST)
-    protected ResponseEntity<ErrorResponse> handleIndexOutOfBoundsException(IndexOutOfBoundsException exception) {
-        return new ResponseEntity<>(new ErrorResponse(HttpStatus.BAD_REQUEST, exception), HttpStatus.BAD_REQUEST);
+    protected ResponseEntity<byte[]> handleIndexOutOfBoundsException(IndexOutOfBoundsException exception) {
+        return staticErrorBodies.response(HttpStatus.BAD_REQUEST, exception.getMessage());
     }
 
     /**
@@ -96,6 +153,24 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(response, new HttpHeaders(), response.getHttpStatus());
     }
 
+    /**
+     * Handles the {@link RejectedExecutionException} thrown when the executor of
+     * the database work is saturated. The client is asked to retry later instead
+     * of queueing behind the requests already waiting.
+     *
+     * @param exception the {@code RejectedExecutionException}
+     * @return a {@code ResponseEntity} with a {@code Retry-After} header
+     */
+    @ExceptionHandler(value = { RejectedExecutionException.class })
+    @ResponseStatus(code = HttpStatus.SERVICE_UNAVAILABLE)
+    protected ResponseEntity<byte[]> handleRejectedExecutionException(RejectedExecutionException exception) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+
+        return staticErrorBodies.response(HttpStatus.SERVICE_UNAVAILABLE, "The server is busy, please try again later",
+                headers);
+    }
+
     // Inheritances (ResponseEntityExceptionHandler)
     // -----------------------------------------------------------------------------------------
 
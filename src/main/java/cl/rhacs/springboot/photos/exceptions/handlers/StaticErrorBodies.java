@@ -0,0 +1,215 @@
+package cl.rhacs.springboot.photos.exceptions.handlers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import cl.rhacs.springboot.photos.models.errors.ErrorResponse;
+
+/**
+ * Pre-serialized {@link ErrorResponse}s without detailed errors.
+ * <p>
+ * The body of every status is serialized once, split around its timestamp and
+ * its message, and reused: answering an error only formats the current
+ * timestamp, escapes the message and copies the bytes. Nothing is kept per
+ * message, so the messages that embed a value, such as the id of a photo that
+ * is not found, cost the same as the fixed ones.
+ */
+@Component
+public class StaticErrorBodies {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Stands for the message while the template of a status is serialized
+     */
+    private static final String MESSAGE_PLACEHOLDER = "\u0000message\u0000";
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<HttpStatus, Template> templates = new ConcurrentHashMap<>();
+
+    private volatile Timestamp timestamp;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Serializes the first timestamp once the object mapper is injected
+     */
+    @PostConstruct
+    public void initialize() {
+        timestamp = new Timestamp(0L, serialize(new Date(0L)));
+    }
+
+    /**
+     * Answers an error with the pre-serialized body of its status and message
+     *
+     * @param status  the Http Status
+     * @param message the detail message
+     * @return a {@code ResponseEntity} with the serialized {@link ErrorResponse}
+     */
+    public ResponseEntity<byte[]> response(HttpStatus status, String message) {
+        return response(status, message, new HttpHeaders());
+    }
+
+    /**
+     * Answers an error with the pre-serialized body of its status and message
+     *
+     * @param status  the Http Status
+     * @param message the detail message
+     * @param headers the headers of the response
+     * @return a {@code ResponseEntity} with the serialized {@link ErrorResponse}
+     */
+    public ResponseEntity<byte[]> response(HttpStatus status, String message, HttpHeaders headers) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new ResponseEntity<>(render(status, message), headers, status);
+    }
+
+    /**
+     * Serializes an {@link ErrorResponse} with the given status and message
+     *
+     * @param status  the Http Status
+     * @param message the detail message
+     * @return the serialized error
+     */
+    public byte[] render(HttpStatus status, String message) {
+        Template template = templates.computeIfAbsent(status, this::template);
+        byte[] now = now();
+        byte[] text = serialize(message);
+
+        return template.timestampFirst ? concat(template.head, now, template.middle, text, template.tail)
+                : concat(template.head, text, template.middle, now, template.tail);
+    }
+
+    /**
+     * Serializes an {@link ErrorResponse} of a status and splits it around its
+     * timestamp and its message
+     *
+     * @param status the Http Status
+     * @return the template
+     */
+    private Template template(HttpStatus status) {
+        ErrorResponse response = new ErrorResponse(status);
+        response.setMessage(MESSAGE_PLACEHOLDER);
+
+        String body = new String(serialize(response), StandardCharsets.UTF_8);
+        String date = new String(serialize(response.getTimestamp()), StandardCharsets.UTF_8);
+        String message = new String(serialize(MESSAGE_PLACEHOLDER), StandardCharsets.UTF_8);
+        int dateStart = body.indexOf(date);
+        int messageStart = body.indexOf(message);
+        boolean timestampFirst = dateStart < messageStart;
+        int firstStart = Math.min(dateStart, messageStart);
+        int firstEnd = firstStart + (timestampFirst ? date : message).length();
+        int secondStart = Math.max(dateStart, messageStart);
+        int secondEnd = secondStart + (timestampFirst ? message : date).length();
+
+        return new Template(timestampFirst, body.substring(0, firstStart).getBytes(StandardCharsets.UTF_8),
+                body.substring(firstEnd, secondStart).getBytes(StandardCharsets.UTF_8),
+                body.substring(secondEnd).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+
+        byte[] body = new byte[length];
+        int position = 0;
+
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, body, position, part.length);
+            position += part.length;
+        }
+
+        return body;
+    }
+
+    /**
+     * Retrieves the serialized current timestamp, formatting it at most once per
+     * millisecond
+     *
+     * @return the serialized timestamp
+     */
+    private byte[] now() {
+        long millis = System.currentTimeMillis();
+        Timestamp current = timestamp;
+
+        if (current.millis != millis) {
+            current = new Timestamp(millis, serialize(new Date(millis)));
+            timestamp = current;
+        }
+
+        return current.bytes;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Templates
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * The bytes of a serialized error around its timestamp and its message
+     */
+    private static class Template {
+
+        private final boolean timestampFirst;
+
+        private final byte[] head;
+
+        private final byte[] middle;
+
+        private final byte[] tail;
+
+        private Template(boolean timestampFirst, byte[] head, byte[] middle, byte[] tail) {
+            this.timestampFirst = timestampFirst;
+            this.head = head;
+            this.middle = middle;
+            this.tail = tail;
+        }
+
+    }
+
+    /**
+     * A serialized timestamp and the millisecond it represents
+     */
+    private static class Timestamp {
+
+        private final long millis;
+
+        private final byte[] bytes;
+
+        private Timestamp(long millis, byte[] bytes) {
+            this.millis = millis;
+            this.bytes = bytes;
+        }
+
+    }
+
+}
@@ -0,0 +1,83 @@
+package cl.rhacs.springboot.photos.export;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Gives the streamed exports their own async timeout.
+ * <p>
+ * Every other handler answers with a future of the {@code JdbcExecutor} and
+ * keeps the finite {@code spring.mvc.async.request-timeout}, so a stalled query
+ * does not hold its request forever. An export of the whole table legitimately
+ * takes longer, so the handlers that return a {@link StreamingResponseBody}
+ * get {@code photos.export.timeout} instead, right before their request goes
+ * async.
+ */
+@Configuration
+public class ExportTimeoutConfiguration implements WebMvcConfigurer, CallableProcessingInterceptor {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * The timeout in milliseconds, {@code -1} for none
+     */
+    @Value("${photos.export.timeout:-1}")
+    private long timeout;
+
+    // Inheritances (WebMvcConfigurer)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(this);
+    }
+
+    // Inheritances (CallableProcessingInterceptor)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+
+        if (request instanceof AsyncWebRequest && handler instanceof HandlerMethod
+                && streams((HandlerMethod) handler)) {
+            ((AsyncWebRequest) request).setTimeout(timeout);
+        }
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Checks if a handler returns a {@link StreamingResponseBody}, bare or in a
+     * {@link ResponseEntity}
+     *
+     * @param handler the handler
+     * @return whether the handler streams its response
+     */
+    private static boolean streams(HandlerMethod handler) {
+        ResolvableType type = ResolvableType.forMethodReturnType(handler.getMethod());
+
+        if (ResponseEntity.class.equals(type.resolve())) {
+            type = type.getGeneric(0);
+        }
+
+        return StreamingResponseBody.class.isAssignableFrom(type.toClass());
+    }
+
+}
@@ -0,0 +1,83 @@
+package cl.rhacs.springboot.photos.metrics;
+
+import java.util.List;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+import cl.rhacs.springboot.photos.repositories.SnapperRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every method of the {@link PhotoRepository} and the
+ * {@link SnapperRepository}, including the ones inherited from Spring Data, as
+ * {@code photos.repository.invocations} tagged with the repository, the method
+ * and the exception thrown, if any
+ */
+@Aspect
+@Component
+public class RepositoryMetrics {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final List<Class<?>> REPOSITORIES = List.of(PhotoRepository.class, SnapperRepository.class);
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private MeterRegistry registry;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Times a repository method
+     *
+     * @param joinPoint the invocation
+     * @return the result of the method
+     * @throws Throwable the exception thrown by the method
+     */
+    @Around("this(cl.rhacs.springboot.photos.repositories.PhotoRepository) "
+            + "|| this(cl.rhacs.springboot.photos.repositories.SnapperRepository)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("photos.repository.invocations")
+                    .description("Time spent on the repository methods")
+                    .tags("repository", repository(joinPoint.getThis()), "method",
+                            joinPoint.getSignature().getName(), "exception", exception)
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Finds the name of the repository behind a proxy
+     *
+     * @param proxy the repository proxy
+     * @return the simple name of the repository interface
+     */
+    private String repository(Object proxy) {
+        for (Class<?> repository : REPOSITORIES) {
+            if (repository.isInstance(proxy)) {
+                return repository.getSimpleName();
+            }
+        }
+
+        return "unknown";
+    }
+
+}
@@ -0,0 +1,141 @@
+package cl.rhacs.springboot.photos.models;
+
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import cl.rhacs.springboot.photos.models.errors.DetailedError;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class BatchItemResult {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    public static final String CREATED = "created";
+
+    public static final String INVALID = "invalid";
+
+    public static final String FAILED = "failed";
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private int index;
+
+    private String status;
+
+    private Long id;
+
+    private String message;
+
+    private Set<DetailedError> errors;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new and empty {@link BatchItemResult}
+     */
+    public BatchItemResult() {
+
+    }
+
+    /**
+     * Creates a new {@link BatchItemResult} given the position of the item on the
+     * batch and its status
+     *
+     * @param index  the position of the item on the batch
+     * @param status the status of the item
+     */
+    public BatchItemResult(int index, String status) {
+        this.index = index;
+        this.status = status;
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the index
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the status
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the id
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return the errors
+     */
+    public Set<DetailedError> getErrors() {
+        return errors;
+    }
+
+    // Setters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @param index the index to set
+     */
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * @param status the status to set
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * @param id the id to set
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * @param message the message to set
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * @param errors the errors to set
+     */
+    public void setErrors(Set<DetailedError> errors) {
+        this.errors = errors;
+    }
+
+    // Inheritances (Object)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "BatchItemResult [index=" + index + ", status=" + status + ", id=" + id + ", message=" + message
+                + ", errors=" + errors + "]";
+    }
+
+}
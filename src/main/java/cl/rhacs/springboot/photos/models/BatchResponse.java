@@ -0,0 +1,93 @@
+package cl.rhacs.springboot.photos.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchResponse {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private int created;
+
+    private int invalid;
+
+    private int failed;
+
+    private List<BatchItemResult> results;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new and empty {@link BatchResponse}
+     */
+    public BatchResponse() {
+        results = new ArrayList<>();
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Adds the result of an item and updates the counters
+     *
+     * @param result the item result
+     */
+    public void addResult(BatchItemResult result) {
+        results.add(result);
+
+        switch (result.getStatus()) {
+            case BatchItemResult.CREATED:
+                created++;
+                break;
+            case BatchItemResult.INVALID:
+                invalid++;
+                break;
+            default:
+                failed++;
+                break;
+        }
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the created
+     */
+    public int getCreated() {
+        return created;
+    }
+
+    /**
+     * @return the invalid
+     */
+    public int getInvalid() {
+        return invalid;
+    }
+
+    /**
+     * @return the failed
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return the results
+     */
+    public List<BatchItemResult> getResults() {
+        return results;
+    }
+
+    // Inheritances (Object)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "BatchResponse [created=" + created + ", invalid=" + invalid + ", failed=" + failed + ", results="
+                + results + "]";
+    }
+
+}
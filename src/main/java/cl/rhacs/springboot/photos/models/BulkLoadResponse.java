@@ -0,0 +1,157 @@
+package cl.rhacs.springboot.photos.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class BulkLoadResponse {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Only the first errors are reported, a bad file would otherwise answer with
+     * one message per row
+     */
+    public static final int MAX_ERRORS = 100;
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private String table;
+
+    private long loaded;
+
+    private long rejected;
+
+    private long failed;
+
+    private long millis;
+
+    private long rowsPerSecond;
+
+    private List<String> errors;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new and empty {@link BulkLoadResponse}
+     */
+    public BulkLoadResponse() {
+        errors = new ArrayList<>();
+    }
+
+    /**
+     * Creates a new {@link BulkLoadResponse}
+     *
+     * @param table the name of the loaded table
+     */
+    public BulkLoadResponse(String table) {
+        this();
+        this.table = table;
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Adds an error, unless {@value #MAX_ERRORS} were already added
+     *
+     * @param error the error
+     */
+    public synchronized void addError(String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    /**
+     * Sets the time the load took and computes its throughput
+     *
+     * @param millis the milliseconds
+     */
+    public void finish(long millis) {
+        this.millis = millis;
+        this.rowsPerSecond = loaded * 1000 / Math.max(1, millis);
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the table
+     */
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * @return the loaded rows
+     */
+    public long getLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @return the rows rejected before reaching the database
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return the rows of the chunks the database refused
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return the millis
+     */
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * @return the rows per second
+     */
+    public long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    /**
+     * @return the errors
+     */
+    public synchronized List<String> getErrors() {
+        return errors;
+    }
+
+    // Setters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @param loaded the loaded rows to set
+     */
+    public void setLoaded(long loaded) {
+        this.loaded = loaded;
+    }
+
+    /**
+     * @param rejected the rejected rows to set
+     */
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * @param failed the failed rows to set
+     */
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+}
@@ -0,0 +1,135 @@
+package cl.rhacs.springboot.photos.models;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a keyset paginated listing: the sorting used and the sort key and
+ * id of the last element seen by the client. It travels as an opaque url-safe
+ * token.
+ */
+public class Cursor {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final String SEPARATOR = "|";
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final String sortBy;
+
+    private final String sortOrder;
+
+    private final String key;
+
+    private final Long id;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new {@link Cursor} given the sorting and the last seen element
+     *
+     * @param sortBy    the sorting field
+     * @param sortOrder the sorting order
+     * @param key       the sort key of the last element
+     * @param id        the id of the last element
+     */
+    public Cursor(String sortBy, String sortOrder, String key, Long id) {
+        this.sortBy = sortBy;
+        this.sortOrder = sortOrder;
+        this.key = key;
+        this.id = id;
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Encodes the cursor as an opaque token
+     *
+     * @return the token
+     */
+    public String encode() {
+        String raw = String.join(SEPARATOR, sortBy, sortOrder, key, String.valueOf(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token created by {@link #encode()}
+     *
+     * @param token the token
+     * @return the cursor
+     * @throws IllegalArgumentException when the token is malformed
+     */
+    public static Cursor decode(String token) throws IllegalArgumentException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+
+            if (parts.length != 4) {
+                throw new IllegalArgumentException();
+            }
+
+            return new Cursor(parts[0], parts[1], parts[2], Long.valueOf(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("'%s' is not a valid cursor", token));
+        }
+    }
+
+    /**
+     * Checks that the cursor was created for the specified sorting
+     *
+     * @param sortBy    the sorting field
+     * @param sortOrder the sorting order
+     * @throws IllegalArgumentException when the sorting does not match
+     */
+    public void verify(String sortBy, String sortOrder) throws IllegalArgumentException {
+        if (!this.sortBy.equals(sortBy) || !this.sortOrder.equals(sortOrder)) {
+            throw new IllegalArgumentException(String.format(
+                    "The cursor was created for sortBy=%s and sortOrder=%s", this.sortBy, this.sortOrder));
+        }
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the sortBy
+     */
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    /**
+     * @return the sortOrder
+     */
+    public String getSortOrder() {
+        return sortOrder;
+    }
+
+    /**
+     * @return the key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the id
+     */
+    public Long getId() {
+        return id;
+    }
+
+    // Inheritances (Object)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "Cursor [sortBy=" + sortBy + ", sortOrder=" + sortOrder + ", key=" + key + ", id=" + id + "]";
+    }
+
+}
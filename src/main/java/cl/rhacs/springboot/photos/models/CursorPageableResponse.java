@@ -0,0 +1,112 @@
+package cl.rhacs.springboot.photos.models;
+
+public class CursorPageableResponse {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private int items;
+
+    private boolean hasNext;
+
+    private String next;
+
+    private Object elements;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new and empty {@link CursorPageableResponse}
+     */
+    public CursorPageableResponse() {
+
+    }
+
+    /**
+     * Creates a new {@link CursorPageableResponse} given the number of items
+     * displayed, the token of the next page and the objects themselves
+     *
+     * @param items    the number of items on the page
+     * @param next     the token of the next page, {@code null} on the last page
+     * @param elements the elements
+     */
+    public CursorPageableResponse(int items, String next, Object elements) {
+        this.items = items;
+        this.hasNext = next != null;
+        this.next = next;
+        this.elements = elements;
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the items
+     */
+    public int getItems() {
+        return items;
+    }
+
+    /**
+     * @return the hasNext
+     */
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    /**
+     * @return the next
+     */
+    public String getNext() {
+        return next;
+    }
+
+    /**
+     * @return the elements
+     */
+    public Object getElements() {
+        return elements;
+    }
+
+    // Setters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @param items the items to set
+     */
+    public void setItems(int items) {
+        this.items = items;
+    }
+
+    /**
+     * @param hasNext the hasNext to set
+     */
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    /**
+     * @param next the next to set
+     */
+    public void setNext(String next) {
+        this.next = next;
+    }
+
+    /**
+     * @param elements the elements to set
+     */
+    public void setElements(Object elements) {
+        this.elements = elements;
+    }
+
+    // Inheritances (Object)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "CursorPageableResponse [items=" + items + ", hasNext=" + hasNext + ", next=" + next + ", elements="
+                + elements + "]";
+    }
+
+}
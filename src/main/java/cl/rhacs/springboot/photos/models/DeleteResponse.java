@@ -0,0 +1,81 @@
+package cl.rhacs.springboot.photos.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DeleteResponse {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private Integer requested;
+
+    private long deleted;
+
+    private int chunks;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new and empty {@link DeleteResponse}
+     */
+    public DeleteResponse() {
+
+    }
+
+    /**
+     * Creates a new {@link DeleteResponse} for the specified records
+     *
+     * @param requested the number of records asked to be deleted
+     */
+    public DeleteResponse(int requested) {
+        this.requested = requested;
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Adds the records deleted by a chunk
+     *
+     * @param count the deleted records
+     */
+    public void addChunk(int count) {
+        deleted += count;
+        chunks++;
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the requested records, {@code null} when deleting by a condition
+     */
+    public Integer getRequested() {
+        return requested;
+    }
+
+    /**
+     * @return the deleted records
+     */
+    public long getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * @return the requested records that did not exist, {@code null} when
+     *         deleting by a condition
+     */
+    public Long getNotFound() {
+        return (requested == null) ? null : requested - deleted;
+    }
+
+    /**
+     * @return the transactions the records were deleted on
+     */
+    public int getChunks() {
+        return chunks;
+    }
+
+}
@@ -1,5 +1,8 @@
 package cl.rhacs.springboot.photos.models;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PageableResponse {
 
     // Attributes
@@ -7,11 +10,15 @@ public class PageableResponse {
 
     private int page;
 
-    private int totalPages;
+    private Integer totalPages;
 
     private int items;
 
-    private long totalItems;
+    private Long totalItems;
+
+    private boolean hasNext;
+
+    private Boolean approximate;
 
     private Object elements;
 
@@ -40,7 +47,25 @@ public class PageableResponse {
         this.page = page;
         this.totalPages = totalPages;
         this.items = items;
-        this.totalItems = items;
+        this.totalItems = totalItems;
+        this.hasNext = page < totalPages - 1;
+        this.elements = elements;
+    }
+
+    /**
+     * Creates a new {@link PageableResponse} without totals given the current
+     * page, the number of items displayed on the page, whether there is a next
+     * page and the objects themselves
+     *
+     * @param page     the current page
+     * @param items    the number of items on the page
+     * @param hasNext  whether there is a next page
+     * @param elements the elements
+     */
+    public PageableResponse(int page, int items, boolean hasNext, Object elements) {
+        this.page = page;
+        this.items = items;
+        this.hasNext = hasNext;
         this.elements = elements;
     }
 
@@ -57,7 +82,7 @@ public class PageableResponse {
     /**
      * @return the totalPages
      */
-    public int getTotalPages() {
+    public Integer getTotalPages() {
         return totalPages;
     }
 
@@ -71,10 +96,24 @@ public class PageableResponse {
     /**
      * @return the totalItems
      */
-    public long getTotalItems() {
+    public Long getTotalItems() {
         return totalItems;
     }
 
+    /**
+     * @return the hasNext
+     */
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    /**
+     * @return whether the totals are an approximation
+     */
+    public Boolean getApproximate() {
+        return approximate;
+    }
+
     /**
      * @return the elements
      */
@@ -95,7 +134,7 @@ public class PageableResponse {
     /**
      * @param totalPages the totalPages to set
      */
-    public void setTotalPages(int totalPages) {
+    public void setTotalPages(Integer totalPages) {
         this.totalPages = totalPages;
     }
 
@@ -109,10 +148,24 @@ public class PageableResponse {
     /**
      * @param totalItems the totalItems to set
      */
-    public void setTotalItems(long totalItems) {
+    public void setTotalItems(Long totalItems) {
         this.totalItems = totalItems;
     }
 
+    /**
+     * @param hasNext the hasNext to set
+     */
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    /**
+     * @param approximate the approximate to set
+     */
+    public void setApproximate(Boolean approximate) {
+        this.approximate = approximate;
+    }
+
     /**
      * @param elements the elements to set
      */
@@ -126,7 +179,8 @@ public class PageableResponse {
     @Override
     public String toString() {
         return "PageableResponse [page=" + page + ", totalPages=" + totalPages + ", items=" + items + ", totalItems="
-                + totalItems + ", elements=" + elements + "]";
+                + totalItems + ", hasNext=" + hasNext + ", approximate=" + approximate + ", elements=" + elements
+                + "]";
     }
 
 }
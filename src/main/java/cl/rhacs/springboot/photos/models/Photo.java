@@ -9,6 +9,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
@@ -20,19 +21,29 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.id.enhanced.TableGenerator;
 import org.hibernate.validator.constraints.URL;
 
 @Entity
-@Table(name = "photos")
-public class Photo {
+@Table(name = "photos", indexes = { @Index(name = "idx_photos_created_at", columnList = "created_at, photo_id"),
+        @Index(name = "idx_photos_views", columnList = "views, photo_id"),
+        @Index(name = "idx_photos_snapper_views", columnList = "snapper_id, views, photo_id") })
+public class Photo implements PhotoVersion {
 
     // Attributes
     // -----------------------------------------------------------------------------------------
 
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "photos_generator")
+    @GenericGenerator(name = "photos_generator", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+            @Parameter(name = TableGenerator.TABLE_PARAM, value = "id_generators"),
+            @Parameter(name = TableGenerator.SEGMENT_VALUE_PARAM, value = "photos"),
+            @Parameter(name = TableGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = TableGenerator.OPT_PARAM, value = "pooled-lo") })
     @Column(name = "photo_id")
     private Long photoId;
 
@@ -51,14 +62,21 @@ public class Photo {
     @Column(name = "url", nullable = false, unique = true, updatable = false)
     private String url;
 
+    /**
+     * Only written by the increments of the {@code ViewCounterService}, an update
+     * of the entity would overwrite the views flushed since it was read
+     */
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
-    @Column(columnDefinition = "bigint default 0", name = "views")
+    @Column(columnDefinition = "bigint default 0", name = "views", updatable = false)
     private Long views;
 
+    @Column(name = "snapper_id", nullable = false, updatable = false)
+    private Long snapperId;
+
     @JsonIgnore
     @ManyToOne(cascade = { CascadeType.MERGE, CascadeType.PERSIST,
             CascadeType.REFRESH }, fetch = FetchType.LAZY, targetEntity = Snapper.class)
-    @JoinColumn(name = "snapper_id", nullable = false, updatable = false)
+    @JoinColumn(name = "snapper_id", insertable = false, updatable = false)
     private Snapper snapper;
 
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
@@ -95,12 +113,28 @@ public class Photo {
         this.url = url;
     }
 
+    /**
+     * Creates a detached snapshot of the given {@link Photo}, without its
+     * {@link Snapper}
+     *
+     * @param photo the photo to copy
+     */
+    public Photo(final Photo photo) {
+        this(photo.title, photo.description, photo.url);
+        this.photoId = photo.photoId;
+        this.snapperId = photo.snapperId;
+        this.views = photo.views;
+        this.createdAt = photo.createdAt;
+        this.updatedAt = photo.updatedAt;
+    }
+
     // Getters
     // -----------------------------------------------------------------------------------------
 
     /**
      * @return the photoId
      */
+    @Override
     public Long getPhotoId() {
         return photoId;
     }
@@ -129,13 +163,22 @@ public class Photo {
     /**
      * @return the views
      */
+    @Override
     public Long getViews() {
         return views;
     }
 
+    /**
+     * @return the snapperId
+     */
+    public Long getSnapperId() {
+        return snapperId;
+    }
+
     /**
      * @return the snapper
      */
+    @JsonIgnore
     public Snapper getUser() {
         return snapper;
     }
@@ -143,6 +186,7 @@ public class Photo {
     /**
      * @return the createdAt
      */
+    @Override
     public Date getCreatedAt() {
         return createdAt;
     }
@@ -150,6 +194,7 @@ public class Photo {
     /**
      * @return the updatedAt
      */
+    @Override
     public Date getUpdatedAt() {
         return updatedAt;
     }
@@ -185,6 +230,20 @@ public class Photo {
         this.views = views;
     }
 
+    /**
+     * @param snapperId the snapperId to set
+     */
+    public void setSnapperId(final Long snapperId) {
+        this.snapperId = snapperId;
+    }
+
+    /**
+     * @param updatedAt the updatedAt to set
+     */
+    public void setUpdatedAt(final Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     // Inheritances (Object)
     // -----------------------------------------------------------------------------------------
 
@@ -230,7 +289,8 @@ public class Photo {
     @Override
     public String toString() {
         return "Photo [photoId=" + photoId + ", title=" + title + ", description=" + description + ", url=" + url
-                + ", views=" + views + ", createdAt=" + createdAt + ", updatedAt=" + updatedAt + "]";
+                + ", views=" + views + ", snapperId=" + snapperId + ", createdAt=" + createdAt + ", updatedAt="
+                + updatedAt + "]";
     }
 
 }
@@ -0,0 +1,18 @@
+package cl.rhacs.springboot.photos.models;
+
+/**
+ * Number of {@link Photo}s of a {@link Snapper}, counted by the database
+ */
+public interface PhotoCount {
+
+    /**
+     * @return the snapperId
+     */
+    public Long getSnapperId();
+
+    /**
+     * @return the photoCount
+     */
+    public Long getPhotoCount();
+
+}
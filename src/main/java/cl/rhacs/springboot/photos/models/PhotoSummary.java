@@ -0,0 +1,141 @@
+package cl.rhacs.springboot.photos.models;
+
+import java.util.Date;
+
+/**
+ * Lightweight read-only view of a {@link Photo} used by the listings. It leaves
+ * out the description and is never managed by the persistence context.
+ */
+public class PhotoSummary implements PhotoVersion {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final Long photoId;
+
+    private final String title;
+
+    private final String url;
+
+    private final Long views;
+
+    private final Long snapperId;
+
+    private final Date createdAt;
+
+    private final Date updatedAt;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new {@link PhotoSummary}
+     *
+     * @param photoId   the photo id
+     * @param title     the title
+     * @param url       the url of the image
+     * @param views     the views
+     * @param snapperId the id of the snapper
+     * @param createdAt the creation date
+     * @param updatedAt the last update date
+     */
+    public PhotoSummary(Long photoId, String title, String url, Long views, Long snapperId, Date createdAt,
+            Date updatedAt) {
+        this.photoId = photoId;
+        this.title = title;
+        this.url = url;
+        this.views = views;
+        this.snapperId = snapperId;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Creates the {@link PhotoSummary} of a {@link Photo}
+     *
+     * @param photo the photo
+     */
+    public PhotoSummary(Photo photo) {
+        this(photo.getPhotoId(), photo.getTitle(), photo.getUrl(), photo.getViews(), photo.getSnapperId(),
+                photo.getCreatedAt(), photo.getUpdatedAt());
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a copy of the summary with other views
+     *
+     * @param views the views of the copy
+     * @return the copy
+     */
+    public PhotoSummary withViews(Long views) {
+        return new PhotoSummary(photoId, title, url, views, snapperId, createdAt, updatedAt);
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the photoId
+     */
+    @Override
+    public Long getPhotoId() {
+        return photoId;
+    }
+
+    /**
+     * @return the title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * @return the url
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return the views
+     */
+    @Override
+    public Long getViews() {
+        return views;
+    }
+
+    /**
+     * @return the snapperId
+     */
+    public Long getSnapperId() {
+        return snapperId;
+    }
+
+    /**
+     * @return the createdAt
+     */
+    @Override
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return the updatedAt
+     */
+    @Override
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    // Inheritances (Object)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "PhotoSummary [photoId=" + photoId + ", title=" + title + ", url=" + url + ", views=" + views
+                + ", snapperId=" + snapperId + ", createdAt=" + createdAt + ", updatedAt=" + updatedAt + "]";
+    }
+
+}
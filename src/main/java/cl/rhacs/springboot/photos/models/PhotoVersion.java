@@ -0,0 +1,31 @@
+package cl.rhacs.springboot.photos.models;
+
+import java.util.Date;
+
+/**
+ * Identity, sort keys and version of a {@link Photo}, enough to build cursors
+ * and derive HTTP validators without reading the whole row
+ */
+public interface PhotoVersion {
+
+    /**
+     * @return the photoId
+     */
+    public Long getPhotoId();
+
+    /**
+     * @return the views
+     */
+    public Long getViews();
+
+    /**
+     * @return the createdAt
+     */
+    public Date getCreatedAt();
+
+    /**
+     * @return the updatedAt
+     */
+    public Date getUpdatedAt();
+
+}
@@ -0,0 +1,54 @@
+package cl.rhacs.springboot.photos.models;
+
+/**
+ * A photo that matches a full-text search, with its relevance
+ */
+public class SearchHit {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final float score;
+
+    private final PhotoSummary photo;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new {@link SearchHit}
+     *
+     * @param score the relevance of the photo, higher is better
+     * @param photo the photo
+     */
+    public SearchHit(float score, PhotoSummary photo) {
+        this.score = score;
+        this.photo = photo;
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the score
+     */
+    public float getScore() {
+        return score;
+    }
+
+    /**
+     * @return the photo
+     */
+    public PhotoSummary getPhoto() {
+        return photo;
+    }
+
+    // Inheritances (Object)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "SearchHit [score=" + score + ", photo=" + photo + "]";
+    }
+
+}
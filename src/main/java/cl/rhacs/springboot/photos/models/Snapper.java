@@ -3,6 +3,7 @@ package cl.rhacs.springboot.photos.models;
 import java.util.Date;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -21,10 +22,30 @@ import javax.validation.constraints.Size;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+/**
+ * A user that uploads {@link Photo}s.
+ * <p>
+ * Snappers are kept on the {@value #CACHE_REGION} second-level cache region.
+ * Changes made through the persistence context keep the region up to date;
+ * bulk or native updates of the {@code snappers} table must evict it.
+ */
 @Entity
 @Table(name = "snappers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Snapper.CACHE_REGION)
 public class Snapper {
 
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Second-level cache region of the snappers
+     */
+    public static final String CACHE_REGION = "snappers";
+
     // Attributes
     // -----------------------------------------------------------------------------------------
 
@@ -174,7 +195,7 @@ public class Snapper {
     @Override
     public String toString() {
         return "Snapper [snapperId= " + snapperId + ", username=" + username + ", email=" + email + ", biography="
-                + biography + ", photos=" + photos + ", createdAt=" + createdAt + ", updatedAt=" + updatedAt + "]";
+                + biography + ", createdAt=" + createdAt + ", updatedAt=" + updatedAt + "]";
     }
 
 }
@@ -0,0 +1,117 @@
+package cl.rhacs.springboot.photos.models;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Lightweight read-only view of a {@link Snapper} used by the listings. It
+ * leaves out the password and the biography and is never managed by the
+ * persistence context.
+ * <p>
+ * The number of photos is only filled, and serialized, when the listing is
+ * asked to include it.
+ */
+public class SnapperSummary {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final Long snapperId;
+
+    private final String username;
+
+    private final String email;
+
+    private final Date createdAt;
+
+    private final Date updatedAt;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long photoCount;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new {@link SnapperSummary}
+     *
+     * @param snapperId the snapper id
+     * @param username  the username
+     * @param email     the email address
+     * @param createdAt the creation date
+     * @param updatedAt the last update date
+     */
+    public SnapperSummary(Long snapperId, String username, String email, Date createdAt, Date updatedAt) {
+        this.snapperId = snapperId;
+        this.username = username;
+        this.email = email;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the snapperId
+     */
+    public Long getSnapperId() {
+        return snapperId;
+    }
+
+    /**
+     * @return the username
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @return the email
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * @return the createdAt
+     */
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return the updatedAt
+     */
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * @return the photoCount, {@code null} when it was not requested
+     */
+    public Long getPhotoCount() {
+        return photoCount;
+    }
+
+    // Setters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @param photoCount the photoCount to set
+     */
+    public void setPhotoCount(Long photoCount) {
+        this.photoCount = photoCount;
+    }
+
+    // Inheritances (Object)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "SnapperSummary [snapperId=" + snapperId + ", username=" + username + ", email=" + email
+                + ", createdAt=" + createdAt + ", updatedAt=" + updatedAt + ", photoCount=" + photoCount + "]";
+    }
+
+}
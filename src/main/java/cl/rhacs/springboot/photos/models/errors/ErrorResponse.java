@@ -1,5 +1,6 @@
 package cl.rhacs.springboot.photos.models.errors;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
@@ -29,12 +30,12 @@ public class ErrorResponse {
     // -----------------------------------------------------------------------------------------
 
     /**
-     * Creates a new {@link ErrorResponse} with the timestamp initialized
+     * Creates a new {@link ErrorResponse} with the timestamp initialized. The
+     * detailed errors are allocated when the first one is added
      */
     public ErrorResponse() {
         timestamp = new Date();
         message = "Unknown error";
-        detailedErrors = new HashSet<>();
     }
 
     /**
@@ -72,7 +73,7 @@ public class ErrorResponse {
      * @param message the detail message
      */
     public void addError(String field, String message) {
-        detailedErrors.add(new DetailedError(field, message));
+        errors().add(new DetailedError(field, message));
     }
 
     /**
@@ -85,7 +86,7 @@ public class ErrorResponse {
      * @param rejectedValue the rejected value
      */
     public void addError(String field, String message, String objectName, Object rejectedValue) {
-        detailedErrors.add(new DetailedError(field, message, objectName, rejectedValue));
+        errors().add(new DetailedError(field, message, objectName, rejectedValue));
     }
 
     /**
@@ -119,6 +120,19 @@ public class ErrorResponse {
                 violation.getInvalidValue());
     }
 
+    /**
+     * Retrieves the error list, allocating it on the first error
+     *
+     * @return the error list
+     */
+    private Set<DetailedError> errors() {
+        if (detailedErrors == null) {
+            detailedErrors = new HashSet<>();
+        }
+
+        return detailedErrors;
+    }
+
     // Getters
     // -----------------------------------------------------------------------------------------
 
@@ -154,7 +168,7 @@ public class ErrorResponse {
      * @return the detailedErrors
      */
     public Set<DetailedError> getDetailedErrors() {
-        return detailedErrors;
+        return (detailedErrors == null) ? Collections.emptySet() : detailedErrors;
     }
 
     // Setters
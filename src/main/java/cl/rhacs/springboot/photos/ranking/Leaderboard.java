@@ -0,0 +1,187 @@
+package cl.rhacs.springboot.photos.ranking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import cl.rhacs.springboot.photos.models.PhotoSummary;
+
+/**
+ * The most viewed photos of a scope, ordered by views and then by id, bounded
+ * to a fixed capacity.
+ * <p>
+ * Photos are offered with their absolute views and enter the board when it has
+ * room or they beat the last one, which is then evicted. Since views only grow,
+ * an evicted photo gets back in as soon as it is offered with enough views.
+ * Reading the first {@code n} photos is {@code O(n)} and every update is
+ * {@code O(log capacity)}.
+ */
+public class Leaderboard {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final Comparator<PhotoSummary> RANKING = Comparator
+            .comparing(PhotoSummary::getViews, Comparator.reverseOrder()).thenComparing(PhotoSummary::getPhotoId);
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final int capacity;
+
+    private final TreeSet<PhotoSummary> ranking = new TreeSet<>(RANKING);
+
+    private final Map<Long, PhotoSummary> members = new HashMap<>();
+
+    private boolean exhaustive;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new and empty {@link Leaderboard}
+     *
+     * @param capacity the maximum number of photos
+     */
+    public Leaderboard(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Replaces the photos of the board
+     *
+     * @param photos the most viewed photos of the scope, at most the capacity
+     */
+    public synchronized void reset(Collection<PhotoSummary> photos) {
+        ranking.clear();
+        members.clear();
+        photos.forEach(this::offer);
+        exhaustive = photos.size() < capacity;
+    }
+
+    /**
+     * Offers a photo with its absolute views. A member keeps the larger of its
+     * views and the offered ones, and takes the title and url of the offer.
+     *
+     * @param photo the photo
+     * @return whether the photo is on the board
+     */
+    public synchronized boolean offer(PhotoSummary photo) {
+        PhotoSummary current = members.get(photo.getPhotoId());
+
+        if (current != null) {
+            ranking.remove(current);
+
+            if (current.getViews() > photo.getViews()) {
+                photo = photo.withViews(current.getViews());
+            }
+        } else if (ranking.size() >= capacity && RANKING.compare(photo, ranking.last()) >= 0) {
+            return false;
+        }
+
+        ranking.add(photo);
+        members.put(photo.getPhotoId(), photo);
+
+        if (ranking.size() > capacity) {
+            members.remove(ranking.pollLast().getPhotoId());
+            exhaustive = false;
+        }
+
+        return members.containsKey(photo.getPhotoId());
+    }
+
+    /**
+     * Adds views to a member of the board
+     *
+     * @param photoId the photo id
+     * @param views   the views to add
+     * @return the updated member, empty if the photo is not on the board
+     */
+    public synchronized Optional<PhotoSummary> increment(Long photoId, long views) {
+        PhotoSummary current = members.get(photoId);
+
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        PhotoSummary updated = current.withViews(current.getViews() + views);
+        ranking.remove(current);
+        ranking.add(updated);
+        members.put(photoId, updated);
+
+        return Optional.of(updated);
+    }
+
+    /**
+     * Retrieves a member of the board
+     *
+     * @param photoId the photo id
+     * @return the member, empty if the photo is not on the board
+     */
+    public synchronized Optional<PhotoSummary> get(Long photoId) {
+        return Optional.ofNullable(members.get(photoId));
+    }
+
+    /**
+     * Removes a photo from the board
+     *
+     * @param photoId the photo id
+     * @return whether the photo was on the board
+     */
+    public synchronized boolean remove(Long photoId) {
+        PhotoSummary current = members.remove(photoId);
+        return current != null && ranking.remove(current);
+    }
+
+    /**
+     * Retrieves the first photos of the board
+     *
+     * @param n the number of photos
+     * @return the photos, from the most to the least viewed
+     */
+    public synchronized List<PhotoSummary> top(int n) {
+        List<PhotoSummary> top = new ArrayList<>(Math.min(n, ranking.size()));
+        Iterator<PhotoSummary> iterator = ranking.iterator();
+
+        while (top.size() < n && iterator.hasNext()) {
+            top.add(iterator.next());
+        }
+
+        return top;
+    }
+
+    /**
+     * Checks if the board can answer a request for the first {@code n} photos:
+     * it holds at least {@code n} photos, or every photo of its scope
+     *
+     * @param n the number of photos
+     * @return whether the board holds enough photos
+     */
+    public synchronized boolean canServe(int n) {
+        return exhaustive || ranking.size() >= n;
+    }
+
+    /**
+     * @return the number of photos on the board
+     */
+    public synchronized int size() {
+        return ranking.size();
+    }
+
+    /**
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+}
@@ -1,15 +1,27 @@
 package cl.rhacs.springboot.photos.repositories;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.PhotoCount;
+import cl.rhacs.springboot.photos.models.PhotoSummary;
+import cl.rhacs.springboot.photos.models.PhotoVersion;
 
 @Repository
-public interface PhotoRepository extends JpaRepository<Photo, Long> {
+public interface PhotoRepository extends JpaRepository<Photo, Long>, PhotoRepositoryCustom {
 
     /**
      * Searches the repository using the title of the photo
@@ -27,4 +39,161 @@ public interface PhotoRepository extends JpaRepository<Photo, Long> {
      */
     public Optional<Photo> findByUrl(String url);
 
+    /**
+     * Retrieves a page of photos without counting the whole repository, only
+     * looking one row ahead to know if there is a next page
+     *
+     * @param pageable the page, size and sorting
+     * @return the slice of photos
+     */
+    public Slice<Photo> findSliceBy(Pageable pageable);
+
+    // Versions
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Retrieves the last update date of a photo without loading it
+     *
+     * @param photoId the photo id
+     * @return the last update date if the photo exists
+     */
+    @Query("select p.updatedAt from Photo p where p.photoId = :photoId")
+    public Optional<Date> findUpdatedAtByPhotoId(@Param("photoId") Long photoId);
+
+    /**
+     * Retrieves the ids and update dates of a page of photos
+     *
+     * @param pageable the page, size and sorting
+     * @return the page of versions
+     */
+    public Page<PhotoVersion> findVersionsBy(Pageable pageable);
+
+    /**
+     * Retrieves the ids and update dates of a page of photos without counting the
+     * repository
+     *
+     * @param pageable the page, size and sorting
+     * @return the slice of versions
+     */
+    public Slice<PhotoVersion> findVersionSliceBy(Pageable pageable);
+
+    // Summaries
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Retrieves a page of photo summaries, leaving the description out of the
+     * query
+     *
+     * @param pageable the page, size and sorting
+     * @return the page of summaries
+     */
+    @Query(value = SELECT_SUMMARY + " from Photo p", countQuery = "select count(p) from Photo p")
+    public Page<PhotoSummary> findAllSummaries(Pageable pageable);
+
+    /**
+     * Retrieves a page of photo summaries without counting the repository
+     *
+     * @param pageable the page, size and sorting
+     * @return the slice of summaries
+     */
+    @Query(SELECT_SUMMARY + " from Photo p")
+    public Slice<PhotoSummary> findSummarySlice(Pageable pageable);
+
+    /**
+     * Retrieves the summaries of the photos of a snapper
+     *
+     * @param snapperId the snapper id
+     * @param pageable  the size and sorting
+     * @return the summaries
+     */
+    @Query(SELECT_SUMMARY + " from Photo p where p.snapperId = :snapperId")
+    public List<PhotoSummary> findSummariesBySnapperId(@Param("snapperId") Long snapperId, Pageable pageable);
+
+    /**
+     * Retrieves the summaries of the specified photos, in no particular order
+     *
+     * @param photoIds the photo ids
+     * @return the summaries of the photos that exist
+     */
+    @Query(SELECT_SUMMARY + " from Photo p where p.photoId in :photoIds")
+    public List<PhotoSummary> findSummariesByPhotoIdIn(@Param("photoIds") Collection<Long> photoIds);
+
+    // Snappers
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Retrieves the summaries of the photos of a snapper that come after the
+     * specified id in ascending order, seeking on the {@code snapper_id} foreign
+     * key index, which ends with the primary key
+     *
+     * @param snapperId the snapper id
+     * @param photoId   the last seen photo id
+     * @param pageable  the size of the slice
+     * @return the summaries
+     */
+    @Query(SELECT_SUMMARY
+            + " from Photo p where p.snapperId = :snapperId and p.photoId > :photoId order by p.photoId asc")
+    public List<PhotoSummary> findSummariesBySnapperIdAfterAsc(@Param("snapperId") Long snapperId,
+            @Param("photoId") Long photoId, Pageable pageable);
+
+    /**
+     * Retrieves the summaries of the photos of a snapper that come after the
+     * specified id in descending order
+     *
+     * @param snapperId the snapper id
+     * @param photoId   the last seen photo id
+     * @param pageable  the size of the slice
+     * @return the summaries
+     */
+    @Query(SELECT_SUMMARY
+            + " from Photo p where p.snapperId = :snapperId and p.photoId < :photoId order by p.photoId desc")
+    public List<PhotoSummary> findSummariesBySnapperIdAfterDesc(@Param("snapperId") Long snapperId,
+            @Param("photoId") Long photoId, Pageable pageable);
+
+    /**
+     * Counts the photos of the specified snappers on a single query
+     *
+     * @param snapperIds the snapper ids
+     * @return the counts of the snappers that have photos
+     */
+    @Query("select p.snapperId as snapperId, count(p) as photoCount from Photo p where p.snapperId in :snapperIds "
+            + "group by p.snapperId")
+    public List<PhotoCount> countBySnapperIdIn(@Param("snapperIds") Collection<Long> snapperIds);
+
+    // Deletes
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Deletes a photo with a single statement, without loading it
+     *
+     * @param photoId the photo id
+     * @return the number of deleted photos
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Photo p where p.photoId = :photoId")
+    public int deleteByPhotoId(@Param("photoId") Long photoId);
+
+    /**
+     * Deletes the specified photos with a single statement, without loading them
+     *
+     * @param photoIds the photo ids
+     * @return the number of deleted photos
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Photo p where p.photoId in :photoIds")
+    public int deleteByPhotoIdIn(@Param("photoIds") Collection<Long> photoIds);
+
+    /**
+     * Retrieves the first ids of the photos of a snapper, reading only the
+     * {@code snapper_id} index
+     *
+     * @param snapperId the snapper id
+     * @param pageable  the number of ids
+     * @return the photo ids
+     */
+    @Query("select p.photoId from Photo p where p.snapperId = :snapperId order by p.photoId")
+    public List<Long> findPhotoIdsBySnapperId(@Param("snapperId") Long snapperId, Pageable pageable);
+
 }
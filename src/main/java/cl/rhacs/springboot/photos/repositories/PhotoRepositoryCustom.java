@@ -0,0 +1,81 @@
+package cl.rhacs.springboot.photos.repositories;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.PhotoSummary;
+
+public interface PhotoRepositoryCustom {
+
+    /**
+     * Select clause that builds a {@link PhotoSummary} from a {@link Photo}
+     * aliased as {@code p}
+     */
+    public static final String SELECT_SUMMARY = "select new cl.rhacs.springboot.photos.models.PhotoSummary("
+            + "p.photoId, p.title, p.url, p.views, p.snapperId, p.createdAt, p.updatedAt)";
+
+    /**
+     * Fields that can be changed by {@link #updateFields(Long, Map, Date, Collection)}
+     */
+    public static final List<String> UPDATABLE_FIELDS = List.of("title", "description");
+
+    /**
+     * Streams every photo of the repository ordered by id, using a forward-only
+     * cursor and read-only entities. The stream must be consumed inside a
+     * transaction and closed afterwards.
+     *
+     * @param fetchSize the JDBC fetch size
+     * @return the stream of photos
+     */
+    public Stream<Photo> streamAll(int fetchSize);
+
+    /**
+     * Streams the url of every photo of the repository, using a forward-only
+     * cursor. The stream must be consumed inside a transaction and closed
+     * afterwards.
+     *
+     * @param fetchSize the JDBC fetch size
+     * @return the stream of urls
+     */
+    public Stream<String> streamAllUrls(int fetchSize);
+
+    /**
+     * Retrieves the photos that come after the specified sort key and id, seeking
+     * on the {@code (sortBy, photoId)} index instead of skipping rows
+     *
+     * @param <T>       {@link Photo} or {@link PhotoSummary}
+     * @param type      the type of the results
+     * @param sortBy    the sorting field: 'photoId', 'createdAt' or 'views'
+     * @param ascending whether the order is ascending
+     * @param key       the last seen sort key, ignored when sorting by id
+     * @param photoId   the last seen photo id, {@code null} for the first page
+     * @param limit     the maximum number of photos
+     * @return the photos
+     * @throws IllegalArgumentException when the type or the sorting field are not
+     *                                  supported
+     */
+    public <T> List<T> findAfter(Class<T> type, String sortBy, boolean ascending, Object key, Long photoId,
+            int limit) throws IllegalArgumentException;
+
+    /**
+     * Changes some fields of a photo and its update date with a single
+     * {@code update} of those columns, without loading the photo first
+     *
+     * @param photoId   the photo id
+     * @param changes   the new values by field, any of {@link #UPDATABLE_FIELDS}
+     * @param updatedAt the new update date
+     * @param versions  the update dates the photo is expected to have, or empty
+     *                  for any
+     * @return the number of updated rows, zero when the photo does not exist or
+     *         has another version
+     * @throws IllegalArgumentException when a field can not be changed or there
+     *                                  are no changes
+     */
+    public int updateFields(Long photoId, Map<String, Object> changes, Date updatedAt, Collection<Date> versions)
+            throws IllegalArgumentException;
+
+}
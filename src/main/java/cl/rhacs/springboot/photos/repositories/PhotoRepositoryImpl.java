@@ -0,0 +1,132 @@
+package cl.rhacs.springboot.photos.repositories;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.PhotoSummary;
+
+public class PhotoRepositoryImpl implements PhotoRepositoryCustom {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final List<String> KEYSET_FIELDS = List.of("photoId", "createdAt", "views");
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Inheritances (PhotoRepositoryCustom)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public Stream<Photo> streamAll(int fetchSize) {
+        return entityManager.createQuery("select p from Photo p order by p.photoId", Photo.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize).setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public Stream<String> streamAllUrls(int fetchSize) {
+        return entityManager.createQuery("select p.url from Photo p", String.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize).getResultStream();
+    }
+
+    @Override
+    public <T> List<T> findAfter(Class<T> type, String sortBy, boolean ascending, Object key, Long photoId,
+            int limit) throws IllegalArgumentException {
+        if (!type.equals(Photo.class) && !type.equals(PhotoSummary.class)) {
+            throw new IllegalArgumentException(String.format("'%s' is not a photo type", type.getSimpleName()));
+        }
+
+        if (!KEYSET_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException(String.format("'%s' is not a keyset field", sortBy));
+        }
+
+        boolean byId = sortBy.equals("photoId");
+        String comparison = ascending ? " > " : " < ";
+        String direction = ascending ? " asc" : " desc";
+
+        StringBuilder jpql = new StringBuilder(type.equals(Photo.class) ? "select p" : SELECT_SUMMARY)
+                .append(" from Photo p");
+
+        if (photoId != null) {
+            if (byId) {
+                jpql.append(" where p.photoId").append(comparison).append(":photoId");
+            } else {
+                jpql.append(" where p.").append(sortBy).append(comparison).append(":key or (p.").append(sortBy)
+                        .append(" = :key and p.photoId").append(comparison).append(":photoId)");
+            }
+        }
+
+        jpql.append(" order by ");
+
+        if (!byId) {
+            jpql.append("p.").append(sortBy).append(direction).append(", ");
+        }
+
+        jpql.append("p.photoId").append(direction);
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), type).setMaxResults(limit);
+
+        if (photoId != null) {
+            query.setParameter("photoId", photoId);
+
+            if (!byId) {
+                query.setParameter("key", key);
+            }
+        }
+
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int updateFields(Long photoId, Map<String, Object> changes, Date updatedAt, Collection<Date> versions)
+            throws IllegalArgumentException {
+        if (changes.isEmpty()) {
+            throw new IllegalArgumentException("There are no changes");
+        }
+
+        StringBuilder jpql = new StringBuilder("update Photo p set p.updatedAt = :updatedAt");
+
+        for (String field : changes.keySet()) {
+            if (!UPDATABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException(String.format("'%s' can not be updated", field));
+            }
+
+            jpql.append(", p.").append(field).append(" = :").append(field);
+        }
+
+        jpql.append(" where p.photoId = :photoId");
+
+        if (!versions.isEmpty()) {
+            jpql.append(" and p.updatedAt in :versions");
+        }
+
+        Query query = entityManager.createQuery(jpql.toString()).setParameter("updatedAt", updatedAt)
+                .setParameter("photoId", photoId);
+        changes.forEach(query::setParameter);
+
+        if (!versions.isEmpty()) {
+            query.setParameter("versions", versions);
+        }
+
+        return query.executeUpdate();
+    }
+
+}
@@ -1,14 +1,29 @@
 package cl.rhacs.springboot.photos.repositories;
 
+import java.util.List;
 import java.util.Optional;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import cl.rhacs.springboot.photos.models.Snapper;
+import cl.rhacs.springboot.photos.models.SnapperSummary;
 
 @Repository
-public interface SnapperRepository extends JpaRepository<Snapper, Long> {
+public interface SnapperRepository extends JpaRepository<Snapper, Long>, SnapperRepositoryCustom {
+
+    /**
+     * Query cache region of the finders, which keeps the ids of the results while
+     * the snappers themselves stay on the entity region
+     */
+    public static final String QUERY_CACHE_REGION = "snapper-queries";
 
     /**
      * Searches the repository for the specified email address
@@ -16,6 +31,8 @@ public interface SnapperRepository extends JpaRepository<Snapper, Long> {
      * @param email the email address to find
      * @return the user details if exists
      */
+    @QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
     public Optional<Snapper> findByEmail(String email);
 
     /**
@@ -24,6 +41,55 @@ public interface SnapperRepository extends JpaRepository<Snapper, Long> {
      * @param username the username to find
      * @return the user details if exists
      */
+    @QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
     public Optional<Snapper> findByUsername(String username);
 
+    // Summaries
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Retrieves a page of snapper summaries
+     *
+     * @param pageable the page, size and sorting
+     * @return the page of summaries
+     */
+    @Query(value = "select new cl.rhacs.springboot.photos.models.SnapperSummary(s.snapperId, s.username, s.email, "
+            + "s.createdAt, s.updatedAt) from Snapper s", countQuery = "select count(s) from Snapper s")
+    public Page<SnapperSummary> findAllSummaries(Pageable pageable);
+
+    /**
+     * Retrieves the first snapper summaries without counting them
+     *
+     * @param pageable the size and sorting of the slice
+     * @return the summaries
+     */
+    @Query("select new cl.rhacs.springboot.photos.models.SnapperSummary(s.snapperId, s.username, s.email, "
+            + "s.createdAt, s.updatedAt) from Snapper s")
+    public List<SnapperSummary> findSummaries(Pageable pageable);
+
+    /**
+     * Retrieves the snapper summaries that come after the specified id in
+     * ascending order
+     *
+     * @param snapperId the last seen snapper id
+     * @param pageable  the size of the slice
+     * @return the summaries
+     */
+    @Query("select new cl.rhacs.springboot.photos.models.SnapperSummary(s.snapperId, s.username, s.email, "
+            + "s.createdAt, s.updatedAt) from Snapper s where s.snapperId > :snapperId order by s.snapperId asc")
+    public List<SnapperSummary> findSummariesAfterAsc(@Param("snapperId") Long snapperId, Pageable pageable);
+
+    /**
+     * Retrieves the snapper summaries that come after the specified id in
+     * descending order
+     *
+     * @param snapperId the last seen snapper id
+     * @param pageable  the size of the slice
+     * @return the summaries
+     */
+    @Query("select new cl.rhacs.springboot.photos.models.SnapperSummary(s.snapperId, s.username, s.email, "
+            + "s.createdAt, s.updatedAt) from Snapper s where s.snapperId < :snapperId order by s.snapperId desc")
+    public List<SnapperSummary> findSummariesAfterDesc(@Param("snapperId") Long snapperId, Pageable pageable);
+
 }
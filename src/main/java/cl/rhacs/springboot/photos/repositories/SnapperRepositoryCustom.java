@@ -0,0 +1,19 @@
+package cl.rhacs.springboot.photos.repositories;
+
+import java.util.stream.Stream;
+
+import cl.rhacs.springboot.photos.models.SnapperSummary;
+
+public interface SnapperRepositoryCustom {
+
+    /**
+     * Streams a summary of every snapper of the repository ordered by id, using a
+     * forward-only cursor. The stream must be consumed inside a transaction and
+     * closed afterwards.
+     *
+     * @param fetchSize the JDBC fetch size
+     * @return the stream of summaries
+     */
+    public Stream<SnapperSummary> streamAllSummaries(int fetchSize);
+
+}
@@ -0,0 +1,30 @@
+package cl.rhacs.springboot.photos.repositories;
+
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.jpa.QueryHints;
+
+import cl.rhacs.springboot.photos.models.SnapperSummary;
+
+public class SnapperRepositoryImpl implements SnapperRepositoryCustom {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Inheritances (SnapperRepositoryCustom)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public Stream<SnapperSummary> streamAllSummaries(int fetchSize) {
+        return entityManager.createQuery("select new cl.rhacs.springboot.photos.models.SnapperSummary(s.snapperId, "
+                + "s.username, s.email, s.createdAt, s.updatedAt) from Snapper s order by s.snapperId",
+                SnapperSummary.class).setHint(QueryHints.HINT_FETCH_SIZE, fetchSize).getResultStream();
+    }
+
+}
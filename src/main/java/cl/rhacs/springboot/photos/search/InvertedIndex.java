@@ -0,0 +1,536 @@
+package cl.rhacs.springboot.photos.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the title and description of the photos,
+ * ranked with BM25.
+ * <p>
+ * Every photo gets an internal document number and every term a postings list
+ * of document numbers and term frequencies, stored in primitive arrays. The
+ * terms are kept sorted, so a query term also matches the terms it is a prefix
+ * of. Updating a photo deletes its old document and appends a new one; deleted
+ * documents are skipped while searching and purged once they are a quarter of
+ * the index, when the live documents are renumbered so the arrays stay as large
+ * as the photos that are indexed.
+ * <p>
+ * A query merges the postings of its terms in document order and keeps the
+ * best matches on a bounded heap, so it costs as much as the postings it reads
+ * and never as much as the whole index.
+ * <p>
+ * The index is guarded by a read-write lock: searches run concurrently and
+ * block only while a photo is added or removed.
+ */
+public class InvertedIndex {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * BM25 term frequency saturation
+     */
+    private static final float K1 = 1.2f;
+
+    /**
+     * BM25 length normalization
+     */
+    private static final float B = 0.75f;
+
+    /**
+     * A term in the title counts as this many terms of the description
+     */
+    private static final int TITLE_BOOST = 3;
+
+    /**
+     * Weight of the terms matched by prefix, compared to the exact term
+     */
+    private static final float PREFIX_WEIGHT = 0.5f;
+
+    /**
+     * Maximum number of terms a query term expands to by prefix
+     */
+    private static final int MAX_EXPANSIONS = 64;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+
+    private final Map<Long, Integer> documents = new HashMap<>();
+
+    private final BitSet deleted = new BitSet();
+
+    private long[] photoIds = new long[INITIAL_CAPACITY];
+
+    private int[] lengths = new int[INITIAL_CAPACITY];
+
+    private int nextDocument;
+
+    private int garbage;
+
+    private long totalLength;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Indexes a photo, replacing its previous version if it was indexed
+     *
+     * @param photoId     the photo id
+     * @param title       the title
+     * @param description the description, may be {@code null}
+     */
+    public void add(long photoId, String title, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = count(frequencies, title, TITLE_BOOST) + count(frequencies, description, 1);
+
+        lock.writeLock().lock();
+
+        try {
+            delete(photoId);
+
+            int document = nextDocument++;
+
+            if (document == photoIds.length) {
+                photoIds = Arrays.copyOf(photoIds, document * 2);
+                lengths = Arrays.copyOf(lengths, document * 2);
+            }
+
+            photoIds[document] = photoId;
+            lengths[document] = length;
+            totalLength += length;
+            documents.put(photoId, document);
+            frequencies.forEach((term, frequency) -> terms.computeIfAbsent(term, key -> new Postings())
+                    .add(document, frequency));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a photo from the index
+     *
+     * @param photoId the photo id
+     * @return whether the photo was indexed
+     */
+    public boolean remove(long photoId) {
+        lock.writeLock().lock();
+
+        try {
+            return delete(photoId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param photoId the photo id
+     * @return whether the photo is indexed
+     */
+    public boolean contains(long photoId) {
+        lock.readLock().lock();
+
+        try {
+            return documents.containsKey(photoId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed photos
+     */
+    public int size() {
+        lock.readLock().lock();
+
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of distinct terms
+     */
+    public int terms() {
+        lock.readLock().lock();
+
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of document numbers in use, live or deleted
+     */
+    int capacity() {
+        lock.readLock().lock();
+
+        try {
+            return nextDocument;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the photos that match any of the terms of the query, or a term that
+     * starts with them, ordered by their BM25 score and then by id
+     *
+     * @param query  the query
+     * @param offset the number of matches to skip
+     * @param limit  the maximum number of matches to return
+     * @return the page of matches
+     */
+    public SearchResults search(String query, int offset, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+
+        lock.readLock().lock();
+
+        try {
+            int count = documents.size();
+
+            if (count == 0 || queryTerms.isEmpty()) {
+                return new SearchResults(0, new long[0], new float[0]);
+            }
+
+            float averageLength = Math.max(1f, (float) totalLength / count);
+            List<Cursor> cursors = new ArrayList<>();
+
+            for (String term : queryTerms) {
+                Postings exact = terms.get(term);
+
+                if (exact != null) {
+                    cursors.add(new Cursor(exact, idf(exact, count)));
+                }
+
+                Iterator<Postings> expansions = terms.subMap(term, false, term + Character.MAX_VALUE, false)
+                        .values().iterator();
+
+                for (int i = 0; i < MAX_EXPANSIONS && expansions.hasNext(); i++) {
+                    Postings expansion = expansions.next();
+                    cursors.add(new Cursor(expansion, PREFIX_WEIGHT * idf(expansion, count)));
+                }
+            }
+
+            return top(cursors, averageLength, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Computes the BM25 inverse document frequency of a term
+     *
+     * @param postings the postings of the term
+     * @param count    the number of documents
+     * @return the inverse document frequency
+     */
+    private float idf(Postings postings, int count) {
+        int frequency = Math.min(postings.size, count);
+        return (float) Math.log(1 + (count - frequency + 0.5) / (frequency + 0.5));
+    }
+
+    /**
+     * Merges the postings of the query in document order, adding up the score of
+     * every document once all its terms are read, and selects a page of the best
+     * scored documents using a bounded heap
+     *
+     * @param cursors       the postings of the query terms
+     * @param averageLength the average document length
+     * @param offset        the number of matches to skip
+     * @param limit         the maximum number of matches to return
+     * @return the page of matches
+     */
+    private SearchResults top(List<Cursor> cursors, float averageLength, int offset, int limit) {
+        int wanted = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        PriorityQueue<Cursor> merge = new PriorityQueue<>(Math.max(1, cursors.size()),
+                Comparator.comparingInt(Cursor::document));
+        PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.reverseOrder());
+        int hits = 0;
+
+        for (Cursor cursor : cursors) {
+            if (cursor.next(deleted)) {
+                merge.add(cursor);
+            }
+        }
+
+        while (!merge.isEmpty()) {
+            int document = merge.peek().document();
+            float score = 0;
+
+            while (!merge.isEmpty() && merge.peek().document() == document) {
+                Cursor cursor = merge.poll();
+                score += cursor.score(lengths[document], averageLength);
+
+                if (cursor.next(deleted)) {
+                    merge.add(cursor);
+                }
+            }
+
+            hits++;
+            Hit worst = best.peek();
+
+            if (best.size() < wanted) {
+                best.add(new Hit(photoIds[document], score));
+            } else if (worst != null && worst.isWorseThan(photoIds[document], score)) {
+                best.poll();
+                best.add(new Hit(photoIds[document], score));
+            }
+        }
+
+        int size = Math.max(0, best.size() - offset);
+        long[] ids = new long[size];
+        float[] pageScores = new float[size];
+
+        for (int i = best.size() - 1; i >= 0; i--) {
+            Hit hit = best.poll();
+
+            if (i >= offset) {
+                ids[i - offset] = hit.photoId;
+                pageScores[i - offset] = hit.score;
+            }
+        }
+
+        return new SearchResults(hits, ids, pageScores);
+    }
+
+    /**
+     * Counts the terms of a field
+     *
+     * @param frequencies the frequencies of the terms of the document
+     * @param text        the text of the field
+     * @param boost       how much every term of the field counts
+     * @return the length of the field
+     */
+    private int count(Map<String, Integer> frequencies, String text, int boost) {
+        int length = 0;
+
+        for (String term : Tokenizer.tokenize(text)) {
+            frequencies.merge(term, boost, Integer::sum);
+            length += boost;
+        }
+
+        return length;
+    }
+
+    /**
+     * Marks the document of a photo as deleted, purging the postings when there
+     * are too many deleted documents. The write lock must be held.
+     *
+     * @param photoId the photo id
+     * @return whether the photo was indexed
+     */
+    private boolean delete(long photoId) {
+        Integer document = documents.remove(photoId);
+
+        if (document == null) {
+            return false;
+        }
+
+        deleted.set(document);
+        totalLength -= lengths[document];
+
+        if (++garbage > Math.max(INITIAL_CAPACITY, documents.size() / 4)) {
+            purge();
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes the deleted documents from the postings, and the terms that are
+     * left without documents, and renumbers the live documents keeping their
+     * order. The write lock must be held.
+     */
+    private void purge() {
+        int[] renumbered = new int[nextDocument];
+        int live = 0;
+
+        for (int document = 0; document < nextDocument; document++) {
+            if (deleted.get(document)) {
+                renumbered[document] = -1;
+            } else {
+                photoIds[live] = photoIds[document];
+                lengths[live] = lengths[document];
+                renumbered[document] = live++;
+            }
+        }
+
+        terms.values().removeIf(postings -> postings.purge(renumbered));
+        documents.replaceAll((photoId, document) -> renumbered[document]);
+        deleted.clear();
+        nextDocument = live;
+        garbage = 0;
+
+        int capacity = Math.max(INITIAL_CAPACITY, live + live / 2);
+
+        if (photoIds.length > capacity) {
+            photoIds = Arrays.copyOf(photoIds, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+    }
+
+    // Postings
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * The documents that contain a term, in ascending order, and how many times
+     * they contain it
+     */
+    private static class Postings {
+
+        private int[] documents = new int[4];
+
+        private int[] frequencies = new int[4];
+
+        private int size;
+
+        private void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        /**
+         * @param renumbered the new number of every document, {@code -1} for the
+         *                   deleted ones
+         * @return whether the postings are left empty
+         */
+        private boolean purge(int[] renumbered) {
+            int kept = 0;
+
+            for (int i = 0; i < size; i++) {
+                if (renumbered[documents[i]] >= 0) {
+                    documents[kept] = renumbered[documents[i]];
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+
+            size = kept;
+
+            if (size < documents.length / 4) {
+                documents = Arrays.copyOf(documents, Math.max(4, size));
+                frequencies = Arrays.copyOf(frequencies, Math.max(4, size));
+            }
+
+            return size == 0;
+        }
+
+    }
+
+    // Cursor
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * A position on the postings of a query term, skipping the deleted documents
+     */
+    private static class Cursor {
+
+        private final Postings postings;
+
+        /**
+         * The weight of the term times its inverse document frequency
+         */
+        private final float weight;
+
+        private int position = -1;
+
+        private Cursor(Postings postings, float weight) {
+            this.postings = postings;
+            this.weight = weight;
+        }
+
+        /**
+         * Moves to the next live document
+         *
+         * @param deleted the deleted documents
+         * @return whether there is one
+         */
+        private boolean next(BitSet deleted) {
+            do {
+                position++;
+            } while (position < postings.size && deleted.get(postings.documents[position]));
+
+            return position < postings.size;
+        }
+
+        private int document() {
+            return postings.documents[position];
+        }
+
+        /**
+         * Computes the BM25 score of the term for the current document
+         *
+         * @param length        the length of the document
+         * @param averageLength the average document length
+         * @return the score
+         */
+        private float score(int length, float averageLength) {
+            float tf = postings.frequencies[position];
+            float norm = K1 * (1 - B + B * length / averageLength);
+
+            return weight * tf * (K1 + 1) / (tf + norm);
+        }
+
+    }
+
+    // Hit
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * A scored photo, ordered from the best to the worst match: by score and then
+     * by id
+     */
+    private static class Hit implements Comparable<Hit> {
+
+        private final long photoId;
+
+        private final float score;
+
+        private Hit(long photoId, float score) {
+            this.photoId = photoId;
+            this.score = score;
+        }
+
+        private boolean isWorseThan(long otherPhotoId, float otherScore) {
+            int byScore = Float.compare(otherScore, score);
+            return (byScore != 0) ? byScore > 0 : otherPhotoId < photoId;
+        }
+
+        @Override
+        public int compareTo(Hit other) {
+            int byScore = Float.compare(other.score, score);
+            return (byScore != 0) ? byScore : Long.compare(photoId, other.photoId);
+        }
+
+    }
+
+}
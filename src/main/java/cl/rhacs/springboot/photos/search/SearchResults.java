@@ -0,0 +1,57 @@
+package cl.rhacs.springboot.photos.search;
+
+/**
+ * A page of the photos that match a query, from the best to the worst match
+ */
+public class SearchResults {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private final int totalHits;
+
+    private final long[] photoIds;
+
+    private final float[] scores;
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new {@link SearchResults}
+     *
+     * @param totalHits the number of photos that match the query
+     * @param photoIds  the ids of the photos of the page
+     * @param scores    the scores of the photos of the page
+     */
+    public SearchResults(int totalHits, long[] photoIds, float[] scores) {
+        this.totalHits = totalHits;
+        this.photoIds = photoIds;
+        this.scores = scores;
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the totalHits
+     */
+    public int getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * @return the photoIds
+     */
+    public long[] getPhotoIds() {
+        return photoIds;
+    }
+
+    /**
+     * @return the scores
+     */
+    public float[] getScores() {
+        return scores;
+    }
+
+}
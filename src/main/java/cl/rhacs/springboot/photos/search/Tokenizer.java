@@ -0,0 +1,75 @@
+package cl.rhacs.springboot.photos.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into the terms of the {@link InvertedIndex}: runs of letters and
+ * digits, lower cased and without diacritics, so 'Fotografía' and 'fotografia'
+ * are the same term
+ */
+public final class Tokenizer {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Shorter terms are ignored, they match too many photos to be useful
+     */
+    public static final int MIN_LENGTH = 2;
+
+    /**
+     * Longer terms are truncated
+     */
+    public static final int MAX_LENGTH = 32;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    private Tokenizer() {
+
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Splits the text into terms, in the order they appear
+     *
+     * @param text the text, may be {@code null}
+     * @return the terms
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        int start = -1;
+
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean inTerm = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+
+            if (inTerm && start < 0) {
+                start = i;
+            } else if (!inTerm && start >= 0) {
+                if (i - start >= MIN_LENGTH) {
+                    terms.add(normalized.substring(start, Math.min(i, start + MAX_LENGTH)));
+                }
+
+                start = -1;
+            }
+        }
+
+        return terms;
+    }
+
+}
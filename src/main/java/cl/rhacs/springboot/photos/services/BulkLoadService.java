@@ -0,0 +1,592 @@
+package cl.rhacs.springboot.photos.services;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Index;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cl.rhacs.springboot.photos.bulk.BulkTable;
+import cl.rhacs.springboot.photos.bulk.CsvReader;
+import cl.rhacs.springboot.photos.models.BulkLoadResponse;
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.Snapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Loads large CSV or newline-delimited JSON files of {@link Snapper}s and
+ * {@link Photo}s, far faster than one {@code insert} per row.
+ * <p>
+ * The records are parsed on the calling thread and grouped in chunks, and the
+ * chunks are inserted in parallel, each on its own transaction, with multi-row
+ * {@code insert} statements. A chunk the database refuses is reported without
+ * stopping the rest of the load. The secondary indexes of the table may be
+ * dropped before the load and rebuilt once it ends, which is cheaper than
+ * maintaining them row by row; the unique indexes are always kept.
+ * <p>
+ * The files set on {@code photos.bulk-load.snappers} and
+ * {@code photos.bulk-load.photos} are loaded once the application is ready,
+ * before the in-memory structures of the other services are built. Loads
+ * requested while the application runs also update those structures.
+ */
+@Service
+public class BulkLoadService implements MeterBinder {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkLoadService.class);
+
+    /**
+     * Format of comma separated files
+     */
+    public static final String CSV = "csv";
+
+    /**
+     * Format of newline-delimited JSON files
+     */
+    public static final String NDJSON = "ndjson";
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UniquenessService uniquenessService;
+
+    @Autowired
+    private PhotoSearchService photoSearchService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private PhotoCountService photoCountService;
+
+    @Autowired
+    private PhotoPageCacheService photoPageCacheService;
+
+    @Value("${photos.bulk-load.threads:4}")
+    private int threads;
+
+    @Value("${photos.bulk-load.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${photos.bulk-load.rows-per-statement:500}")
+    private int rowsPerStatement;
+
+    @Value("${photos.bulk-load.progress-interval:100000}")
+    private long progressInterval;
+
+    @Value("${photos.bulk-load.snappers:}")
+    private String snappersFile;
+
+    @Value("${photos.bulk-load.photos:}")
+    private String photosFile;
+
+    @Value("${photos.bulk-load.rebuild-indexes:true}")
+    private boolean rebuildIndexesOnStartup;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final LongAdder loadedRows = new LongAdder();
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Loads the files configured for the startup, the snappers first
+     *
+     * @throws IOException when a file can not be read
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void loadOnStartup() throws IOException {
+        for (BulkTable table : new BulkTable[] { BulkTable.SNAPPERS, BulkTable.PHOTOS }) {
+            String file = (table == BulkTable.SNAPPERS) ? snappersFile : photosFile;
+
+            if (file.isBlank()) {
+                continue;
+            }
+
+            Path path = Path.of(file);
+            String format = path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : NDJSON;
+
+            try (InputStream input = Files.newInputStream(path)) {
+                BulkLoadResponse response = load(table, format, input, rebuildIndexesOnStartup, false);
+                LOGGER.info("Loaded {} {} from {}: {} rejected, {} failed, {} rows/s", response.getLoaded(),
+                        table.getName(), path, response.getRejected(), response.getFailed(),
+                        response.getRowsPerSecond());
+            }
+        }
+    }
+
+    /**
+     * Loads a file while the application runs, updating the search index, the
+     * uniqueness filters, the leaderboard, the count and the caches
+     *
+     * @param table          the table to load
+     * @param format         {@value #CSV} or {@value #NDJSON}
+     * @param input          the file
+     * @param rebuildIndexes whether to drop the secondary indexes during the
+     *                       load, which slows down the queries that use them
+     * @return the summary of the load
+     * @throws IllegalArgumentException   when the file has no header
+     * @throws RejectedExecutionException when another load is running
+     */
+    public BulkLoadResponse load(BulkTable table, String format, InputStream input, boolean rebuildIndexes)
+            throws IllegalArgumentException, RejectedExecutionException {
+        return load(table, format, input, rebuildIndexes, true);
+    }
+
+    private BulkLoadResponse load(BulkTable table, String format, InputStream input, boolean rebuildIndexes,
+            boolean live) throws IllegalArgumentException, RejectedExecutionException {
+        if (!running.compareAndSet(false, true)) {
+            throw new RejectedExecutionException("A bulk load is already running");
+        }
+
+        try {
+            List<Index> dropped = rebuildIndexes ? dropIndexes(table) : Collections.emptyList();
+
+            try {
+                return new Load(table, live).run(records(format, input));
+            } finally {
+                createIndexes(table, dropped);
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Reads the records of a file
+     *
+     * @param format {@value #CSV} or {@value #NDJSON}
+     * @param input  the file
+     * @return the records
+     * @throws IllegalArgumentException when the format is unknown or a CSV file
+     *                                  has no header
+     */
+    private Iterator<? extends Map<String, ?>> records(String format, InputStream input)
+            throws IllegalArgumentException {
+        if (CSV.equals(format)) {
+            return new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        }
+
+        if (NDJSON.equals(format)) {
+            try {
+                return objectMapper.readerFor(Map.class).readValues(input);
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e.getMessage());
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("'%s' is not a supported format", format));
+    }
+
+    /**
+     * Drops the secondary indexes of a table. An index the database refuses to
+     * drop, like one backing a foreign key, is kept
+     *
+     * @param table the table
+     * @return the dropped indexes
+     */
+    private List<Index> dropIndexes(BulkTable table) {
+        List<Index> dropped = new ArrayList<>();
+
+        for (Index index : table.getIndexes()) {
+            try {
+                jdbcTemplate.execute(String.format("alter table %s drop index %s", table.getName(), index.name()));
+                dropped.add(index);
+            } catch (DataAccessException e) {
+                LOGGER.warn("Keeping the index {} during the load: {}", index.name(),
+                        NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+
+        return dropped;
+    }
+
+    /**
+     * Creates the indexes dropped for a load
+     *
+     * @param table   the table
+     * @param indexes the dropped indexes
+     */
+    private void createIndexes(BulkTable table, List<Index> indexes) {
+        for (Index index : indexes) {
+            long start = System.currentTimeMillis();
+
+            jdbcTemplate.execute(String.format("create index %s on %s (%s)", index.name(), table.getName(),
+                    index.columnList()));
+            LOGGER.info("Rebuilt the index {} in {} ms", index.name(), System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Reserves a range of photo ids from the table the {@link Photo} ids are
+     * generated from, so the photos inserted through the API never get them
+     *
+     * @param count the number of ids
+     * @return the first id of the range
+     */
+    private long reservePhotoIds(int count) {
+        return transactionTemplate.execute(status -> {
+            long first = jdbcTemplate.queryForObject(
+                    "select next_val from id_generators where sequence_name = 'photos' for update", Long.class);
+            jdbcTemplate.update("update id_generators set next_val = ? where sequence_name = 'photos'",
+                    first + count);
+
+            return first;
+        });
+    }
+
+    /**
+     * Builds an {@code insert} of many rows
+     *
+     * @param table   the table
+     * @param columns the number of leading columns inserted
+     * @param rows    the number of rows
+     * @return the statement
+     */
+    private static String insertStatement(BulkTable table, int columns, int rows) {
+        String[] names = table.getColumns();
+        String row = "(" + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+
+        return String.format("insert into %s (%s) values %s", table.getName(),
+                String.join(", ", List.of(names).subList(names.length - columns, names.length)),
+                String.join(", ", Collections.nCopies(rows, row)));
+    }
+
+    // Inheritances (MeterBinder)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("photos.bulk-load.rows", loadedRows, LongAdder::sum)
+                .description("Rows inserted by the bulk loader").register(registry);
+        Gauge.builder("photos.bulk-load.running", running, r -> r.get() ? 1 : 0)
+                .description("Whether a bulk load is running").register(registry);
+    }
+
+    // Load
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * A single load: reads the records, hands the chunks to the workers and keeps
+     * the counters
+     */
+    private class Load {
+
+        private final BulkTable table;
+
+        private final boolean live;
+
+        private final BulkLoadResponse response;
+
+        private final Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        private final LongAdder loaded = new LongAdder();
+
+        private final LongAdder failed = new LongAdder();
+
+        private final AtomicLong nextProgress = new AtomicLong(progressInterval);
+
+        private final AtomicLong maxPhotoId = new AtomicLong();
+
+        private int chunks;
+
+        private final long start = System.nanoTime();
+
+        private final int idColumn;
+
+        private Boolean withIds;
+
+        private Load(BulkTable table, boolean live) {
+            this.table = table;
+            this.live = live;
+            this.response = new BulkLoadResponse(table.getName());
+            this.idColumn = table.indexOf(table == BulkTable.PHOTOS ? "photo_id" : "snapper_id");
+        }
+
+        private BulkLoadResponse run(Iterator<? extends Map<String, ?>> records) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "bulk-load-" + table.getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            Semaphore inFlight = new Semaphore(threads * 2);
+            List<Object[]> chunk = new ArrayList<>(chunkSize);
+            long rejected = 0;
+            long record = 0;
+
+            try {
+                while (true) {
+                    Object[] row;
+
+                    try {
+                        if (!records.hasNext()) {
+                            break;
+                        }
+
+                        record++;
+                        row = toRow(records.next());
+                    } catch (RuntimeJsonMappingException e) {
+                        // the rest of a malformed JSON stream can not be trusted
+                        rejected++;
+                        response.addError(String.format("record %d: %s", record, e.getMessage()));
+                        break;
+                    } catch (IllegalArgumentException e) {
+                        rejected++;
+                        response.addError(String.format("record %d: %s", record, e.getMessage()));
+                        continue;
+                    }
+
+                    chunk.add(row);
+
+                    if (chunk.size() == chunkSize) {
+                        submit(executor, inFlight, chunk);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+
+                if (!chunk.isEmpty()) {
+                    submit(executor, inFlight, chunk);
+                }
+
+                executor.shutdown();
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                executor.shutdownNow();
+                close(records);
+            }
+
+            if (maxPhotoId.get() > 0) {
+                jdbcTemplate.update("update id_generators set next_val = greatest(next_val, ?) "
+                        + "where sequence_name = 'photos'", maxPhotoId.get() + 1);
+            }
+
+            if (live) {
+                refresh();
+            }
+
+            response.setLoaded(loaded.sum());
+            response.setRejected(rejected);
+            response.setFailed(failed.sum());
+            response.finish(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            return response;
+        }
+
+        /**
+         * Converts a record into a row. The ids are either carried by every record
+         * or by none, as the first record decides. While the application runs the
+         * photo ids are always reserved, since an explicit one could fall in a
+         * block of ids Hibernate already holds
+         */
+        private Object[] toRow(Map<String, ?> record) throws IllegalArgumentException {
+            Object[] row = table.toRow(record, now);
+
+            if (live && table == BulkTable.PHOTOS && row[idColumn] != null) {
+                throw new IllegalArgumentException("The photo id is assigned by the application");
+            }
+
+            if (withIds == null) {
+                withIds = row[idColumn] != null;
+            } else if (withIds != (row[idColumn] != null)) {
+                throw new IllegalArgumentException(withIds ? "The id is missing while the first record had one"
+                        : "The id is not expected since the first record had none");
+            }
+
+            return row;
+        }
+
+        /**
+         * Completes the ids of a chunk and hands it to a worker, waiting while too
+         * many chunks are pending
+         */
+        private void submit(ExecutorService executor, Semaphore inFlight, List<Object[]> chunk)
+                throws InterruptedException {
+            if (table == BulkTable.PHOTOS) {
+                if (withIds) {
+                    long max = chunk.stream().mapToLong(row -> (Long) row[idColumn]).max().orElse(0);
+                    maxPhotoId.accumulateAndGet(max, Math::max);
+                } else {
+                    long next = reservePhotoIds(chunk.size());
+
+                    for (Object[] row : chunk) {
+                        row[idColumn] = next++;
+                    }
+                }
+            }
+
+            int number = ++chunks;
+            inFlight.acquire();
+
+            executor.execute(() -> {
+                try {
+                    insert(chunk);
+                    loaded.add(chunk.size());
+                    loadedRows.add(chunk.size());
+
+                    if (live) {
+                        index(chunk);
+                    }
+
+                    progress();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Could not insert the chunk {} of {} {}", number, chunk.size(), table.getName(), e);
+                    failed.add(chunk.size());
+                    response.addError(String.format("chunk %d (%d rows): %s", number, chunk.size(),
+                            NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        /**
+         * Inserts a chunk on its own transaction, {@code rowsPerStatement} rows
+         * per statement
+         */
+        private void insert(List<Object[]> chunk) {
+            // the photo ids were either read or reserved
+            int offset = (withIds || table == BulkTable.PHOTOS) ? 0 : 1;
+            int columns = table.getColumns().length - offset;
+
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < chunk.size(); from += rowsPerStatement) {
+                    List<Object[]> rows = chunk.subList(from, Math.min(chunk.size(), from + rowsPerStatement));
+                    Object[] values = new Object[rows.size() * columns];
+
+                    for (int i = 0; i < rows.size(); i++) {
+                        System.arraycopy(rows.get(i), offset, values, i * columns, columns);
+                    }
+
+                    jdbcTemplate.update(insertStatement(table, columns, rows.size()), values);
+                }
+            });
+        }
+
+        /**
+         * Adds the rows of an inserted chunk to the search index and the
+         * uniqueness filters
+         */
+        private void index(List<Object[]> chunk) {
+            if (table == BulkTable.PHOTOS) {
+                int title = table.indexOf("title");
+                int description = table.indexOf("description");
+                int url = table.indexOf("url");
+
+                for (Object[] row : chunk) {
+                    uniquenessService.add(new Photo((String) row[title], (String) row[description],
+                            (String) row[url]));
+                    photoSearchService.index((Long) row[idColumn], (String) row[title], (String) row[description]);
+                }
+            } else {
+                int username = table.indexOf("username");
+                int email = table.indexOf("email");
+                int password = table.indexOf("password");
+
+                for (Object[] row : chunk) {
+                    uniquenessService.add(
+                            new Snapper((String) row[username], (String) row[email], (String) row[password]));
+                }
+            }
+        }
+
+        /**
+         * Refreshes what the rows inserted behind the persistence context leave
+         * stale
+         */
+        private void refresh() {
+            if (table == BulkTable.PHOTOS) {
+                photoCountService.adjust(loaded.sum());
+                photoPageCacheService.invalidate();
+                leaderboardService.reload();
+            }
+
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        }
+
+        /**
+         * Logs the progress every {@code progressInterval} rows
+         */
+        private void progress() {
+            long rows = loaded.sum();
+            long due = nextProgress.get();
+
+            if (rows >= due && nextProgress.compareAndSet(due, due + progressInterval)) {
+                double seconds = (System.nanoTime() - start) / 1e9;
+                LOGGER.info("Loaded {} {} ({} rows/s)", rows, table.getName(), (long) (rows / seconds));
+            }
+        }
+
+        private void close(Iterator<?> records) {
+            try {
+                if (records instanceof Closeable) {
+                    ((Closeable) records).close();
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Could not close the {} file", table.getName(), e);
+            }
+        }
+
+    }
+
+}
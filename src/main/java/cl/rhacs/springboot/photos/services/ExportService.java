@@ -0,0 +1,130 @@
+package cl.rhacs.springboot.photos.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.SnapperSummary;
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+import cl.rhacs.springboot.photos.repositories.SnapperRepository;
+
+/**
+ * Writes whole tables as newline-delimited JSON using constant memory: the rows
+ * are read through a forward-only cursor and every entity is detached from the
+ * persistence context as soon as it is written.
+ */
+@Service
+public class ExportService {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private SnapperRepository snapperRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${photos.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${photos.export.flush-every:500}")
+    private int flushEvery;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Writes every {@link Photo} to the output, one JSON object per line
+     *
+     * @param output the output stream, it is closed when the export finishes
+     * @return the number of photos written
+     * @throws IOException when the output can not be written
+     */
+    @Transactional(readOnly = true)
+    public long exportPhotos(OutputStream output) throws IOException {
+        try (Stream<Photo> photos = photoRepository.streamAll(fetchSize)) {
+            return write(photos, Photo.class, output, entityManager::detach);
+        }
+    }
+
+    /**
+     * Writes a {@link SnapperSummary} of every snapper to the output, one JSON
+     * object per line
+     *
+     * @param output the output stream, it is closed when the export finishes
+     * @return the number of snappers written
+     * @throws IOException when the output can not be written
+     */
+    @Transactional(readOnly = true)
+    public long exportSnappers(OutputStream output) throws IOException {
+        try (Stream<SnapperSummary> snappers = snapperRepository.streamAllSummaries(fetchSize)) {
+            return write(snappers, SnapperSummary.class, output, snapper -> {
+            });
+        }
+    }
+
+    /**
+     * Writes the elements of the stream through a single Jackson generator,
+     * flushing it every {@code photos.export.flush-every} elements
+     *
+     * @param <T>        the type of the elements
+     * @param elements   the elements
+     * @param type       the class of the elements
+     * @param output     the output stream, it is closed when the export finishes
+     * @param afterWrite called with every element once it is written
+     * @return the number of elements written
+     * @throws IOException when the output can not be written
+     */
+    private <T> long write(Stream<T> elements, Class<T> type, OutputStream output, Consumer<T> afterWrite)
+            throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(type).withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+
+        try (SequenceWriter sequence = writer.writeValues(output)) {
+            Iterator<T> iterator = elements.iterator();
+
+            while (iterator.hasNext()) {
+                T element = iterator.next();
+                sequence.write(element);
+                afterWrite.accept(element);
+
+                if (++count % flushEvery == 0) {
+                    sequence.flush();
+                }
+            }
+
+            sequence.flush();
+
+            if (count > 0) {
+                output.write('\n');
+            }
+        }
+
+        return count;
+    }
+
+}
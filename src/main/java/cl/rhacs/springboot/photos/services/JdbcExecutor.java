@@ -0,0 +1,174 @@
+package cl.rhacs.springboot.photos.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cl.rhacs.springboot.photos.datasource.RoutingContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Runs the database work of the controllers on a dedicated pool, so the servlet
+ * threads are not held while waiting for a connection or a query and stay free
+ * for the requests served from memory.
+ * <p>
+ * The pool has {@code photos.jdbc-executor.threads} threads, by default as many
+ * as connections has the Hikari pool, and queues up to
+ * {@code photos.jdbc-executor.queue-capacity} tasks. When the queue is full the
+ * task is rejected right away with a {@link RejectedExecutionException}, which
+ * is answered with a {@code 503 Service Unavailable}. With
+ * {@code photos.jdbc-executor.enabled=false} the tasks run on the calling
+ * thread.
+ * <p>
+ * The {@link RoutingContext} of the request is carried to the pool, so the
+ * reads of a client that just wrote still go to the primary.
+ */
+@Service
+public class JdbcExecutor implements MeterBinder {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${photos.jdbc-executor.enabled:true}")
+    private boolean enabled;
+
+    @Value("${photos.jdbc-executor.threads:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int threads;
+
+    @Value("${photos.jdbc-executor.queue-capacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    private TransactionTemplate readOnlyTemplate;
+
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile Timer queueWait;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates the pool once the properties are injected
+     */
+    @PostConstruct
+    public void initialize() {
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+
+        if (enabled) {
+            executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("jdbc-"),
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+
+    /**
+     * Waits for the running and queued tasks before the datasource is closed
+     *
+     * @throws InterruptedException when interrupted while waiting
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Runs a task on the pool
+     *
+     * @param <T>  the type of the result
+     * @param task the task
+     * @return the result of the task
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) throws RejectedExecutionException {
+        if (executor == null) {
+            return CompletableFuture.completedFuture(task.get());
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        RoutingContext context = RoutingContext.current();
+        long submitted = System.nanoTime();
+
+        try {
+            executor.execute(() -> {
+                Timer timer = queueWait;
+
+                if (timer != null) {
+                    timer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                }
+
+                // Completing by hand keeps the exception as thrown, supplyAsync would wrap it
+                // on a CompletionException that captures a stack trace
+                RoutingContext.set(context);
+
+                try {
+                    future.complete(task.get());
+                } catch (RuntimeException | Error e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    RoutingContext.set(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+
+        return future;
+    }
+
+    /**
+     * Runs a task on the pool inside a read-only transaction
+     *
+     * @param <T>  the type of the result
+     * @param task the task
+     * @return the result of the task
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public <T> CompletableFuture<T> read(Supplier<T> task) throws RejectedExecutionException {
+        return supply(() -> readOnlyTemplate.execute(status -> task.get()));
+    }
+
+    // Inheritances (MeterBinder)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (executor != null) {
+            new ExecutorServiceMetrics(executor, "jdbc", Tags.empty()).bindTo(registry);
+        }
+
+        FunctionCounter.builder("photos.jdbc.rejected", rejected, LongAdder::sum)
+                .description("Tasks rejected because the JDBC executor was saturated").register(registry);
+        queueWait = Timer.builder("photos.jdbc.queue.wait").description("Time tasks waited for a JDBC thread")
+                .register(registry);
+    }
+
+}
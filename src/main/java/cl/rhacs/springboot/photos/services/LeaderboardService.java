@@ -0,0 +1,230 @@
+package cl.rhacs.springboot.photos.services;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.PhotoSummary;
+import cl.rhacs.springboot.photos.ranking.Leaderboard;
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+
+/**
+ * Keeps the most viewed {@link Photo}s in memory, overall and by snapper, so the
+ * rankings are served without sorting the photos table.
+ * <p>
+ * The boards hold twice the {@code photos.top.size} photos that can be asked
+ * for, so deleting a few photos does not leave them short. They are updated on
+ * every view, loaded from the database (plus the views not flushed yet) when
+ * the application is ready, and reloaded every
+ * {@code photos.top.refresh-interval} milliseconds to pick up changes made by
+ * other instances. The board of a snapper is loaded the first time it is
+ * asked for, and only the boards of the last {@code photos.top.snappers}
+ * snappers asked for are kept.
+ */
+@Service
+public class LeaderboardService {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final Sort MOST_VIEWED = Sort.by(Sort.Order.desc("views"), Sort.Order.asc("photoId"));
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private ViewCounterService viewCounterService;
+
+    @Value("${photos.top.size:100}")
+    private int size;
+
+    @Value("${photos.top.snappers:1000}")
+    private long maximumSnappers;
+
+    private volatile Leaderboard global;
+
+    private Cache<Long, Leaderboard> snappers;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Builds the cache of the snapper boards once the properties are injected
+     */
+    @PostConstruct
+    public void initialize() {
+        snappers = Caffeine.newBuilder().maximumSize(maximumSnappers).build();
+    }
+
+    /**
+     * Reloads the overall board and forgets the boards of the snappers
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${photos.top.refresh-interval:300000}",
+            initialDelayString = "${photos.top.refresh-interval:300000}")
+    public void reload() {
+        Leaderboard board = new Leaderboard(size * 2);
+        board.reset(load(null, board.getCapacity()));
+        global = board;
+        snappers.invalidateAll();
+    }
+
+    /**
+     * Retrieves the most viewed photos
+     *
+     * @param n         the number of photos
+     * @param snapperId the snapper whose photos are ranked, {@code null} to rank
+     *                  every photo
+     * @return the photos, from the most to the least viewed
+     * @throws IllegalArgumentException when {@code n} is not between one and
+     *                                  {@code photos.top.size}
+     */
+    public List<PhotoSummary> top(int n, Long snapperId) throws IllegalArgumentException {
+        if (n < 1 || n > size) {
+            throw new IllegalArgumentException(String.format("The number of photos must be between 1 and %d", size));
+        }
+
+        if (snapperId == null) {
+            if (global == null || !global.canServe(n)) {
+                reload();
+            }
+
+            return global.top(n);
+        }
+
+        Leaderboard board = snappers.getIfPresent(snapperId);
+
+        if (board == null || !board.canServe(n)) {
+            board = new Leaderboard(size * 2);
+            board.reset(load(snapperId, board.getCapacity()));
+            snappers.put(snapperId, board);
+        }
+
+        return board.top(n);
+    }
+
+    /**
+     * Offers a photo to the boards with its current views, including the ones
+     * that have not been flushed yet
+     *
+     * @param photo the photo
+     */
+    public void record(Photo photo) {
+        PhotoSummary summary = new PhotoSummary(photo);
+        Leaderboard board = snappers.getIfPresent(photo.getSnapperId());
+
+        if (global != null) {
+            global.offer(summary);
+        }
+
+        if (board != null) {
+            board.offer(summary);
+        }
+    }
+
+    /**
+     * Adds a view to a photo on the overall board and on the board of its
+     * snapper, whichever of them holds it. Photos that are on neither get in the
+     * next time they are {@link #record(Photo) recorded}.
+     * <p>
+     * When the snapper is not known, it is taken from the overall board or,
+     * failing that, the board of the snapper is searched for among the ones kept
+     * in memory.
+     *
+     * @param photoId   the photo id
+     * @param snapperId the snapper of the photo, {@code null} when not known
+     */
+    public void increment(Long photoId, Long snapperId) {
+        Optional<PhotoSummary> ranked = (global == null) ? Optional.empty() : global.increment(photoId, 1);
+        Long owner = ranked.map(PhotoSummary::getSnapperId).orElse(snapperId);
+
+        if (owner != null) {
+            Leaderboard board = snappers.getIfPresent(owner);
+
+            if (board != null) {
+                board.increment(photoId, 1);
+            }
+
+            return;
+        }
+
+        for (Leaderboard board : snappers.asMap().values()) {
+            if (board.increment(photoId, 1).isPresent()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Changes the title of a photo on the boards it is a member of, after it was
+     * updated without being loaded
+     *
+     * @param photoId   the photo id
+     * @param title     the new title
+     * @param updatedAt the new update date
+     */
+    public void retitle(Long photoId, String title, Date updatedAt) {
+        List<Leaderboard> boards = new ArrayList<>(snappers.asMap().values());
+
+        if (global != null) {
+            boards.add(global);
+        }
+
+        for (Leaderboard board : boards) {
+            board.get(photoId).ifPresent(current -> board.offer(new PhotoSummary(photoId, title, current.getUrl(),
+                    current.getViews(), current.getSnapperId(), current.getCreatedAt(), updatedAt)));
+        }
+    }
+
+    /**
+     * Removes a deleted photo from the boards
+     *
+     * @param photoId the photo id
+     */
+    public void remove(Long photoId) {
+        if (global != null) {
+            global.remove(photoId);
+        }
+
+        snappers.asMap().values().forEach(board -> board.remove(photoId));
+    }
+
+    /**
+     * Loads the most viewed photos from the repository
+     *
+     * @param snapperId the snapper, {@code null} for every photo
+     * @param limit     the number of photos
+     * @return the photos, with the views that have not been flushed yet
+     */
+    private List<PhotoSummary> load(Long snapperId, int limit) {
+        Pageable pageable = PageRequest.of(0, limit, MOST_VIEWED);
+        List<PhotoSummary> photos = (snapperId == null) ? photoRepository.findSummarySlice(pageable).getContent()
+                : photoRepository.findSummariesBySnapperId(snapperId, pageable);
+
+        return photos.stream()
+                .map(photo -> photo.withViews(photo.getViews() + viewCounterService.getPending(photo.getPhotoId())))
+                .collect(Collectors.toList());
+    }
+
+}
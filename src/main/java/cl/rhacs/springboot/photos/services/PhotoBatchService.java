@@ -0,0 +1,272 @@
+package cl.rhacs.springboot.photos.services;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cl.rhacs.springboot.photos.exceptions.DuplicateValueException;
+import cl.rhacs.springboot.photos.models.BatchItemResult;
+import cl.rhacs.springboot.photos.models.BatchResponse;
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.errors.DetailedError;
+
+/**
+ * Inserts large amounts of {@link Photo}s using JDBC batching. The photos are
+ * validated one by one, including the uniqueness of their urls, and the valid
+ * ones are persisted in chunks, each chunk on its own transaction, so a
+ * failing chunk does not roll back the rest of the import. The photos of a
+ * failing chunk are inserted again one at a time, so only the ones that fail
+ * on their own are reported.
+ */
+@Service
+public class PhotoBatchService {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PhotoBatchService.class);
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PhotoCountService photoCountService;
+
+    @Autowired
+    private PhotoSearchService photoSearchService;
+
+    @Autowired
+    private UniquenessService uniquenessService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private PhotoPageCacheService photoPageCacheService;
+
+    @Value("${photos.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${photos.batch.jdbc-batch-size:100}")
+    private int jdbcBatchSize;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Validates and inserts the photos
+     *
+     * @param photos the photos to insert
+     * @return the result of every photo, in the same order
+     */
+    public BatchResponse insertAll(Iterator<Photo> photos) {
+        BatchResponse response = new BatchResponse();
+        List<Photo> chunk = new ArrayList<>(chunkSize);
+        List<BatchItemResult> chunkResults = new ArrayList<>(chunkSize);
+        Set<String> urls = new HashSet<>();
+        int index = 0;
+
+        while (photos.hasNext()) {
+            Photo photo = photos.next();
+            BatchItemResult result = validate(index++, photo, urls);
+
+            if (result != null) {
+                response.addResult(result);
+                continue;
+            }
+
+            chunk.add(photo);
+            chunkResults.add(new BatchItemResult(index - 1, BatchItemResult.CREATED));
+
+            if (chunk.size() == chunkSize) {
+                insertChunk(chunk, chunkResults, response);
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, chunkResults, response);
+        }
+
+        response.getResults().sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        photoCountService.adjust(response.getCreated());
+        photoPageCacheService.invalidate();
+
+        return response;
+    }
+
+    /**
+     * Validates a photo of the batch, and checks that its url is neither in use
+     * nor taken by a previous photo of the batch
+     *
+     * @param index the position of the photo on the batch
+     * @param photo the photo
+     * @param urls  the urls of the valid photos of the batch so far
+     * @return the failed result, or {@code null} when the photo is valid
+     */
+    private BatchItemResult validate(int index, Photo photo, Set<String> urls) {
+        Set<DetailedError> errors = new HashSet<>();
+
+        if (photo == null) {
+            errors.add(new DetailedError("photo", "must not be null"));
+        } else {
+            for (ConstraintViolation<Photo> violation : validator.validate(photo)) {
+                errors.add(new DetailedError(violation.getPropertyPath().toString(), violation.getMessage(),
+                        Photo.class.getSimpleName(), violation.getInvalidValue()));
+            }
+
+            if (photo.getSnapperId() == null) {
+                errors.add(new DetailedError("snapperId", "must not be null", Photo.class.getSimpleName(), null));
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            BatchItemResult result = new BatchItemResult(index, BatchItemResult.INVALID);
+            result.setMessage("Validation error");
+            result.setErrors(errors);
+
+            return result;
+        }
+
+        try {
+            if (urls.contains(photo.getUrl())) {
+                throw new DuplicateValueException(Photo.class.getSimpleName(), "url", photo.getUrl());
+            }
+
+            uniquenessService.requireUnique(photo);
+        } catch (DuplicateValueException e) {
+            BatchItemResult result = new BatchItemResult(index, BatchItemResult.INVALID);
+            duplicated(result, e);
+
+            return result;
+        }
+
+        urls.add(photo.getUrl());
+
+        return null;
+    }
+
+    /**
+     * Persists a chunk of photos on its own transaction and clears the persistence
+     * context afterwards. When the chunk fails, its photos are persisted again one
+     * at a time
+     *
+     * @param chunk    the photos
+     * @param results  the results of the photos
+     * @param response the batch response
+     */
+    private void insertChunk(List<Photo> chunk, List<BatchItemResult> results, BatchResponse response) {
+        try {
+            persist(chunk);
+
+            for (int i = 0; i < chunk.size(); i++) {
+                created(chunk.get(i), results.get(i));
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not insert a chunk of {} photos, inserting them one at a time", chunk.size(), e);
+
+            for (int i = 0; i < chunk.size(); i++) {
+                insertOne(chunk.get(i), results.get(i));
+            }
+        }
+
+        results.forEach(response::addResult);
+        chunk.clear();
+        results.clear();
+    }
+
+    /**
+     * Persists a photo of a failed chunk on its own transaction. A copy is
+     * persisted, since the photo kept the id it got on the rolled back chunk
+     *
+     * @param photo  the photo
+     * @param result the result of the photo
+     */
+    private void insertOne(Photo photo, BatchItemResult result) {
+        Photo copy = new Photo(photo.getTitle(), photo.getDescription(), photo.getUrl());
+        copy.setSnapperId(photo.getSnapperId());
+
+        try {
+            persist(List.of(copy));
+            created(copy, result);
+        } catch (RuntimeException e) {
+            try {
+                // a concurrent request may have taken the url after the check
+                uniquenessService.verifyUnique(copy);
+                result.setStatus(BatchItemResult.FAILED);
+                result.setMessage(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            } catch (DuplicateValueException duplicate) {
+                duplicated(result, duplicate);
+            }
+        }
+    }
+
+    /**
+     * Persists photos on a new transaction, using JDBC batching
+     *
+     * @param photos the photos
+     */
+    private void persist(List<Photo> photos) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            photos.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    /**
+     * Completes the result of a persisted photo and brings the in-memory
+     * structures up to date
+     *
+     * @param photo  the persisted photo
+     * @param result the result of the photo
+     */
+    private void created(Photo photo, BatchItemResult result) {
+        result.setId(photo.getPhotoId());
+        photoSearchService.index(photo);
+        uniquenessService.add(photo);
+        leaderboardService.record(photo);
+    }
+
+    /**
+     * Reports a photo whose url is already in use
+     *
+     * @param result    the result of the photo
+     * @param exception the duplicated value
+     */
+    private static void duplicated(BatchItemResult result, DuplicateValueException exception) {
+        Set<DetailedError> errors = new HashSet<>();
+        errors.add(new DetailedError(exception.getField(), "must be unique", exception.getObjectName(),
+                exception.getValue()));
+
+        result.setStatus(BatchItemResult.INVALID);
+        result.setMessage(exception.getMessage());
+        result.setErrors(errors);
+    }
+
+}
@@ -0,0 +1,129 @@
+package cl.rhacs.springboot.photos.services;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import javax.annotation.PostConstruct;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through cache of {@link Photo} snapshots keyed by photo id.
+ * <p>
+ * The cache is bounded by the estimated weight of its entries and evicts using
+ * Caffeine's W-TinyLFU policy. Entries expire {@code photos.cache.ttl} after
+ * being written, which bounds how stale a snapshot can get; the write paths of
+ * the API refresh or invalidate the entries as soon as they change.
+ */
+@Service
+public class PhotoCacheService implements MeterBinder {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Estimated size of a snapshot without its strings, in bytes
+     */
+    private static final int BASE_WEIGHT = 128;
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Value("${photos.cache.maximum-weight:67108864}")
+    private long maximumWeight;
+
+    @Value("${photos.cache.ttl:PT5M}")
+    private Duration ttl;
+
+    private LoadingCache<Long, Photo> cache;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Builds the cache once the properties are injected
+     */
+    @PostConstruct
+    public void initialize() {
+        cache = Caffeine.newBuilder().maximumWeight(maximumWeight).weigher(PhotoCacheService::weigh)
+                .expireAfterWrite(ttl).recordStats()
+                .build(id -> photoRepository.findById(id).map(Photo::new).orElse(null));
+    }
+
+    /**
+     * Retrieves a copy of the cached {@link Photo}, loading it from the repository
+     * on a miss
+     *
+     * @param photoId the photo id
+     * @return the photo if exists
+     */
+    public Optional<Photo> findById(Long photoId) {
+        return Optional.ofNullable(cache.get(photoId)).map(Photo::new);
+    }
+
+    /**
+     * Retrieves a copy of the cached {@link Photo} without loading it on a miss
+     *
+     * @param photoId the photo id
+     * @return the photo if it is cached
+     */
+    public Optional<Photo> getIfPresent(Long photoId) {
+        return Optional.ofNullable(cache.getIfPresent(photoId)).map(Photo::new);
+    }
+
+    /**
+     * Stores a snapshot of the {@link Photo} after it was inserted or updated
+     *
+     * @param photo the persisted photo
+     */
+    public void put(Photo photo) {
+        cache.put(photo.getPhotoId(), new Photo(photo));
+    }
+
+    /**
+     * Removes the {@link Photo} from the cache
+     *
+     * @param photoId the photo id
+     */
+    public void invalidate(Long photoId) {
+        cache.invalidate(photoId);
+    }
+
+    /**
+     * Estimates the memory used by a snapshot
+     *
+     * @param photoId the photo id
+     * @param photo   the snapshot
+     * @return the estimated size, in bytes
+     */
+    private static int weigh(Long photoId, Photo photo) {
+        return BASE_WEIGHT + length(photo.getTitle()) + length(photo.getDescription()) + length(photo.getUrl());
+    }
+
+    private static int length(String value) {
+        return (value == null) ? 0 : value.length();
+    }
+
+    // Inheritances (MeterBinder)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "photos");
+    }
+
+}
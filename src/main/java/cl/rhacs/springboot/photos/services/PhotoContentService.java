@@ -0,0 +1,315 @@
+package cl.rhacs.springboot.photos.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Optional;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import cl.rhacs.springboot.photos.content.ImageType;
+import cl.rhacs.springboot.photos.models.Photo;
+
+/**
+ * Stores the image of every {@link Photo} as a file on the local disk, under
+ * {@code photos.content.directory}.
+ * <p>
+ * The files are sharded on two levels of 256 directories by the low bytes of
+ * the photo id, so consecutive ids land on different directories and a
+ * directory holds one of every 65536 photos. An upload is written to a
+ * temporary file and moved into place atomically, so a reader sees either the
+ * previous image or the new one, never a partial file.
+ */
+@Service
+public class PhotoContentService {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PhotoContentService.class);
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Value("${photos.content.directory:content}")
+    private Path directory;
+
+    @Value("${photos.content.max-size:20MB}")
+    private DataSize maxSize;
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the root directory of the files
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates the root directory once the properties are injected
+     *
+     * @throws IOException when the directory cannot be created
+     */
+    @PostConstruct
+    public void initialize() throws IOException {
+        directory = Files.createDirectories(directory.toAbsolutePath());
+    }
+
+    /**
+     * Resolves the file of a photo
+     *
+     * @param photoId the photo id
+     * @return the path of the file, which may not exist
+     */
+    public Path resolve(Long photoId) {
+        return directory.resolve(String.format("%02x", photoId & 0xff))
+                .resolve(String.format("%02x", (photoId >>> 8) & 0xff)).resolve(String.valueOf(photoId));
+    }
+
+    /**
+     * Opens the file of a photo
+     *
+     * @param photoId the photo id
+     * @return the open content, empty when the photo has no image
+     * @throws IOException when the file cannot be read
+     */
+    public Optional<Content> open(Long photoId) throws IOException {
+        Path path = resolve(photoId);
+        FileChannel channel;
+
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+
+        try {
+            Instant lastModified = Files.getLastModifiedTime(path).toInstant();
+            ByteBuffer header = ByteBuffer.allocate(ImageType.SIGNATURE_LENGTH);
+
+            channel.read(header, 0);
+            header.flip();
+
+            return Optional.of(new Content(photoId, path, channel, channel.size(), lastModified,
+                    ImageType.of(header).orElse(null)));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes an uploaded image to a temporary file, to be moved into place with
+     * {@link #store(Long, Path)} or deleted with {@link #discard(Path)}
+     *
+     * @param body the uploaded bytes
+     * @return the temporary file
+     * @throws IOException              when the file cannot be written
+     * @throws IllegalArgumentException when the upload is empty, larger than
+     *                                  {@code photos.content.max-size} or not a
+     *                                  known image
+     */
+    public Path upload(InputStream body) throws IOException, IllegalArgumentException {
+        Path upload = Files.createTempFile(directory, "upload-", ".tmp");
+
+        try (FileChannel channel = FileChannel.open(upload, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ReadableByteChannel source = Channels.newChannel(body);
+            long limit = maxSize.toBytes();
+            long size = 0;
+            long transferred;
+
+            // One byte past the limit tells a file of the maximum size from a larger one
+            while (size <= limit && (transferred = channel.transferFrom(source, size, limit + 1 - size)) > 0) {
+                size += transferred;
+            }
+
+            if (size == 0 || size > limit) {
+                throw new IllegalArgumentException(
+                        String.format("The content must have between 1 byte and %s", maxSize));
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(ImageType.SIGNATURE_LENGTH);
+            channel.read(header, 0);
+            header.flip();
+
+            if (ImageType.of(header).isEmpty()) {
+                throw new IllegalArgumentException("The content must be a JPEG, PNG, GIF or WebP image");
+            }
+
+            return upload;
+        } catch (IOException | RuntimeException e) {
+            discard(upload);
+            throw e;
+        }
+    }
+
+    /**
+     * Moves an upload into place, replacing the previous image of the photo
+     *
+     * @param photoId the photo id
+     * @param upload  the temporary file returned by {@link #upload(InputStream)}
+     * @throws UncheckedIOException when the file cannot be moved
+     */
+    public void store(Long photoId, Path upload) throws UncheckedIOException {
+        Path path = resolve(photoId);
+
+        try {
+            Files.createDirectories(path.getParent());
+            Files.move(upload, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes an upload that will not be stored. Nothing happens when it was
+     * already moved into place
+     *
+     * @param upload the temporary file
+     */
+    public void discard(Path upload) {
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete the upload {}", upload, e);
+        }
+    }
+
+    /**
+     * Deletes the image of a photo, if it has one
+     *
+     * @param photoId the photo id
+     */
+    public void delete(Long photoId) {
+        try {
+            Files.deleteIfExists(resolve(photoId));
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete the content of the photo {}", photoId, e);
+        }
+    }
+
+    // Content
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * An open image file. The size, the modification time and the format are
+     * read once, when it is opened
+     */
+    public static final class Content implements Closeable {
+
+        private final Long photoId;
+
+        private final Path path;
+
+        private final FileChannel channel;
+
+        private final long size;
+
+        private final Instant lastModified;
+
+        private final ImageType type;
+
+        private Content(Long photoId, Path path, FileChannel channel, long size, Instant lastModified,
+                ImageType type) {
+            this.photoId = photoId;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.type = type;
+        }
+
+        /**
+         * @return the path of the file
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * @return the size in bytes
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return the last modification time, in millis
+         */
+        public long getLastModified() {
+            return lastModified.toEpochMilli();
+        }
+
+        /**
+         * @return the content type, {@code application/octet-stream} when the file
+         *         is not a known image
+         */
+        public String getContentType() {
+            return (type == null) ? "application/octet-stream" : type.getContentType();
+        }
+
+        /**
+         * @return the strong entity tag, which changes with every upload
+         */
+        public String getETag() {
+            return String.format("\"%d-%x-%x-%x\"", photoId, size, lastModified.getEpochSecond(),
+                    lastModified.getNano());
+        }
+
+        /**
+         * Writes a range of the file with {@link FileChannel#transferTo}, which
+         * hands the copy to the kernel when the target is a file or a socket
+         *
+         * @param start  the first byte
+         * @param length the number of bytes
+         * @param output the target
+         * @throws IOException when the file cannot be read or the output written
+         */
+        public void transferTo(long start, long length, OutputStream output) throws IOException {
+            WritableByteChannel target = Channels.newChannel(output);
+            long position = start;
+            long end = start + length;
+            long transferred;
+
+            // Stops short if the file was truncated meanwhile, the client sees a short
+            // response instead of hanging
+            while (position < end && (transferred = channel.transferTo(position, end - position, target)) > 0) {
+                position += transferred;
+            }
+        }
+
+        // Inheritances (Closeable)
+        // -------------------------------------------------------------------------------------
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,72 @@
+package cl.rhacs.springboot.photos.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+
+/**
+ * Keeps an approximate number of {@link cl.rhacs.springboot.photos.models.Photo}s
+ * stored in the repository, so the listings can report totals without running
+ * a {@code COUNT(*)} on every request.
+ * <p>
+ * The value is adjusted by the inserts and deletes made through the API and
+ * refreshed every {@code photos.count.refresh-interval} milliseconds to correct
+ * any drift.
+ */
+@Service
+public class PhotoCountService {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final long UNKNOWN = -1;
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    private final AtomicLong count = new AtomicLong(UNKNOWN);
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Retrieves the approximate number of photos, counting them if the value was
+     * never loaded
+     *
+     * @return the approximate number of photos
+     */
+    public long getApproximateCount() {
+        long current = count.get();
+        return (current == UNKNOWN) ? refresh() : current;
+    }
+
+    /**
+     * Counts the photos stored in the repository
+     *
+     * @return the number of photos
+     */
+    @Scheduled(fixedDelayString = "${photos.count.refresh-interval:60000}")
+    public long refresh() {
+        long current = photoRepository.count();
+        count.set(current);
+
+        return current;
+    }
+
+    /**
+     * Adjusts the approximate count after photos are inserted or deleted
+     *
+     * @param delta the number of photos inserted, negative when deleted
+     */
+    public void adjust(long delta) {
+        count.getAndUpdate(current -> (current == UNKNOWN) ? UNKNOWN : Math.max(0, current + delta));
+    }
+
+}
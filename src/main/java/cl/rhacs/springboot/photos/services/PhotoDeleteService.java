@@ -0,0 +1,157 @@
+package cl.rhacs.springboot.photos.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cl.rhacs.springboot.photos.models.DeleteResponse;
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+
+/**
+ * Deletes {@link Photo}s without loading them, and removes them from the
+ * caches, the search index, the leaderboards and the count, along with their
+ * images.
+ * <p>
+ * Many photos are deleted in chunks of {@code photos.delete.chunk-size}, each
+ * chunk on its own transaction, so the row locks are held briefly and a large
+ * delete does not stall the writers of the same photos. A failing chunk stops
+ * the delete, leaving the previous chunks deleted.
+ */
+@Service
+public class PhotoDeleteService {
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PhotoCountService photoCountService;
+
+    @Autowired
+    private PhotoCacheService photoCacheService;
+
+    @Autowired
+    private PhotoPageCacheService photoPageCacheService;
+
+    @Autowired
+    private PhotoSearchService photoSearchService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private PhotoContentService photoContentService;
+
+    @Value("${photos.delete.chunk-size:500}")
+    private int chunkSize;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Deletes a photo with a single statement
+     *
+     * @param photoId the photo id
+     * @return whether the photo existed
+     */
+    public boolean delete(Long photoId) {
+        if (photoRepository.deleteByPhotoId(photoId) == 0) {
+            return false;
+        }
+
+        deleted(List.of(photoId), 1);
+        photoPageCacheService.invalidate();
+
+        return true;
+    }
+
+    /**
+     * Deletes the specified photos
+     *
+     * @param photoIds the photo ids
+     * @return the number of requested and deleted photos
+     */
+    public DeleteResponse deleteAll(Collection<Long> photoIds) {
+        List<Long> unique = new ArrayList<>(new LinkedHashSet<>(photoIds));
+        DeleteResponse response = new DeleteResponse(unique.size());
+
+        try {
+            for (int from = 0; from < unique.size(); from += chunkSize) {
+                List<Long> chunk = unique.subList(from, Math.min(unique.size(), from + chunkSize));
+                int count = transactionTemplate.execute(status -> photoRepository.deleteByPhotoIdIn(chunk));
+
+                response.addChunk(count);
+                deleted(chunk, count);
+            }
+        } finally {
+            photoPageCacheService.invalidate();
+        }
+
+        return response;
+    }
+
+    /**
+     * Deletes every photo of a snapper, reading the ids of each chunk on the same
+     * transaction that deletes it
+     *
+     * @param snapperId the snapper id
+     * @return the number of deleted photos
+     */
+    public DeleteResponse deleteBySnapperId(Long snapperId) {
+        DeleteResponse response = new DeleteResponse();
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+
+        try {
+            while (true) {
+                List<Long> photoIds = new ArrayList<>();
+                int count = transactionTemplate.execute(status -> {
+                    photoIds.addAll(photoRepository.findPhotoIdsBySnapperId(snapperId, chunk));
+                    return photoIds.isEmpty() ? 0 : photoRepository.deleteByPhotoIdIn(photoIds);
+                });
+
+                if (photoIds.isEmpty()) {
+                    break;
+                }
+
+                response.addChunk(count);
+                deleted(photoIds, count);
+            }
+        } finally {
+            photoPageCacheService.invalidate();
+        }
+
+        return response;
+    }
+
+    /**
+     * Removes deleted photos from the in-memory structures. The photos that were
+     * already gone are removed too, which is harmless
+     *
+     * @param photoIds the photo ids
+     * @param count    the number of photos actually deleted
+     */
+    private void deleted(List<Long> photoIds, int count) {
+        photoCountService.adjust(-count);
+
+        for (Long photoId : photoIds) {
+            photoCacheService.invalidate(photoId);
+            photoSearchService.remove(photoId);
+            leaderboardService.remove(photoId);
+            photoContentService.delete(photoId);
+        }
+    }
+
+}
@@ -0,0 +1,316 @@
+package cl.rhacs.springboot.photos.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PostConstruct;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import cl.rhacs.springboot.photos.models.PageableResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache of the first pages of the photo listing, rendered to JSON bytes.
+ * <p>
+ * A page is keyed by its number, size and sorting, and is stored with its
+ * entity tag, its serialized {@link PageableResponse} and, when it pays off, a
+ * gzipped copy, so a hit is written to the response as it is, without querying
+ * nor serializing again.
+ * <p>
+ * Every page remembers the version stamp it was rendered under. The write paths
+ * of the API {@link #invalidate() bump} the stamp after changing the photos,
+ * which turns every cached page stale at once; a stale page is dropped on its
+ * next lookup. The views are flushed without bumping the stamp, so entries also
+ * expire {@code photos.page-cache.ttl} after being written, which bounds how
+ * stale their views can get.
+ */
+@Service
+public class PhotoPageCacheService implements MeterBinder {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Estimated size of an entry without its bytes, in bytes
+     */
+    private static final int BASE_WEIGHT = 192;
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${photos.page-cache.max-pages:5}")
+    private int maxPages;
+
+    @Value("${photos.page-cache.max-size:100}")
+    private int maxSize;
+
+    @Value("${photos.page-cache.gzip:true}")
+    private boolean gzip;
+
+    @Value("${photos.page-cache.maximum-weight:16777216}")
+    private long maximumWeight;
+
+    @Value("${photos.page-cache.ttl:PT30S}")
+    private Duration ttl;
+
+    private Cache<Key, RenderedPage> cache;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder stale = new LongAdder();
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the current version stamp, to be read before querying a page that
+     *         will be {@link #put(Pageable, long, PageableResponse, String) put}
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Builds the cache once the properties are injected
+     */
+    @PostConstruct
+    public void initialize() {
+        cache = Caffeine.newBuilder().maximumWeight(maximumWeight).weigher(PhotoPageCacheService::weigh)
+                .expireAfterWrite(ttl).recordStats().build();
+    }
+
+    /**
+     * Tells whether a page is one of the hot pages that are cached
+     *
+     * @param pageable the page, size and sorting
+     * @return whether the page can be cached
+     */
+    public boolean isCacheable(Pageable pageable) {
+        return pageable.getPageNumber() < maxPages && pageable.getPageSize() <= maxSize
+                && pageable.getSort().isSorted();
+    }
+
+    /**
+     * Retrieves a cached page rendered under the current version stamp
+     *
+     * @param pageable the page, size and sorting
+     * @return the rendered page if it is cached and fresh
+     */
+    public Optional<RenderedPage> getIfPresent(Pageable pageable) {
+        Key key = new Key(pageable);
+        RenderedPage page = cache.getIfPresent(key);
+
+        if (page == null) {
+            return Optional.empty();
+        }
+
+        if (page.version != version.get()) {
+            stale.increment();
+            cache.asMap().remove(key, page);
+
+            return Optional.empty();
+        }
+
+        return Optional.of(page);
+    }
+
+    /**
+     * Renders a page and stores it, unless the photos changed since it was queried
+     *
+     * @param pageable the page, size and sorting
+     * @param version  the version stamp read before querying the page
+     * @param response the page
+     * @param eTag     the entity tag of the page
+     * @return the rendered page
+     * @throws UncheckedIOException when the page can not be serialized
+     */
+    public RenderedPage put(Pageable pageable, long version, PageableResponse response, String eTag)
+            throws UncheckedIOException {
+        RenderedPage page = render(version, response, eTag);
+
+        if (version == this.version.get()) {
+            cache.put(new Key(pageable), page);
+        }
+
+        return page;
+    }
+
+    /**
+     * Bumps the version stamp after photos were inserted, updated or deleted,
+     * which turns every cached page stale
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Serializes a page and gzips it when enabled and smaller
+     *
+     * @param version  the version stamp the page was queried under
+     * @param response the page
+     * @param eTag     the entity tag of the page
+     * @return the rendered page
+     * @throws UncheckedIOException when the page can not be serialized
+     */
+    private RenderedPage render(long version, PageableResponse response, String eTag) throws UncheckedIOException {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            byte[] gzipped = null;
+
+            if (gzip) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+
+                try (GZIPOutputStream output = new GZIPOutputStream(buffer)) {
+                    output.write(json);
+                }
+
+                gzipped = (buffer.size() < json.length) ? buffer.toByteArray() : null;
+            }
+
+            return new RenderedPage(version, eTag, json, gzipped);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not render a page of photos", e);
+        }
+    }
+
+    /**
+     * Estimates the memory used by a rendered page
+     *
+     * @param key  the key
+     * @param page the rendered page
+     * @return the estimated size, in bytes
+     */
+    private static int weigh(Key key, RenderedPage page) {
+        return BASE_WEIGHT + page.json.length + ((page.gzipped == null) ? 0 : page.gzipped.length);
+    }
+
+    // Inheritances (MeterBinder)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "photo-pages");
+        FunctionCounter.builder("photos.page-cache.stale", stale, LongAdder::sum)
+                .description("Cached pages dropped because the photos changed").register(registry);
+    }
+
+    // Key
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * The number, size and sorting of a page
+     */
+    private static final class Key {
+
+        private final int page;
+
+        private final int size;
+
+        private final String sortBy;
+
+        private final Sort.Direction sortOrder;
+
+        private Key(Pageable pageable) {
+            Sort.Order order = pageable.getSort().iterator().next();
+
+            this.page = pageable.getPageNumber();
+            this.size = pageable.getPageSize();
+            this.sortBy = order.getProperty();
+            this.sortOrder = order.getDirection();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+
+            return page == other.page && size == other.size && sortBy.equals(other.sortBy)
+                    && sortOrder == other.sortOrder;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(page, size, sortBy, sortOrder);
+        }
+
+    }
+
+    // Rendered Page
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * A page serialized to JSON, with its entity tag
+     */
+    public static final class RenderedPage {
+
+        private final long version;
+
+        private final String eTag;
+
+        private final byte[] json;
+
+        private final byte[] gzipped;
+
+        private RenderedPage(long version, String eTag, byte[] json, byte[] gzipped) {
+            this.version = version;
+            this.eTag = eTag;
+            this.json = json;
+            this.gzipped = gzipped;
+        }
+
+        /**
+         * @return the eTag
+         */
+        public String getETag() {
+            return eTag;
+        }
+
+        /**
+         * @return the JSON bytes
+         */
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * @return the gzipped JSON bytes, {@code null} when they are not smaller
+         */
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+
+    }
+
+}
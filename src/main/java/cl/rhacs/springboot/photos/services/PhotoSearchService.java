@@ -0,0 +1,195 @@
+package cl.rhacs.springboot.photos.services;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+import cl.rhacs.springboot.photos.search.InvertedIndex;
+import cl.rhacs.springboot.photos.search.SearchResults;
+import cl.rhacs.springboot.photos.search.Tokenizer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Full-text search over the title and description of the {@link Photo}s,
+ * served from an {@link InvertedIndex}.
+ * <p>
+ * The index is built once the application is ready by streaming the photos
+ * table, and the write paths of the API keep it current. A photo changed while
+ * the index is being built is not overwritten with the older row the stream
+ * may still return.
+ */
+@Service
+public class PhotoSearchService implements MeterBinder {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PhotoSearchService.class);
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${photos.search.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${photos.search.max-depth:1000}")
+    private int maxDepth;
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    private final Set<Long> changedWhileBuilding = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean building;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Indexes every photo of the repository
+     *
+     * @return the number of indexed photos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public int build() {
+        long start = System.currentTimeMillis();
+        building = true;
+
+        try (Stream<Photo> photos = photoRepository.streamAll(fetchSize)) {
+            photos.forEach(photo -> {
+                if (!changedWhileBuilding.contains(photo.getPhotoId())) {
+                    index.add(photo.getPhotoId(), photo.getTitle(), photo.getDescription());
+                }
+
+                entityManager.detach(photo);
+            });
+        } finally {
+            building = false;
+            changedWhileBuilding.clear();
+        }
+
+        LOGGER.info("Indexed {} photos and {} terms in {} ms", index.size(), index.terms(),
+                System.currentTimeMillis() - start);
+
+        return index.size();
+    }
+
+    /**
+     * Indexes a photo after it was inserted or updated
+     *
+     * @param photo the persisted photo
+     */
+    public void index(Photo photo) {
+        index(photo.getPhotoId(), photo.getTitle(), photo.getDescription());
+    }
+
+    /**
+     * Indexes a photo inserted without going through the persistence context
+     *
+     * @param photoId     the photo id
+     * @param title       the title
+     * @param description the description, may be {@code null}
+     */
+    public void index(Long photoId, String title, String description) {
+        if (building) {
+            changedWhileBuilding.add(photoId);
+        }
+
+        index.add(photoId, title, description);
+    }
+
+    /**
+     * Reads a photo and indexes it again, after some of its fields were updated
+     * without loading it
+     *
+     * @param photoId the photo id
+     */
+    @Transactional(readOnly = true)
+    public void reindex(Long photoId) {
+        photoRepository.findById(photoId).ifPresent(photo -> {
+            index(photo);
+            entityManager.detach(photo);
+        });
+    }
+
+    /**
+     * Removes a photo from the index after it was deleted
+     *
+     * @param photoId the photo id
+     */
+    public void remove(Long photoId) {
+        if (building) {
+            changedWhileBuilding.add(photoId);
+        }
+
+        index.remove(photoId);
+    }
+
+    /**
+     * Searches the photos
+     *
+     * @param query the words to look for; the last letters of a word may be
+     *              missing
+     * @param page  the solicited page
+     * @param size  the number of items per page
+     * @return the page of matches
+     * @throws IllegalArgumentException when the query has no searchable words,
+     *                                  the page or size are not valid, or the page
+     *                                  reaches past {@code photos.search.max-depth}
+     *                                  matches
+     */
+    public SearchResults search(String query, int page, int size) throws IllegalArgumentException {
+        if (Tokenizer.tokenize(query).isEmpty()) {
+            throw new IllegalArgumentException(String.format(
+                    "'%s' has nothing to search for. Words must have at least %d letters or digits.", query,
+                    Tokenizer.MIN_LENGTH));
+        }
+
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Page index must not be less than zero and page size must not be "
+                    + "less than one");
+        }
+
+        // the index keeps the best offset + size matches to cut a page out of them
+        if ((long) page * size + size > maxDepth) {
+            throw new IllegalArgumentException(
+                    String.format("Only the first %d matches can be paged through", maxDepth));
+        }
+
+        return index.search(query, page * size, size);
+    }
+
+    // Inheritances (MeterBinder)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("photos.search.documents", index, InvertedIndex::size)
+                .description("Photos in the full-text index").register(registry);
+        Gauge.builder("photos.search.terms", index, InvertedIndex::terms)
+                .description("Distinct terms in the full-text index").register(registry);
+    }
+
+}
@@ -0,0 +1,270 @@
+package cl.rhacs.springboot.photos.services;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import cl.rhacs.springboot.photos.exceptions.DuplicateValueException;
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.Snapper;
+import cl.rhacs.springboot.photos.models.SnapperSummary;
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+import cl.rhacs.springboot.photos.repositories.SnapperRepository;
+import cl.rhacs.springboot.photos.uniqueness.ScalableBloomFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Checks the unique columns of the new {@link Photo}s and {@link Snapper}s
+ * before inserting them, so a duplicate is answered with a conflict instead of
+ * a failed insert.
+ * <p>
+ * Every unique column has a {@link ScalableBloomFilter} of its values, built
+ * once the application is ready by streaming the tables and updated on every
+ * insert. A value the filter never saw is new and costs no query; only the
+ * values it may have seen are looked up. Until the filters are built every
+ * value is looked up.
+ * <p>
+ * The filters hold the values in lower case, as the unique indexes of MySQL
+ * ignore the case. Deleted values stay in the filters and are only looked up
+ * again.
+ */
+@Service
+public class UniquenessService implements MeterBinder {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UniquenessService.class);
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private SnapperRepository snapperRepository;
+
+    @Value("${photos.uniqueness.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    @Value("${photos.uniqueness.false-positive-probability:0.01}")
+    private double falsePositiveProbability;
+
+    @Value("${photos.uniqueness.fetch-size:1000}")
+    private int fetchSize;
+
+    private UniqueColumn urls;
+
+    private UniqueColumn usernames;
+
+    private UniqueColumn emails;
+
+    private volatile boolean ready;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates the empty filters once the properties are injected
+     */
+    @PostConstruct
+    public void initialize() {
+        urls = new UniqueColumn(Photo.class, "url", url -> photoRepository.findByUrl(url).isPresent());
+        usernames = new UniqueColumn(Snapper.class, "username",
+                username -> snapperRepository.findByUsername(username).isPresent());
+        emails = new UniqueColumn(Snapper.class, "email", email -> snapperRepository.findByEmail(email).isPresent());
+    }
+
+    /**
+     * Adds the values of the unique columns to the filters
+     *
+     * @return the number of values read
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public long build() {
+        long start = System.currentTimeMillis();
+        LongAdder values = new LongAdder();
+
+        try (Stream<String> photoUrls = photoRepository.streamAllUrls(fetchSize)) {
+            photoUrls.forEach(url -> {
+                urls.add(url);
+                values.increment();
+            });
+        }
+
+        try (Stream<SnapperSummary> snappers = snapperRepository.streamAllSummaries(fetchSize)) {
+            snappers.forEach(snapper -> {
+                usernames.add(snapper.getUsername());
+                emails.add(snapper.getEmail());
+                values.add(2);
+            });
+        }
+
+        ready = true;
+        LOGGER.info("Loaded {} unique values in {} ms", values.sum(), System.currentTimeMillis() - start);
+
+        return values.sum();
+    }
+
+    /**
+     * Checks that the url of a new photo is not in use
+     *
+     * @param photo the new photo
+     * @throws DuplicateValueException when the url is in use
+     */
+    public void requireUnique(Photo photo) throws DuplicateValueException {
+        urls.require(photo.getUrl(), true);
+    }
+
+    /**
+     * Checks that the username and the email address of a new snapper are not in
+     * use
+     *
+     * @param snapper the new snapper
+     * @throws DuplicateValueException when the username or the email address are
+     *                                 in use
+     */
+    public void requireUnique(Snapper snapper) throws DuplicateValueException {
+        usernames.require(snapper.getUsername(), true);
+        emails.require(snapper.getEmail(), true);
+    }
+
+    /**
+     * Looks up the url of a photo that failed to be inserted, which tells a url
+     * taken by a concurrent insert from other integrity violations
+     *
+     * @param photo the photo
+     * @throws DuplicateValueException when the url is in use
+     */
+    public void verifyUnique(Photo photo) throws DuplicateValueException {
+        urls.require(photo.getUrl(), false);
+    }
+
+    /**
+     * Looks up the username and the email address of a snapper that failed to be
+     * inserted, which tells values taken by a concurrent insert from other
+     * integrity violations
+     *
+     * @param snapper the snapper
+     * @throws DuplicateValueException when the username or the email address are
+     *                                 in use
+     */
+    public void verifyUnique(Snapper snapper) throws DuplicateValueException {
+        usernames.require(snapper.getUsername(), false);
+        emails.require(snapper.getEmail(), false);
+    }
+
+    /**
+     * Adds the url of an inserted photo
+     *
+     * @param photo the persisted photo
+     */
+    public void add(Photo photo) {
+        urls.add(photo.getUrl());
+    }
+
+    /**
+     * Adds the username and the email address of an inserted snapper
+     *
+     * @param snapper the persisted snapper
+     */
+    public void add(Snapper snapper) {
+        usernames.add(snapper.getUsername());
+        emails.add(snapper.getEmail());
+    }
+
+    // Inheritances (MeterBinder)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (UniqueColumn column : List.of(urls, usernames, emails)) {
+            Tags tags = Tags.of("object", column.objectName, "field", column.field);
+
+            // filtered checks were answered by the filter alone, the rest were looked up
+            FunctionCounter.builder("photos.uniqueness.checks", column.filtered, LongAdder::sum).tags(tags)
+                    .tag("result", "filtered").description("Unique values checked").register(registry);
+            FunctionCounter.builder("photos.uniqueness.checks", column.unique, LongAdder::sum).tags(tags)
+                    .tag("result", "unique").description("Unique values checked").register(registry);
+            FunctionCounter.builder("photos.uniqueness.checks", column.duplicates, LongAdder::sum).tags(tags)
+                    .tag("result", "duplicate").description("Unique values checked").register(registry);
+            Gauge.builder("photos.uniqueness.filter.bits", column.filter, ScalableBloomFilter::bits).tags(tags)
+                    .description("Bits used by the filter of a unique column").register(registry);
+        }
+    }
+
+    // Unique Column
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * The filter of a unique column and the lookup of its values
+     */
+    private class UniqueColumn {
+
+        private final String objectName;
+
+        private final String field;
+
+        private final Predicate<String> exists;
+
+        private final ScalableBloomFilter filter = new ScalableBloomFilter(expectedInsertions,
+                falsePositiveProbability);
+
+        private final LongAdder filtered = new LongAdder();
+
+        private final LongAdder unique = new LongAdder();
+
+        private final LongAdder duplicates = new LongAdder();
+
+        private UniqueColumn(Class<?> type, String field, Predicate<String> exists) {
+            this.objectName = type.getSimpleName();
+            this.field = field;
+            this.exists = exists;
+        }
+
+        private void require(String value, boolean useFilter) throws DuplicateValueException {
+            if (value == null) {
+                return;
+            }
+
+            if (useFilter && ready && !filter.mightContain(value.toLowerCase(Locale.ROOT))) {
+                filtered.increment();
+                return;
+            }
+
+            if (exists.test(value)) {
+                duplicates.increment();
+                throw new DuplicateValueException(objectName, field, value);
+            }
+
+            unique.increment();
+        }
+
+        private void add(String value) {
+            if (value != null) {
+                filter.put(value.toLowerCase(Locale.ROOT));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,239 @@
+package cl.rhacs.springboot.photos.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Write-behind counter for {@link cl.rhacs.springboot.photos.models.Photo}
+ * views.
+ * <p>
+ * Increments are accumulated on striped in-memory counters (one
+ * {@link LongAdder} per photo id) and periodically flushed to the database as
+ * batched {@code UPDATE photos SET views = views + ?} statements, so the read
+ * path never takes a row lock.
+ */
+@Service
+public class ViewCounterService implements MeterBinder {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ViewCounterService.class);
+
+    private static final String UPDATE_VIEWS = "update photos set views = views + ? where photo_id = ?";
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PhotoCacheService photoCacheService;
+
+    @Value("${photos.views.batch-size:500}")
+    private int batchSize;
+
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder pendingTotal = new LongAdder();
+
+    private List<Map.Entry<Long, LongAdder>> retired = new ArrayList<>();
+
+    private Timer flushTimer;
+
+    private Counter flushedCounter;
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Registers a view for the specified photo
+     *
+     * @param photoId the photo id
+     * @return the number of views of the photo that have not been flushed yet
+     */
+    public long increment(Long photoId) {
+        LongAdder adder = pending.computeIfAbsent(photoId, id -> new LongAdder());
+        adder.increment();
+        pendingTotal.increment();
+
+        return adder.sum();
+    }
+
+    /**
+     * Retrieves the number of views of the specified photo that have not been
+     * flushed yet
+     *
+     * @param photoId the photo id
+     * @return the pending views
+     */
+    public long getPending(Long photoId) {
+        LongAdder adder = pending.get(photoId);
+        return (adder == null) ? 0 : adder.sum();
+    }
+
+    /**
+     * @return the total number of views waiting to be flushed
+     */
+    public long getPendingTotal() {
+        return pendingTotal.sum();
+    }
+
+    /**
+     * Flushes the pending views to the database. Runs every
+     * {@code photos.views.flush-interval} milliseconds, which bounds how stale the
+     * persisted view count can get.
+     */
+    @Scheduled(fixedDelayString = "${photos.views.flush-interval:5000}")
+    public synchronized void flush() {
+        List<Object[]> batch = drain();
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            for (int from = 0; from < batch.size(); from += batchSize) {
+                List<Object[]> chunk = batch.subList(from, Math.min(from + batchSize, batch.size()));
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_VIEWS, chunk));
+                settle(chunk);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not flush the pending photo views, they will be retried on the next flush", e);
+            restore(batch);
+        } finally {
+            if (flushTimer != null) {
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Drains the pending views when the application shuts down
+     */
+    @PreDestroy
+    public void drainOnShutdown() {
+        flush();
+
+        if (getPendingTotal() > 0) {
+            LOGGER.error("{} photo views could not be flushed before shutdown", getPendingTotal());
+        }
+    }
+
+    /**
+     * Collects the pending increments as {@code (views, photoId)} parameters. Idle
+     * counters are removed from the map but kept aside for one more cycle, so an
+     * increment that raced with the removal is picked up on the next flush.
+     *
+     * @return the batch parameters
+     */
+    private List<Object[]> drain() {
+        List<Object[]> batch = new ArrayList<>();
+
+        for (Map.Entry<Long, LongAdder> entry : retired) {
+            collect(batch, entry.getKey(), entry.getValue().sumThenReset());
+        }
+
+        retired = new ArrayList<>();
+
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            long views = entry.getValue().sumThenReset();
+
+            if (views == 0) {
+                if (pending.remove(entry.getKey(), entry.getValue())) {
+                    retired.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            } else {
+                collect(batch, entry.getKey(), views);
+            }
+        }
+
+        return batch;
+    }
+
+    private void collect(List<Object[]> batch, Long photoId, long views) {
+        if (views != 0) {
+            batch.add(new Object[] { views, photoId });
+        }
+    }
+
+    /**
+     * Marks the chunk as persisted. The cached snapshots of the photos are evicted
+     * rather than given the views, as a snapshot loaded after the commit already
+     * counts them and would count them twice
+     *
+     * @param chunk the flushed parameters
+     */
+    private void settle(List<Object[]> chunk) {
+        for (Object[] params : chunk) {
+            long views = (Long) params[0];
+            pendingTotal.add(-views);
+            photoCacheService.invalidate((Long) params[1]);
+
+            if (flushedCounter != null) {
+                flushedCounter.increment(views);
+            }
+
+            params[0] = 0L;
+        }
+    }
+
+    /**
+     * Gives the views that were not persisted back to the pending counters
+     *
+     * @param batch the batch parameters
+     */
+    private void restore(List<Object[]> batch) {
+        for (Object[] params : batch) {
+            long views = (Long) params[0];
+
+            if (views != 0) {
+                pending.computeIfAbsent((Long) params[1], id -> new LongAdder()).add(views);
+            }
+        }
+    }
+
+    // Inheritances (MeterBinder)
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("photos.views.pending", pendingTotal, LongAdder::sum)
+                .description("Photo views waiting to be flushed to the database").register(registry);
+        Gauge.builder("photos.views.pending.photos", pending, Map::size)
+                .description("Photos with views waiting to be flushed").register(registry);
+
+        flushTimer = Timer.builder("photos.views.flush").description("Time spent flushing the pending photo views")
+                .register(registry);
+        flushedCounter = Counter.builder("photos.views.flushed")
+                .description("Photo views persisted to the database").register(registry);
+    }
+
+}
@@ -0,0 +1,267 @@
+package cl.rhacs.springboot.photos.uniqueness;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Set of strings that answers whether a value was {@link #put(String) put}
+ * with no false negatives and a bounded rate of false positives.
+ * <p>
+ * The filter is a chain of slices. Once the last slice holds as many values as
+ * it was sized for, a slice twice as large and with half the error rate is
+ * appended, so the overall false positive rate stays under the configured one
+ * however many values are added. Values can not be removed.
+ * <p>
+ * Lookups and insertions are lock-free: bits are only ever set, with
+ * compare-and-set, and a value that was put is visible to every later lookup.
+ * Only appending a slice is synchronized.
+ */
+public class ScalableBloomFilter {
+
+    // Constants
+    // -----------------------------------------------------------------------------------------
+
+    private static final int GROWTH = 2;
+
+    private static final double TIGHTENING = 0.5;
+
+    private static final double LN2 = Math.log(2);
+
+    // Attributes
+    // -----------------------------------------------------------------------------------------
+
+    private volatile Slice[] slices;
+
+    private final AtomicLong size = new AtomicLong();
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates a new and empty {@link ScalableBloomFilter}
+     *
+     * @param expectedInsertions       the number of values the first slice is
+     *                                 sized for
+     * @param falsePositiveProbability the maximum rate of false positives, between
+     *                                 0 and 1 exclusive
+     * @throws IllegalArgumentException when the arguments are out of range
+     */
+    public ScalableBloomFilter(long expectedInsertions, double falsePositiveProbability)
+            throws IllegalArgumentException {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("The expected insertions must not be less than one");
+        }
+
+        if (!(falsePositiveProbability > 0 && falsePositiveProbability < 1)) {
+            throw new IllegalArgumentException("The false positive probability must be between 0 and 1 exclusive");
+        }
+
+        // the error rates of the slices add up to falsePositiveProbability
+        slices = new Slice[] { new Slice(expectedInsertions, falsePositiveProbability * (1 - TIGHTENING)) };
+    }
+
+    // Getters
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return the number of values that were put, leaving out the ones the filter
+     *         may already have held
+     */
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * @return the number of bits used by the slices
+     */
+    public long bits() {
+        long bits = 0;
+
+        for (Slice slice : slices) {
+            bits += slice.bits;
+        }
+
+        return bits;
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Tells whether a value may have been put
+     *
+     * @param value the value
+     * @return {@code false} when the value was definitely never put
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+
+        for (Slice slice : slices) {
+            if (slice.mightContain(hash)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds a value to the filter
+     *
+     * @param value the value
+     * @return {@code false} when the value may already have been put
+     */
+    public boolean put(String value) {
+        long hash = hash(value);
+
+        for (Slice slice : slices) {
+            if (slice.mightContain(hash)) {
+                return false;
+            }
+        }
+
+        Slice last = last();
+
+        if (last.put(hash)) {
+            size.incrementAndGet();
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Retrieves the slice that takes the new values, appending a larger one when
+     * the current one is full
+     *
+     * @return the last slice
+     */
+    private Slice last() {
+        Slice[] current = slices;
+        Slice last = current[current.length - 1];
+
+        if (last.count.get() < last.capacity) {
+            return last;
+        }
+
+        synchronized (this) {
+            current = slices;
+            last = current[current.length - 1];
+
+            if (last.count.get() >= last.capacity) {
+                Slice[] grown = new Slice[current.length + 1];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                last = grown[current.length] = new Slice(last.capacity * GROWTH,
+                        last.falsePositiveProbability * TIGHTENING);
+                slices = grown;
+            }
+
+            return last;
+        }
+    }
+
+    /**
+     * Hashes a value with 64-bit FNV-1a and the MurmurHash3 finalizer, which
+     * spreads the FNV bits over the whole word
+     *
+     * @param value the value
+     * @return the hash
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+
+        return hash ^ (hash >>> 33);
+    }
+
+    // Slice
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * A classic Bloom filter sized for a number of values and an error rate. The
+     * bit positions of a value are derived from two hashes, as in Kirsch and
+     * Mitzenmacher's "Less Hashing, Same Performance".
+     */
+    private static class Slice {
+
+        private final long capacity;
+
+        private final double falsePositiveProbability;
+
+        private final long bits;
+
+        private final int hashes;
+
+        private final AtomicLongArray words;
+
+        private final AtomicLong count = new AtomicLong();
+
+        private Slice(long capacity, double falsePositiveProbability) {
+            this.capacity = capacity;
+            this.falsePositiveProbability = falsePositiveProbability;
+
+            long optimal = (long) Math.ceil(-capacity * Math.log(falsePositiveProbability) / (LN2 * LN2));
+            this.words = new AtomicLongArray((int) Math.min((optimal + 63) / 64, Integer.MAX_VALUE - 8));
+            this.bits = (long) words.length() * 64;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * LN2));
+        }
+
+        private boolean mightContain(long hash) {
+            long combined = hash;
+            long step = mix(hash) | 1;
+
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(combined, bits);
+
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+
+                combined += step;
+            }
+
+            return true;
+        }
+
+        private boolean put(long hash) {
+            long combined = hash;
+            long step = mix(hash) | 1;
+            boolean changed = false;
+
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(combined, bits);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long word;
+
+                while (((word = words.get(index)) & mask) == 0) {
+                    if (words.compareAndSet(index, word, word | mask)) {
+                        changed = true;
+                        break;
+                    }
+                }
+
+                combined += step;
+            }
+
+            if (changed) {
+                count.incrementAndGet();
+            }
+
+            return changed;
+        }
+
+    }
+
+}
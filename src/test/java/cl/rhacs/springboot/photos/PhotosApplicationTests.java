@@ -1,13 +1,63 @@
 package cl.rhacs.springboot.photos;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesRegex;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.regex.Pattern;
+
+import org.hamcrest.Matcher;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
 class PhotosApplicationTests {
 
+	@Autowired
+	private MockMvc mockMvc;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void prometheusExposesTheMetrics() throws Exception {
+		MvcResult result = mockMvc.perform(get("/photos").param("size", "3")).andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+		mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isOk())
+				.andExpect(content().string(metric("http_server_requests_seconds_bucket", "uri=\"/photos\"")))
+				.andExpect(content().string(metric("photos_repository_invocations_seconds_count",
+						"method=\"findAllSummaries\"", "repository=\"PhotoRepository\"", "exception=\"none\"")))
+				.andExpect(content().string(containsString("hikaricp_connections_active")))
+				.andExpect(content().string(containsString("hikaricp_connections_pending")))
+				.andExpect(content().string(containsString("hibernate_query_executions_total")))
+				.andExpect(content().string(containsString("hibernate_entities_loads_total")))
+				.andExpect(content().string(containsString("jvm_gc_memory_allocated_bytes_total")))
+				.andExpect(content().string(metric("executor_queued_tasks", "name=\"jdbc\"")));
+	}
+
+	/**
+	 * Matches a sample of a metric carrying the given tags, in any order
+	 */
+	private static Matcher<String> metric(String name, String... tags) {
+		StringBuilder regex = new StringBuilder("(?sm).*^").append(Pattern.quote(name)).append("\\{");
+
+		for (String tag : tags) {
+			regex.append("(?=[^}]*").append(Pattern.quote(tag)).append(")");
+		}
+
+		return matchesRegex(regex.append("[^}]*}.*").toString());
+	}
+
 }
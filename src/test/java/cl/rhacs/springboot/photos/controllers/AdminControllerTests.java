@@ -0,0 +1,129 @@
+package cl.rhacs.springboot.photos.controllers;
+
+import static cl.rhacs.springboot.photos.support.AsyncRequests.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+import cl.rhacs.springboot.photos.repositories.SnapperRepository;
+
+/**
+ * Loads snappers and photos through the bulk loader, in chunks of two rows so
+ * every file spans many chunks
+ */
+@SpringBootTest(properties = { "photos.admin.enabled = true", "photos.bulk-load.chunk-size = 2",
+        "photos.bulk-load.rows-per-statement = 1" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AdminControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SnapperRepository snapperRepository;
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Test
+    void snappersAndPhotosAreBulkLoaded() throws Exception {
+        String snappers = "username,email,password,biography\r\n"
+                + "bulkone,bulk.one@email.address,aVeryStrongPassword,\"Shoots harbours, \"\"mostly\"\"\nat night\"\r\n"
+                + "bulktwo,bulk.two@email.address,aVeryStrongPassword,\r\n"
+                + "bulkthree,,aVeryStrongPassword,\r\n"
+                + "bulkfour,bulk.four@email.address,aVeryStrongPassword,\r\n";
+
+        perform(mockMvc, post("/admin/bulk-load/snappers").contentType("text/csv").content(snappers))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.table").value("snappers"))
+                .andExpect(jsonPath("$.loaded").value(3)).andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0]").value("record 3: 'email' is required"));
+
+        assertThat(snapperRepository.findByUsername("bulkone").get().getBiography())
+                .isEqualTo("Shoots harbours, \"mostly\"\nat night");
+
+        long snapperId = snapperRepository.findByUsername("bulktwo").get().getSnapperId();
+        StringBuilder photos = new StringBuilder();
+
+        for (int i = 0; i < 5; i++) {
+            photos.append(String.format("{\"title\": \"Bulk quokka %d\", \"url\": \"https://bulk.example.com/%d.png\", "
+                    + "\"snapper_id\": %d, \"views\": %d}%n", i, i, snapperId, i * 1000));
+        }
+
+        photos.append("{\"title\": \"Without an url\", \"snapperId\": 1}\n");
+
+        perform(mockMvc, post("/admin/bulk-load/photos").param("rebuildIndexes", "true")
+                .contentType("application/x-ndjson").content(photos.toString())).andExpect(status().isOk())
+                .andExpect(jsonPath("$.loaded").value(5)).andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.failed").value(0));
+
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.indexes where table_name = 'photos' "
+                        + "and index_name in ('idx_photos_created_at', 'idx_photos_views', 'idx_photos_snapper_views')",
+                Long.class)).isGreaterThanOrEqualTo(3);
+
+        long photoId = photoRepository.findByUrl("https://bulk.example.com/4.png").get().getPhotoId();
+
+        perform(mockMvc, get("/photos/" + photoId)).andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Bulk quokka 4"));
+        perform(mockMvc, get("/photos/search").param("q", "quokka")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").value(5));
+        perform(mockMvc, get("/photos/top").param("n", "1")).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].photoId").value(photoId));
+        perform(mockMvc, post("/photos").contentType(MediaType.APPLICATION_JSON).content(
+                "{\"title\": \"Again\", \"url\": \"https://bulk.example.com/0.png\", \"snapperId\": " + snapperId
+                        + "}")).andExpect(status().isConflict());
+
+        // the photos added afterwards do not collide with the reserved ids
+        perform(mockMvc, post("/photos").contentType(MediaType.APPLICATION_JSON).content(
+                "{\"title\": \"After\", \"url\": \"https://bulk.example.com/after.png\", \"snapperId\": " + snapperId
+                        + "}")).andExpect(status().isCreated());
+    }
+
+    @Test
+    void refusedChunksAreReported() throws Exception {
+        String photos = "title,url,snapperId\n" + "First,https://refused.example.com/1.png,1\n"
+                + "Second,https://refused.example.com/2.png,1\n" + "Third,https://refused.example.com/1.png,1\n"
+                + "Fourth,https://refused.example.com/4.png,1\n" + "Fifth,https://refused.example.com/5.png,1\n";
+
+        perform(mockMvc, post("/admin/bulk-load/photos").contentType("text/csv").content(photos))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.loaded").value(3)).andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[0]").value(startsWith("chunk 2 (2 rows)")));
+
+        assertThat(photoRepository.findByUrl("https://refused.example.com/4.png")).isEmpty();
+        assertThat(photoRepository.findByUrl("https://refused.example.com/5.png")).isPresent();
+
+        perform(mockMvc, post("/admin/bulk-load/pictures").contentType("text/csv").content(photos))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void explicitPhotoIdsAreRejected() throws Exception {
+        String photos = "photoId,title,url,snapperId\n" + "900001,Explicit,https://explicit.example.com/1.png,1\n";
+
+        perform(mockMvc, post("/admin/bulk-load/photos").contentType("text/csv").content(photos))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.loaded").value(0)).andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0]").value(startsWith("record 1: The photo id")));
+
+        assertThat(photoRepository.findByUrl("https://explicit.example.com/1.png")).isEmpty();
+    }
+
+}
@@ -0,0 +1,148 @@
+package cl.rhacs.springboot.photos.controllers;
+
+import static cl.rhacs.springboot.photos.support.AsyncRequests.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import cl.rhacs.springboot.photos.services.PhotoContentService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PhotoContentControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PhotoContentService photoContentService;
+
+    @Test
+    void contentIsServedInRanges() throws Exception {
+        long id = addPhoto("ranges");
+        byte[] png = png(1000);
+
+        perform(mockMvc, put("/photos/" + id + "/content").contentType(MediaType.IMAGE_PNG).content(png))
+                .andExpect(status().isNoContent());
+
+        Path path = photoContentService.resolve(id);
+        assertThat(photoContentService.getDirectory().relativize(path).getNameCount()).isEqualTo(3);
+        assertThat(Files.readAllBytes(path)).isEqualTo(png);
+
+        String etag = perform(mockMvc, get("/photos/" + id + "/content")).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, png.length))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600, public"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED)).andExpect(content().bytes(png)).andReturn()
+                .getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(mockMvc, get("/photos/" + id + "/content").header(HttpHeaders.RANGE, "bytes=8-15"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 8-15/" + png.length))
+                .andExpect(content().bytes(Arrays.copyOfRange(png, 8, 16)));
+        perform(mockMvc, get("/photos/" + id + "/content").header(HttpHeaders.RANGE, "bytes=-4")
+                .header(HttpHeaders.IF_RANGE, etag)).andExpect(status().isPartialContent())
+                        .andExpect(content().bytes(Arrays.copyOfRange(png, png.length - 4, png.length)));
+        perform(mockMvc, get("/photos/" + id + "/content").header(HttpHeaders.RANGE, "bytes=8-15")
+                .header(HttpHeaders.IF_RANGE, "\"stale\"")).andExpect(status().isOk())
+                        .andExpect(content().bytes(png));
+        perform(mockMvc, get("/photos/" + id + "/content").header(HttpHeaders.RANGE, "bytes=5000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + png.length));
+        perform(mockMvc, get("/photos/" + id + "/content").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Tomcat is left to send the range
+        perform(mockMvc, get("/photos/" + id + "/content").header(HttpHeaders.RANGE, "bytes=100-")
+                .requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE))
+                        .andExpect(status().isPartialContent())
+                        .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", path.toString()))
+                        .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 100L))
+                        .andExpect(request().attribute("org.apache.tomcat.sendfile.end", (long) png.length))
+                        .andExpect(content().bytes(new byte[0]));
+
+        byte[] replacement = png(10);
+        perform(mockMvc, put("/photos/" + id + "/content").contentType(MediaType.IMAGE_PNG).content(replacement))
+                .andExpect(status().isNoContent());
+        perform(mockMvc, get("/photos/" + id + "/content").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk()).andExpect(content().bytes(replacement));
+
+        perform(mockMvc, delete("/photos/" + id)).andExpect(status().isOk());
+
+        assertThat(path).doesNotExist();
+    }
+
+    @Test
+    void uploadsAreValidated() throws Exception {
+        long id = addPhoto("validated");
+
+        perform(mockMvc, get("/photos/" + id + "/content")).andExpect(status().isNotFound());
+        perform(mockMvc, put("/photos/" + id + "/content").contentType(MediaType.IMAGE_PNG).content("Not an image"))
+                .andExpect(status().isBadRequest());
+        perform(mockMvc, put("/photos/" + id + "/content").contentType(MediaType.IMAGE_PNG).content(new byte[0]))
+                .andExpect(status().isBadRequest());
+        perform(mockMvc, put("/photos/999999/content").contentType(MediaType.IMAGE_PNG).content(png(10)))
+                .andExpect(status().isNotFound());
+        perform(mockMvc, put("/photos/" + id + "/content").contentType(MediaType.TEXT_PLAIN).content(png(10)))
+                .andExpect(status().isUnsupportedMediaType());
+
+        try (Stream<Path> uploads = Files.list(photoContentService.getDirectory())) {
+            assertThat(uploads.filter(Files::isRegularFile)).isEmpty();
+        }
+
+        perform(mockMvc, delete("/photos/" + id)).andExpect(status().isOk());
+    }
+
+    private long addPhoto(String name) throws Exception {
+        String body = perform(mockMvc, post("/photos").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\": \"Content " + name + "\", \"url\": \"https://example.com/content/" + name
+                        + ".png\", \"snapperId\": 1}"))
+                        .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+
+        return objectMapper.readTree(body).get("photoId").asLong();
+    }
+
+    /**
+     * Builds a PNG signature followed by some bytes
+     */
+    private byte[] png(int length) {
+        byte[] png = new byte[8 + length];
+        byte[] signature = { (byte) 0x89, 'P', 'N', 'G', 0x0d, 0x0a, 0x1a, 0x0a };
+
+        System.arraycopy(signature, 0, png, 0, signature.length);
+
+        for (int i = signature.length; i < png.length; i++) {
+            png[i] = (byte) i;
+        }
+
+        return png;
+    }
+
+}
@@ -0,0 +1,407 @@
+package cl.rhacs.springboot.photos.controllers;
+
+import static cl.rhacs.springboot.photos.support.AsyncRequests.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import javax.persistence.EntityManagerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+import cl.rhacs.springboot.photos.services.PhotoCacheService;
+import cl.rhacs.springboot.photos.support.Statements;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PhotoControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PhotoCacheService photoCacheService;
+
+    @Test
+    void cursorWalksEveryPhotoOnce() throws Exception {
+        List<Long> seen = new ArrayList<>();
+        String after = "";
+
+        do {
+            String body = perform(mockMvc, get("/photos").param("after", after).param("size", "7")
+                    .param("sortBy", "createdAt").param("sortOrder", "desc")).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            page.get("elements").forEach(photo -> seen.add(photo.get("photoId").asLong()));
+            after = page.get("hasNext").asBoolean() ? page.get("next").asText() : null;
+        } while (after != null);
+
+        assertThat(seen).doesNotHaveDuplicates().hasSize((int) photoRepository.count());
+    }
+
+    @Test
+    void cursorRejectsAnotherSorting() throws Exception {
+        String body = perform(mockMvc, get("/photos").param("after", "").param("size", "2"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        String next = objectMapper.readTree(body).get("next").asText();
+
+        perform(mockMvc, get("/photos").param("after", next).param("sortBy", "views"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void pagesReportTheTotalsRequested() throws Exception {
+        long count = photoRepository.count();
+
+        perform(mockMvc, get("/photos").param("size", "5")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(count)).andExpect(jsonPath("$.hasNext").value(true));
+
+        perform(mockMvc, get("/photos").param("size", "5").param("totals", "none")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").doesNotExist()).andExpect(jsonPath("$.items").value(5))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        perform(mockMvc, get("/photos").param("size", "5").param("totals", "approximate"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.totalItems").value(count))
+                .andExpect(jsonPath("$.approximate").value(true));
+    }
+
+    @Test
+    void cachedPhotoReflectsViewsAndUpdates() throws Exception {
+        perform(mockMvc, get("/photos/3")).andExpect(status().isOk()).andExpect(jsonPath("$.views").value(1));
+        perform(mockMvc, get("/photos/3")).andExpect(status().isOk()).andExpect(jsonPath("$.views").value(2));
+
+        perform(mockMvc, put("/photos/3").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\": \"Updated title\", \"url\": \"https://example.com/3.png\"}"))
+                .andExpect(status().isOk());
+
+        perform(mockMvc, get("/photos/3")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Updated title")).andExpect(jsonPath("$.views").value(3));
+    }
+
+    @Test
+    void exportWritesOnePhotoPerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/photos/export")).andReturn();
+        String body = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andReturn().getResponse()
+                .getContentAsString();
+        String[] lines = body.split("\n");
+
+        assertThat(lines).hasSize((int) photoRepository.count());
+        assertThat(objectMapper.readTree(lines[0]).get("photoId").asLong()).isEqualTo(1L);
+
+        // only the export lifts the async timeout
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(-1);
+        assertThat(mockMvc.perform(delete("/photos/999999")).andReturn().getRequest().getAsyncContext().getTimeout())
+                .isEqualTo(30000);
+    }
+
+    @Test
+    void batchInsertsValidPhotosAndReportsInvalidOnes() throws Exception {
+        long before = photoRepository.count();
+        String photos = "[{\"title\": \"Batch one\", \"url\": \"https://example.com/b1.png\", \"snapperId\": 1},"
+                + "{\"title\": \"x\", \"url\": \"not an url\", \"snapperId\": 1},"
+                + "{\"title\": \"Batch three\", \"url\": \"https://example.com/b3.png\", \"snapperId\": 1}]";
+
+        perform(mockMvc, post("/photos/batch").contentType(MediaType.APPLICATION_JSON).content(photos))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.invalid").value(1)).andExpect(jsonPath("$.results[1].status").value("invalid"))
+                .andExpect(jsonPath("$.results[2].id").isNumber());
+
+        String lines = "{\"title\": \"Batch four\", \"url\": \"https://example.com/b4.png\", \"snapperId\": 1}\n"
+                + "{\"title\": \"Batch five\", \"url\": \"https://example.com/b5.png\", \"snapperId\": 1}\n";
+
+        // inserted on the JdbcExecutor, off the servlet thread
+        MvcResult streamed = mockMvc.perform(post("/photos/batch").contentType("application/x-ndjson").content(lines))
+                .andExpect(request().asyncStarted()).andReturn();
+
+        mockMvc.perform(asyncDispatch(streamed)).andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2));
+
+        assertThat(photoRepository.count()).isEqualTo(before + 4);
+    }
+
+    @Test
+    void batchReportsDuplicatesAndFailuresPerPhoto() throws Exception {
+        String photos = "[{\"title\": \"Batch six\", \"url\": \"https://example.com/b6.png\", \"snapperId\": 1},"
+                + "{\"title\": \"Batch six again\", \"url\": \"https://example.com/b6.png\", \"snapperId\": 1},"
+                + "{\"title\": \"Batch seven\", \"url\": "
+                + "\"https://robohash.org/liberoimpeditqui.png?size=640x320&set=set1\", \"snapperId\": 1},"
+                + "{\"title\": \"Batch eight\", \"url\": \"https://example.com/b8.png\", \"snapperId\": 999999},"
+                + "{\"title\": \"Batch nine\", \"url\": \"https://example.com/b9.png\", \"snapperId\": 1}]";
+
+        // the unknown snapper fails its chunk, whose photos are then inserted one at a time
+        perform(mockMvc, post("/photos/batch").contentType(MediaType.APPLICATION_JSON).content(photos))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.invalid").value(2)).andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].id").isNumber())
+                .andExpect(jsonPath("$.results[1].errors[0].field").value("url"))
+                .andExpect(jsonPath("$.results[2].errors[0].field").value("url"))
+                .andExpect(jsonPath("$.results[3].status").value("failed"))
+                .andExpect(jsonPath("$.results[4].id").isNumber());
+    }
+
+    @Test
+    void matchingValidatorsAnswerNotModified() throws Exception {
+        String etag = perform(mockMvc, get("/photos/4")).andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED)).andReturn().getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        perform(mockMvc, get("/photos/4").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified()).andExpect(content().string(""));
+
+        String pageETag = perform(mockMvc, get("/photos").param("page", "1").param("size", "5"))
+                .andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(mockMvc, get("/photos").param("page", "1").param("size", "5").header(HttpHeaders.IF_NONE_MATCH,
+                pageETag)).andExpect(status().isNotModified());
+        perform(mockMvc, get("/photos").param("page", "2").param("size", "5").header(HttpHeaders.IF_NONE_MATCH,
+                pageETag)).andExpect(status().isOk());
+    }
+
+    @Test
+    void hotPagesAreServedFromThePageCache() throws Exception {
+        String first = perform(mockMvc,
+                get("/photos").param("size", "4").param("sortBy", "createdAt").param("sortOrder", "desc"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        Statements.clear(entityManagerFactory);
+        byte[] gzipped = perform(mockMvc, get("/photos").param("size", "4").param("sortBy", "createdAt")
+                .param("sortOrder", "desc").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                        .andExpect(status().isOk()).andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                        .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(Statements.prepared(entityManagerFactory)).isZero();
+
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertThat(new String(input.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(first);
+        }
+
+        String body = perform(mockMvc, post("/photos").contentType(MediaType.APPLICATION_JSON).content(
+                "{\"title\": \"Newest\", \"url\": \"https://example.com/newest.png\", \"snapperId\": 1}"))
+                        .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("photoId").asLong();
+
+        perform(mockMvc, get("/photos").param("size", "4").param("sortBy", "createdAt").param("sortOrder", "desc"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.elements[0].photoId").value(id));
+
+        perform(mockMvc, delete("/photos/" + id)).andExpect(status().isOk());
+    }
+
+    @Test
+    void listingsOnlyIncludeTheDescriptionWhenRequested() throws Exception {
+        perform(mockMvc, get("/photos").param("size", "3")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.elements[0].title").exists())
+                .andExpect(jsonPath("$.elements[0].description").doesNotExist());
+
+        perform(mockMvc, get("/photos").param("size", "3").param("fields", "description"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.elements[0].description").exists());
+
+        perform(mockMvc, get("/photos").param("after", "").param("size", "3").param("sortBy", "views"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.elements[0].description").doesNotExist());
+
+        perform(mockMvc, get("/photos").param("fields", "secret")).andExpect(status().isBadRequest());
+        perform(mockMvc, get("/photos").param("sortBy", "unknown")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchFollowsTheWritePaths() throws Exception {
+        perform(mockMvc, get("/photos/search").param("q", "groupw")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.elements[0].photo.photoId").value(17))
+                .andExpect(jsonPath("$.elements[0].photo.description").doesNotExist());
+
+        String body = perform(mockMvc, post("/photos").contentType(MediaType.APPLICATION_JSON).content(
+                "{\"title\": \"Zyzzyva wanderings\", \"url\": \"https://example.com/z.png\", \"snapperId\": 1}"))
+                        .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("photoId").asLong();
+
+        perform(mockMvc, get("/photos/search").param("q", "zyzzyva")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(1))
+                .andExpect(jsonPath("$.elements[0].photo.photoId").value(id));
+
+        perform(mockMvc, delete("/photos/" + id)).andExpect(status().isOk());
+        perform(mockMvc, get("/photos/search").param("q", "zyzzyva")).andExpect(status().isNoContent());
+        perform(mockMvc, get("/photos/search").param("q", "a")).andExpect(status().isBadRequest());
+        perform(mockMvc, get("/photos/search").param("q", "groupw").param("page", "100"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void leaderboardFollowsTheViews() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            perform(mockMvc, get("/photos/11")).andExpect(status().isOk());
+        }
+
+        perform(mockMvc, get("/photos/top").param("n", "3")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3)).andExpect(jsonPath("$[0].photoId").value(11))
+                .andExpect(jsonPath("$[0].views").value(50));
+
+        perform(mockMvc, get("/photos/top").param("n", "1").param("snapperId", "1")).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].photoId").value(11));
+
+        perform(mockMvc, get("/photos/top").param("snapperId", "999")).andExpect(status().isNoContent());
+        perform(mockMvc, get("/photos/top").param("n", "0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void errorsKeepTheShapeOfTheErrorResponse() throws Exception {
+        int maxPage = (int) ((photoRepository.count() + 4) / 5) - 1;
+
+        String cached = perform(mockMvc, get("/photos").param("page", "999").param("size", "5"))
+                .andExpect(status().isBadRequest()).andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.message").value("Page value out of bounds, max page = " + maxPage))
+                .andExpect(jsonPath("$.httpStatus").value("BAD_REQUEST"))
+                .andExpect(jsonPath("$.httpStatusCode").value(400)).andReturn().getResponse()
+                .getContentAsString();
+        String built = perform(mockMvc, get("/photos").param("fields", "secret")).andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> cachedFields = new ArrayList<>();
+        List<String> builtFields = new ArrayList<>();
+        objectMapper.readTree(cached).fieldNames().forEachRemaining(cachedFields::add);
+        objectMapper.readTree(built).fieldNames().forEachRemaining(builtFields::add);
+
+        assertThat(cachedFields).isEqualTo(builtFields);
+        assertThat(objectMapper.readTree(cached).get("timestamp").asText()).isNotEmpty();
+
+        perform(mockMvc, get("/photos/999999")).andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Photo not found for this id :: 999999"));
+    }
+
+    @Test
+    void duplicateUrlsAreAConflict() throws Exception {
+        String photo = "{\"title\": \"Unique\", \"url\": \"https://example.com/unique.png\", \"snapperId\": 1}";
+
+        perform(mockMvc, post("/photos").contentType(MediaType.APPLICATION_JSON).content(photo))
+                .andExpect(status().isCreated());
+        perform(mockMvc, post("/photos").contentType(MediaType.APPLICATION_JSON).content(photo))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("The url 'https://example.com/unique.png' is already in use"))
+                .andExpect(jsonPath("$.detailedErrors[0].field").value("url"))
+                .andExpect(jsonPath("$.detailedErrors[0].rejectedValue").value("https://example.com/unique.png"));
+
+        String url = photoRepository.findById(1L).orElseThrow().getUrl();
+
+        perform(mockMvc, post("/photos").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\": \"Copy\", \"url\": \"" + url + "\", \"snapperId\": 1}"))
+                        .andExpect(status().isConflict());
+    }
+
+    @Test
+    void patchesOnlyWriteTheChangedColumns() throws Exception {
+        String body = perform(mockMvc, post("/photos").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\": \"Before the patch\", \"description\": \"Kept description\", "
+                        + "\"url\": \"https://example.com/patch.png\", \"snapperId\": 1}"))
+                                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("photoId").asLong();
+        String etag = perform(mockMvc, get("/photos/" + id)).andExpect(status().isOk()).andReturn().getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        Statements.clear(entityManagerFactory);
+
+        String patched = perform(mockMvc, patch("/photos/" + id).contentType("application/merge-patch+json")
+                .header(HttpHeaders.IF_MATCH, etag).content("{\"title\": \"Quagga patched\"}"))
+                        .andExpect(status().isNoContent()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // the update, and the read of the search index, which only got the title
+        assertThat(Statements.prepared(entityManagerFactory)).isEqualTo(2);
+        assertThat(patched).isNotEqualTo(etag);
+        // evicted rather than patched in place
+        assertThat(photoCacheService.getIfPresent(id)).isEmpty();
+
+        perform(mockMvc, get("/photos/" + id)).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, patched))
+                .andExpect(jsonPath("$.title").value("Quagga patched"))
+                .andExpect(jsonPath("$.description").value("Kept description"));
+        perform(mockMvc, get("/photos/search").param("q", "quagga")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.elements[0].photo.photoId").value(id));
+
+        perform(mockMvc, patch("/photos/" + id).contentType("application/merge-patch+json")
+                .header(HttpHeaders.IF_MATCH, etag).content("{\"description\": null}"))
+                .andExpect(status().isPreconditionFailed());
+        perform(mockMvc, patch("/photos/" + id).contentType("application/merge-patch+json")
+                .header(HttpHeaders.IF_MATCH, patched).content("{\"description\": null}"))
+                        .andExpect(status().isNoContent());
+
+        assertThat(photoRepository.findById((long) id).orElseThrow().getDescription()).isNull();
+
+        perform(mockMvc,
+                patch("/photos/999999").contentType("application/merge-patch+json").content("{\"title\": \"Nobody\"}"))
+                .andExpect(status().isNotFound());
+        perform(mockMvc, patch("/photos/" + id).contentType("application/merge-patch+json")
+                .content("{\"url\": \"https://example.com/other.png\"}")).andExpect(status().isBadRequest());
+        perform(mockMvc,
+                patch("/photos/" + id).contentType("application/merge-patch+json").content("{\"title\": \"Q\"}"))
+                .andExpect(status().isBadRequest());
+
+        perform(mockMvc, delete("/photos/" + id)).andExpect(status().isOk());
+    }
+
+    @Test
+    void deletesDoNotLoadThePhotos() throws Exception {
+        List<Long> ids = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            String body = perform(mockMvc, post("/photos").contentType(MediaType.APPLICATION_JSON).content(
+                    "{\"title\": \"Xerus to delete\", \"url\": \"https://example.com/delete/" + i
+                            + ".png\", \"snapperId\": 1}")).andExpect(status().isCreated()).andReturn().getResponse()
+                                    .getContentAsString();
+            ids.add(objectMapper.readTree(body).get("photoId").asLong());
+        }
+
+        Statements.clear(entityManagerFactory);
+
+        perform(mockMvc, delete("/photos/" + ids.get(0))).andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+
+        // the delete alone
+        assertThat(Statements.prepared(entityManagerFactory)).isEqualTo(1);
+
+        perform(mockMvc, delete("/photos/" + ids.get(0))).andExpect(status().isNotFound());
+        perform(mockMvc,
+                delete("/photos").param("ids", ids.get(0) + "," + ids.get(1) + "," + ids.get(2) + "," + ids.get(1)))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.deleted").value(2)).andExpect(jsonPath("$.notFound").value(1));
+
+        assertThat(photoRepository.findAllById(ids)).isEmpty();
+        perform(mockMvc, get("/photos/" + ids.get(1))).andExpect(status().isNotFound());
+        perform(mockMvc, get("/photos/search").param("q", "xerus")).andExpect(status().isNoContent());
+        perform(mockMvc, delete("/photos").param("ids", "")).andExpect(status().isBadRequest());
+    }
+
+}
@@ -0,0 +1,133 @@
+package cl.rhacs.springboot.photos.controllers;
+
+import static cl.rhacs.springboot.photos.support.AsyncRequests.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.Snapper;
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+import cl.rhacs.springboot.photos.repositories.SnapperRepository;
+import cl.rhacs.springboot.photos.support.CountsStatements;
+import cl.rhacs.springboot.photos.support.Statements;
+
+/**
+ * Counts the statements of the snapper listings, which must not grow with the
+ * size of the page
+ */
+@SpringBootTest
+@CountsStatements
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SnapperControllerQueryTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SnapperRepository snapperRepository;
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @BeforeAll
+    void addSnappersWithPhotos() {
+        for (int i = 0; i < 4; i++) {
+            Snapper snapper = snapperRepository
+                    .save(new Snapper("snapper" + i, "snapper" + i + "@email.address", "aVeryStrongPassword"));
+            List<Photo> photos = new ArrayList<>();
+
+            for (int j = 0; j < i; j++) {
+                Photo photo = new Photo("Photo " + j, null, "https://example.com/" + i + "/" + j + ".png");
+                photo.setSnapperId(snapper.getSnapperId());
+                photos.add(photo);
+            }
+
+            photoRepository.saveAll(photos);
+        }
+    }
+
+    @Test
+    void photoCountsCostOneQueryPerPage() throws Exception {
+        long single = statements(get("/snappers").param("include", "photoCount").param("size", "1"));
+        long page = statements(get("/snappers").param("include", "photoCount").param("size", "5"));
+
+        // the page, the total and the counts
+        assertThat(single).isEqualTo(3);
+        assertThat(page).isEqualTo(single);
+
+        // the other tests of the context may have added snappers of their own
+        perform(mockMvc, get("/snappers").param("include", "photoCount").param("size", "20"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.elements[0].photoCount").value(21))
+                .andExpect(jsonPath("$.elements[?(@.username == 'snapper0')].photoCount").value(0))
+                .andExpect(jsonPath("$.elements[?(@.username == 'snapper3')].photoCount").value(3));
+
+        assertThat(statements(get("/snappers").param("after", "").param("size", "5").param("include", "photoCount")))
+                .isEqualTo(2);
+        perform(mockMvc, get("/snappers")).andExpect(jsonPath("$.elements[0].photoCount").doesNotExist());
+        perform(mockMvc, get("/snappers").param("include", "photos")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void snapperPhotosCostOneQueryPerPage() throws Exception {
+        assertThat(statements(get("/snappers/1/photos").param("size", "1"))).isEqualTo(1);
+        assertThat(statements(get("/snappers/1/photos").param("size", "15"))).isEqualTo(1);
+
+        List<Long> ids = new ArrayList<>();
+        String after = "";
+
+        do {
+            JsonNode body = body(get("/snappers/1/photos").param("after", after).param("size", "7"));
+            body.get("elements").forEach(photo -> ids.add(photo.get("photoId").asLong()));
+            after = body.get("hasNext").asBoolean() ? body.get("next").asText() : null;
+        } while (after != null);
+
+        assertThat(ids).hasSize(21).isSorted().doesNotHaveDuplicates();
+
+        String second = body(get("/snappers/1/photos").param("size", "7")).get("next").asText();
+
+        assertThat(statements(get("/snappers/1/photos").param("after", second).param("size", "7"))).isEqualTo(1);
+        perform(mockMvc, get("/snappers/999/photos")).andExpect(status().isNotFound());
+        perform(mockMvc, get("/snappers/2/photos")).andExpect(status().isOk()).andExpect(jsonPath("$.items").value(0));
+    }
+
+    /**
+     * Performs a request and counts the statements it prepared
+     */
+    private long statements(RequestBuilder request) throws Exception {
+        return Statements.count(entityManagerFactory, () -> perform(mockMvc, request).andExpect(status().isOk()));
+    }
+
+    private JsonNode body(RequestBuilder request) throws Exception {
+        return objectMapper.readTree(
+                perform(mockMvc, request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+    }
+
+}
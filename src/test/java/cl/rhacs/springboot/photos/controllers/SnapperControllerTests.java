@@ -0,0 +1,52 @@
+package cl.rhacs.springboot.photos.controllers;
+
+import static cl.rhacs.springboot.photos.support.AsyncRequests.perform;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SnapperControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void listingsLeaveOutPrivateFields() throws Exception {
+        perform(mockMvc, get("/snappers")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.elements[0].username").value("me"))
+                .andExpect(jsonPath("$.elements[0].password").doesNotExist())
+                .andExpect(jsonPath("$.elements[0].biography").doesNotExist());
+
+        perform(mockMvc, get("/snappers").param("after", "")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").value(1)).andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void exportWritesOneSnapperPerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/snappers/export")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+                .andExpect(content().string(startsWith("{\"snapperId\":1,")));
+    }
+
+    @Test
+    void photosOfUnknownSnappersAreNotDeleted() throws Exception {
+        perform(mockMvc, delete("/snappers/999/photos")).andExpect(status().isNotFound());
+    }
+
+}
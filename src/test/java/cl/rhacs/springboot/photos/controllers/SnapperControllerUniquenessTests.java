@@ -0,0 +1,55 @@
+package cl.rhacs.springboot.photos.controllers;
+
+import static cl.rhacs.springboot.photos.support.AsyncRequests.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import cl.rhacs.springboot.photos.support.CountsStatements;
+import cl.rhacs.springboot.photos.support.Statements;
+
+/**
+ * Creates snappers whose username and email address are cleared by the
+ * uniqueness filters, without looking them up
+ */
+@SpringBootTest
+@CountsStatements
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SnapperControllerUniquenessTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void newSnappersSkipTheUniquenessLookups() throws Exception {
+        String snapper = "{\"username\": \"stranger\", \"email\": \"stranger@email.address\", "
+                + "\"password\": \"aVeryStrongPassword\"}";
+
+        // only the insert
+        assertThat(Statements.count(entityManagerFactory,
+                () -> perform(mockMvc, post("/snappers").contentType(MediaType.APPLICATION_JSON).content(snapper))
+                        .andExpect(status().isCreated()))).isEqualTo(1);
+
+        perform(mockMvc, post("/snappers").contentType(MediaType.APPLICATION_JSON).content(snapper))
+                .andExpect(status().isConflict()).andExpect(jsonPath("$.detailedErrors[0].field").value("username"));
+        perform(mockMvc, post("/snappers").contentType(MediaType.APPLICATION_JSON)
+                .content(snapper.replace("stranger\"", "other\""))).andExpect(status().isConflict())
+                .andExpect(jsonPath("$.detailedErrors[0].field").value("email"));
+    }
+
+}
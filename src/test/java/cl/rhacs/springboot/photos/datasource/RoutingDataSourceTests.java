@@ -0,0 +1,125 @@
+package cl.rhacs.springboot.photos.datasource;
+
+import static cl.rhacs.springboot.photos.support.AsyncRequests.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.servlet.http.Cookie;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+@SpringBootTest(properties = { "photos.datasource.routing.enabled = true",
+        "photos.datasource.routing.replicas[0].jdbc-url = jdbc:h2:mem:replica-0-${random.uuid};MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "photos.datasource.routing.replicas[0].username = sa",
+        "photos.datasource.routing.replicas[1].jdbc-url = jdbc:h2:mem:replica-1-${random.uuid};MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "photos.datasource.routing.replicas[1].username = sa",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache = false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache = false" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(RoutingDataSourceTests.ReplicaSeeder.class)
+class RoutingDataSourceTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void readsGoToTheReplicasUntilTheClientWrites() throws Exception {
+        Set<String> usernames = new HashSet<>();
+
+        for (int i = 0; i < 2; i++) {
+            usernames.add(username(get("/snappers/1")));
+        }
+
+        assertThat(usernames).containsExactlyInAnyOrder("replica-0", "replica-1");
+
+        MvcResult created = perform(mockMvc, post("/photos").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\": \"Routed\", \"url\": \"https://example.com/routed.png\", \"snapperId\": 1}"))
+                        .andExpect(status().isCreated()).andExpect(cookie().exists(ReadYourWritesFilter.COOKIE))
+                        .andReturn();
+        Cookie window = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+        assertThat(username(get("/snappers/1").cookie(window))).isEqualTo("me");
+        assertThat(username(get("/snappers/1"))).startsWith("replica-");
+    }
+
+    @Test
+    void conditionalPhotoMissesAreAnsweredByTheReplicas() throws Exception {
+        // the replicas hold an older update date than the primary
+        Date since = Date.from(ReplicaSeeder.REPLICA_UPDATED_AT.plusDays(1).toInstant());
+
+        for (int i = 0; i < 2; i++) {
+            perform(mockMvc, get("/photos/2").header(HttpHeaders.IF_MODIFIED_SINCE, since))
+                    .andExpect(status().isNotModified());
+        }
+    }
+
+    private String username(RequestBuilder request) throws Exception {
+        String body = perform(mockMvc, request).andExpect(status().isOk()).andReturn().getResponse()
+                .getContentAsString();
+        return objectMapper.readTree(body).get("username").asText();
+    }
+
+    /**
+     * Copies the primary to the replicas once the schema and the data are loaded
+     * in the background, ahead of the listeners that warm up from the replicas,
+     * renaming the snapper of each replica to tell them apart and dating a photo
+     * back, so it is only unchanged since then on the replicas. It is imported
+     * rather than scanned, so it stays out of the applications started from the
+     * test classpath
+     */
+    static class ReplicaSeeder {
+
+        static final ZonedDateTime REPLICA_UPDATED_AT = ZonedDateTime.parse("2000-01-01T00:00:00Z");
+
+        @Autowired
+        private RoutingDataSource routingDataSource;
+
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        @EventListener(ApplicationReadyEvent.class)
+        void seed() {
+            List<String> script = new JdbcTemplate(routingDataSource.getPrimary()).queryForList("SCRIPT",
+                    String.class);
+
+            for (int i = 0; i < routingDataSource.getReplicas().size(); i++) {
+                JdbcTemplate replica = new JdbcTemplate(routingDataSource.getReplicas().get(i));
+                script.forEach(replica::execute);
+                replica.update("update snappers set username = ? where snapper_id = 1", "replica-" + i);
+                replica.update("update photos set updated_at = ? where photo_id = 2",
+                        Timestamp.from(REPLICA_UPDATED_AT.toInstant()));
+            }
+        }
+
+    }
+
+}
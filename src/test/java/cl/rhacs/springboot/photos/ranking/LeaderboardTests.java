@@ -0,0 +1,63 @@
+package cl.rhacs.springboot.photos.ranking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import cl.rhacs.springboot.photos.models.PhotoSummary;
+
+class LeaderboardTests {
+
+    private static PhotoSummary photo(long id, long views) {
+        return new PhotoSummary(id, "Photo " + id, "https://example.com/" + id + ".png", views, 1L, null, null);
+    }
+
+    private static List<Long> ids(List<PhotoSummary> photos) {
+        return photos.stream().map(PhotoSummary::getPhotoId).collect(Collectors.toList());
+    }
+
+    @Test
+    void keepsTheMostViewedPhotos() {
+        Leaderboard board = new Leaderboard(3);
+        board.reset(List.of(photo(1, 10), photo(2, 30), photo(3, 20)));
+
+        assertThat(board.offer(photo(4, 5))).isFalse();
+        assertThat(board.offer(photo(5, 25))).isTrue();
+
+        assertThat(ids(board.top(10))).containsExactly(2L, 5L, 3L);
+        assertThat(ids(board.top(2))).containsExactly(2L, 5L);
+    }
+
+    @Test
+    void incrementsReorderTheMembers() {
+        Leaderboard board = new Leaderboard(3);
+        board.reset(List.of(photo(1, 10), photo(2, 10)));
+
+        assertThat(board.increment(2L, 1)).isPresent();
+        assertThat(board.increment(9L, 1)).isEmpty();
+        assertThat(ids(board.top(2))).containsExactly(2L, 1L);
+
+        board.offer(photo(1, 5));
+        assertThat(board.top(1).get(0).getViews()).isEqualTo(11L);
+    }
+
+    @Test
+    void removalsLeaveIncompleteBoardsUnableToServe() {
+        Leaderboard board = new Leaderboard(2);
+        board.reset(List.of(photo(1, 10), photo(2, 5)));
+
+        assertThat(board.canServe(2)).isTrue();
+        assertThat(board.remove(1L)).isTrue();
+        assertThat(board.canServe(2)).isFalse();
+
+        Leaderboard exhaustive = new Leaderboard(3);
+        exhaustive.reset(List.of(photo(1, 10), photo(2, 5)));
+        exhaustive.remove(1L);
+
+        assertThat(exhaustive.canServe(3)).isTrue();
+    }
+
+}
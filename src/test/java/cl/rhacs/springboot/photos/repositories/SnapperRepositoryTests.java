@@ -0,0 +1,56 @@
+package cl.rhacs.springboot.photos.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import cl.rhacs.springboot.photos.models.Snapper;
+import cl.rhacs.springboot.photos.support.CountsStatements;
+import cl.rhacs.springboot.photos.support.Statements;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Looks up snappers, which are served by the second-level and query caches
+ * after the first lookup
+ */
+@SpringBootTest
+@CountsStatements
+@ActiveProfiles("test")
+class SnapperRepositoryTests {
+
+    @Autowired
+    private SnapperRepository snapperRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void snapperLookupsAreServedFromTheCache() throws Exception {
+        snapperRepository.findById(1L);
+        assertThat(Statements.count(entityManagerFactory, () -> snapperRepository.findById(1L))).isZero();
+
+        snapperRepository.findByUsername("me");
+        assertThat(Statements.count(entityManagerFactory, () -> snapperRepository.findByUsername("me"))).isZero();
+        assertThat(Statements.count(entityManagerFactory, () -> snapperRepository.findByEmail("my@email.address")))
+                .isEqualTo(1);
+        assertThat(Statements.count(entityManagerFactory, () -> snapperRepository.findByEmail("my@email.address")))
+                .isZero();
+
+        // a new snapper evicts the cached queries
+        assertThat(snapperRepository.findByUsername("newcomer")).isEmpty();
+        snapperRepository.save(new Snapper("newcomer", "newcomer@email.address", "aVeryStrongPassword"));
+        assertThat(snapperRepository.findByUsername("newcomer")).isPresent();
+
+        assertThat(meterRegistry.get("photos.hibernate.cache.hit.ratio").tag("region", Snapper.CACHE_REGION).gauge()
+                .value()).isGreaterThan(0);
+    }
+
+}
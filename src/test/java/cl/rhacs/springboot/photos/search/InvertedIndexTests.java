@@ -0,0 +1,88 @@
+package cl.rhacs.springboot.photos.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InvertedIndexTests {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.add(1, "Robots at dawn", "Three robots waiting for the sun");
+        index.add(2, "Harbour", "Robots on a crane lifting containers");
+        index.add(3, "Fotografía nocturna", null);
+        index.add(4, "Harbour at night", "Containers and cranes");
+    }
+
+    @Test
+    void titlesRankAboveDescriptions() {
+        SearchResults results = index.search("robots", 0, 10);
+
+        assertThat(results.getTotalHits()).isEqualTo(2);
+        assertThat(results.getPhotoIds()).containsExactly(1L, 2L);
+        assertThat(results.getScores()[0]).isGreaterThan(results.getScores()[1]);
+    }
+
+    @Test
+    void wordsMatchByPrefixAndWithoutDiacritics() {
+        assertThat(index.search("contain", 0, 10).getPhotoIds()).containsExactlyInAnyOrder(2L, 4L);
+        assertThat(index.search("FOTOGRAFIA", 0, 10).getPhotoIds()).containsExactly(3L);
+    }
+
+    @Test
+    void pagesFollowTheRanking() {
+        SearchResults first = index.search("harbour night", 0, 1);
+        SearchResults second = index.search("harbour night", 1, 1);
+
+        assertThat(first.getTotalHits()).isEqualTo(2);
+        assertThat(first.getPhotoIds()).containsExactly(4L);
+        assertThat(second.getPhotoIds()).containsExactly(2L);
+        assertThat(index.search("harbour night", 2, 1).getPhotoIds()).isEmpty();
+    }
+
+    @Test
+    void updatesAndRemovalsAreVisible() {
+        index.add(2, "Lighthouse", null);
+
+        assertThat(index.search("crane", 0, 10).getPhotoIds()).containsExactly(4L);
+        assertThat(index.search("lighthouse", 0, 10).getPhotoIds()).containsExactly(2L);
+
+        assertThat(index.remove(4)).isTrue();
+        assertThat(index.remove(4)).isFalse();
+        assertThat(index.search("crane", 0, 10).getTotalHits()).isZero();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void purgedDocumentsAreNotFound() {
+        for (long id = 10; id < 5000; id++) {
+            index.add(id, "Batch " + id, "temporary");
+        }
+
+        for (long id = 10; id < 5000; id++) {
+            index.remove(id);
+        }
+
+        assertThat(index.search("temporary", 0, 10).getTotalHits()).isZero();
+        assertThat(index.search("robots", 0, 10).getPhotoIds()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void purgesRenumberTheLiveDocuments() {
+        for (int version = 0; version < 5000; version++) {
+            index.add(2, "Harbour " + version, "Robots on a crane lifting containers");
+        }
+
+        assertThat(index.capacity()).isLessThan(2000);
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.search("robots", 0, 10).getPhotoIds()).containsExactly(1L, 2L);
+        assertThat(index.search("harbour 4999", 0, 10).getPhotoIds()).containsExactly(2L, 4L);
+        assertThat(index.search("harbour 4998", 0, 10).getPhotoIds()).containsExactly(2L, 4L);
+        assertThat(index.search("4998", 0, 10).getTotalHits()).isZero();
+    }
+
+}
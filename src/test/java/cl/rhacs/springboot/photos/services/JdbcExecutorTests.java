@@ -0,0 +1,62 @@
+package cl.rhacs.springboot.photos.services;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest(properties = { "photos.jdbc-executor.threads = 1", "photos.jdbc-executor.queue-capacity = 1" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JdbcExecutorTests {
+
+    @Autowired
+    private JdbcExecutor jdbcExecutor;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void saturatedExecutorAnswersServiceUnavailable() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> running = jdbcExecutor.supply(() -> await(release));
+        CompletableFuture<Object> queued = jdbcExecutor.supply(() -> await(release));
+
+        try {
+            mockMvc.perform(get("/snappers/1")).andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+            mockMvc.perform(get("/photos/top")).andExpect(status().isOk());
+        } finally {
+            release.countDown();
+        }
+
+        CompletableFuture.allOf(running, queued).join();
+
+        MvcResult result = mockMvc.perform(get("/snappers/1")).andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+
+    private static Object await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return null;
+    }
+
+}
@@ -0,0 +1,52 @@
+package cl.rhacs.springboot.photos.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.PhotoSummary;
+import cl.rhacs.springboot.photos.models.Snapper;
+import cl.rhacs.springboot.photos.repositories.SnapperRepository;
+
+/**
+ * Ranks with boards larger than the photos of the repository, so they are
+ * exhaustive and are not reloaded to answer
+ */
+@SpringBootTest(properties = "photos.top.size = 50")
+@ActiveProfiles("test")
+class LeaderboardServiceTests {
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private PhotoBatchService photoBatchService;
+
+    @Autowired
+    private SnapperRepository snapperRepository;
+
+    @Test
+    void batchCreatedPhotosJoinTheExhaustiveBoards() {
+        Long snapperId = snapperRepository
+                .save(new Snapper("ranked", "ranked@email.address", "aVeryStrongPassword")).getSnapperId();
+
+        assertThat(leaderboardService.top(50, null)).hasSizeLessThan(50);
+        assertThat(leaderboardService.top(1, snapperId)).isEmpty();
+
+        Photo photo = new Photo("Ranked batch", null, "https://example.com/ranked.png");
+        photo.setSnapperId(snapperId);
+
+        Long photoId = photoBatchService.insertAll(List.of(photo).iterator()).getResults().get(0).getId();
+
+        assertThat(leaderboardService.top(1, snapperId)).extracting(PhotoSummary::getPhotoId)
+                .containsExactly(photoId);
+        assertThat(leaderboardService.top(50, null)).extracting(PhotoSummary::getPhotoId).contains(photoId);
+    }
+
+}
@@ -0,0 +1,51 @@
+package cl.rhacs.springboot.photos.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.PhotoSummary;
+import cl.rhacs.springboot.photos.models.Snapper;
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+import cl.rhacs.springboot.photos.repositories.SnapperRepository;
+
+/**
+ * Ranks with an overall board of four photos, which leaves out most of the
+ * photos of the repository
+ */
+@SpringBootTest(properties = "photos.top.size = 2")
+@ActiveProfiles("test")
+class LeaderboardServiceViewTests {
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private SnapperRepository snapperRepository;
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Test
+    void viewsReachTheSnapperBoardsOfPhotosOffTheOverallBoard() {
+        Long snapperId = snapperRepository
+                .save(new Snapper("viewed", "viewed@email.address", "aVeryStrongPassword")).getSnapperId();
+        Photo photo = new Photo("Viewed", null, "https://example.com/viewed.png");
+        photo.setSnapperId(snapperId);
+        Long photoId = photoRepository.save(photo).getPhotoId();
+
+        assertThat(leaderboardService.top(2, null)).extracting(PhotoSummary::getPhotoId).doesNotContain(photoId);
+        assertThat(leaderboardService.top(1, snapperId)).extracting(PhotoSummary::getViews).containsExactly(0L);
+
+        // a view answered from the cache knows the snapper, a miss does not
+        leaderboardService.increment(photoId, snapperId);
+        leaderboardService.increment(photoId, null);
+
+        assertThat(leaderboardService.top(1, snapperId)).extracting(PhotoSummary::getViews).containsExactly(2L);
+    }
+
+}
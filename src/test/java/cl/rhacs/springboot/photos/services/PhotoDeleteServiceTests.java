@@ -0,0 +1,70 @@
+package cl.rhacs.springboot.photos.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import cl.rhacs.springboot.photos.models.DeleteResponse;
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.models.Snapper;
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+import cl.rhacs.springboot.photos.repositories.SnapperRepository;
+import cl.rhacs.springboot.photos.support.CountsStatements;
+import cl.rhacs.springboot.photos.support.Statements;
+
+/**
+ * Deletes in chunks of two photos
+ */
+@SpringBootTest(properties = "photos.delete.chunk-size = 2")
+@CountsStatements
+@ActiveProfiles("test")
+class PhotoDeleteServiceTests {
+
+    @Autowired
+    private PhotoDeleteService photoDeleteService;
+
+    @Autowired
+    private SnapperRepository snapperRepository;
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void snapperPhotosAreDeletedInChunks() {
+        Long snapperId = snapperRepository
+                .save(new Snapper("prolific", "prolific@email.address", "aVeryStrongPassword")).getSnapperId();
+        List<Photo> photos = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            Photo photo = new Photo("Prolific " + i, null, "https://example.com/prolific/" + i + ".png");
+            photo.setSnapperId(snapperId);
+            photos.add(photo);
+        }
+
+        photoRepository.saveAll(photos);
+
+        Statements.clear(entityManagerFactory);
+
+        DeleteResponse response = photoDeleteService.deleteBySnapperId(snapperId);
+
+        // the ids and the delete of every chunk, and the last empty read
+        assertThat(Statements.prepared(entityManagerFactory)).isEqualTo(7);
+        assertThat(response.getDeleted()).isEqualTo(5);
+        assertThat(response.getChunks()).isEqualTo(3);
+        assertThat(response.getNotFound()).isNull();
+        assertThat(photoRepository.findPhotoIdsBySnapperId(snapperId, PageRequest.of(0, 10))).isEmpty();
+    }
+
+}
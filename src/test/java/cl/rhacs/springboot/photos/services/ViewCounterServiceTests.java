@@ -0,0 +1,91 @@
+package cl.rhacs.springboot.photos.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import cl.rhacs.springboot.photos.models.Photo;
+import cl.rhacs.springboot.photos.repositories.PhotoRepository;
+
+@SpringBootTest(properties = "photos.views.flush-interval = 3600000")
+@ActiveProfiles("test")
+class ViewCounterServiceTests {
+
+    @Autowired
+    private ViewCounterService viewCounterService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private PhotoCacheService photoCacheService;
+
+    @Test
+    void flushPersistsConcurrentIncrements() throws InterruptedException {
+        long before = views(2L);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> viewCounterService.increment(2L));
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertThat(viewCounterService.getPending(2L)).isEqualTo(1000);
+        assertThat(views(2L)).isEqualTo(before);
+
+        viewCounterService.flush();
+
+        assertThat(viewCounterService.getPending(2L)).isZero();
+        assertThat(viewCounterService.getPendingTotal()).isZero();
+        assertThat(views(2L)).isEqualTo(before + 1000);
+    }
+
+    @Test
+    void updatesKeepTheViewsFlushedMeanwhile() {
+        Photo stale = photoRepository.findById(4L).orElseThrow();
+        long before = views(4L);
+
+        for (int i = 0; i < 5; i++) {
+            viewCounterService.increment(4L);
+        }
+
+        viewCounterService.flush();
+        stale.setTitle("Updated after the flush");
+        photoRepository.save(stale);
+
+        assertThat(views(4L)).isEqualTo(before + 5);
+        assertThat(photoRepository.findById(4L).orElseThrow().getTitle()).isEqualTo("Updated after the flush");
+    }
+
+    @Test
+    void flushEvictsTheCachedSnapshots() {
+        long before = photoCacheService.findById(5L).orElseThrow().getViews();
+
+        for (int i = 0; i < 3; i++) {
+            viewCounterService.increment(5L);
+        }
+
+        viewCounterService.flush();
+
+        assertThat(photoCacheService.getIfPresent(5L)).isEmpty();
+        assertThat(photoCacheService.findById(5L).orElseThrow().getViews()).isEqualTo(before + 3);
+    }
+
+    private long views(Long photoId) {
+        return jdbcTemplate.queryForObject("select views from photos where photo_id = ?", Long.class, photoId);
+    }
+
+}
@@ -0,0 +1,42 @@
+package cl.rhacs.springboot.photos.support;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * Performs requests on a {@link MockMvc} whether their handlers answer on the
+ * servlet thread or with a future of the {@code JdbcExecutor}, dispatching the
+ * result of the latter once it completes
+ */
+public final class AsyncRequests {
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    private AsyncRequests() {
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Performs a request, waiting for the handlers that run on the
+     * {@code JdbcExecutor}
+     *
+     * @param mockMvc the {@code MockMvc}
+     * @param request the request
+     * @return the actions on the final result
+     * @throws Exception when the request fails
+     */
+    public static ResultActions perform(MockMvc mockMvc, RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
+}
@@ -0,0 +1,23 @@
+package cl.rhacs.springboot.photos.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Marks the tests that count statements with {@link Statements}. The Hibernate
+ * statistics are global to the context, so the scheduled refresh of the photo
+ * count is pushed out of the way and does not run while counting.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@TestPropertySource(properties = "photos.count.refresh-interval = 3600000")
+public @interface CountsStatements {
+}
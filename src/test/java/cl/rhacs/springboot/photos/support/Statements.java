@@ -0,0 +1,61 @@
+package cl.rhacs.springboot.photos.support;
+
+import java.util.concurrent.Callable;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Counts the statements prepared by some work, from the Hibernate statistics.
+ * The tests that use it are annotated with {@link CountsStatements}
+ */
+public final class Statements {
+
+    // Constructors
+    // -----------------------------------------------------------------------------------------
+
+    private Statements() {
+    }
+
+    // Methods
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Runs some work and counts the statements it prepared
+     *
+     * @param entityManagerFactory the factory holding the statistics
+     * @param work                 the work
+     * @return the number of prepared statements
+     * @throws Exception when the work fails
+     */
+    public static long count(EntityManagerFactory entityManagerFactory, Callable<?> work) throws Exception {
+        clear(entityManagerFactory);
+        work.call();
+
+        return prepared(entityManagerFactory);
+    }
+
+    /**
+     * Starts counting again
+     *
+     * @param entityManagerFactory the factory holding the statistics
+     */
+    public static void clear(EntityManagerFactory entityManagerFactory) {
+        statistics(entityManagerFactory).clear();
+    }
+
+    /**
+     * @param entityManagerFactory the factory holding the statistics
+     * @return the statements prepared since the last {@link #clear}
+     */
+    public static long prepared(EntityManagerFactory entityManagerFactory) {
+        return statistics(entityManagerFactory).getPrepareStatementCount();
+    }
+
+    private static Statistics statistics(EntityManagerFactory entityManagerFactory) {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+}
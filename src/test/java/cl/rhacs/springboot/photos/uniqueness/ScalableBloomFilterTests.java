@@ -0,0 +1,60 @@
+package cl.rhacs.springboot.photos.uniqueness;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+
+class ScalableBloomFilterTests {
+
+    @Test
+    void valuesThatWerePutAreAlwaysFound() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+
+        for (int i = 0; i < 10000; i++) {
+            filter.put("https://example.com/" + i + ".png");
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            assertThat(filter.mightContain("https://example.com/" + i + ".png")).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositivesStayUnderTheRateWhileGrowing() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+        long initialBits = filter.bits();
+
+        for (int i = 0; i < 50000; i++) {
+            filter.put("snapper" + i);
+        }
+
+        int falsePositives = 0;
+
+        for (int i = 0; i < 1000000; i++) {
+            if (filter.mightContain("stranger" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(filter.bits()).isGreaterThan(initialBits);
+        assertThat(falsePositives / 1000000.0).isLessThan(0.01);
+    }
+
+    @Test
+    void repeatedValuesDoNotChangeTheFilter() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(10, 0.01);
+
+        assertThat(filter.put("me")).isTrue();
+        assertThat(filter.put("me")).isFalse();
+        assertThat(filter.size()).isEqualTo(1);
+        assertThat(filter.mightContain("you")).isFalse();
+    }
+
+    @Test
+    void argumentsAreValidated() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ScalableBloomFilter(0, 0.01));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ScalableBloomFilter(10, 1));
+    }
+
+}